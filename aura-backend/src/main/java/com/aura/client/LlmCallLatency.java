@@ -0,0 +1,80 @@
+package com.aura.client;
+
+import java.time.Duration;
+
+/**
+ * Captures the Ollama exchange time and token counts of calls on the current thread, excluding queueing.
+ */
+public final class LlmCallLatency implements AutoCloseable {
+
+    private static final ThreadLocal<LlmCallLatency> CURRENT = new ThreadLocal<>();
+
+    private final LlmCallLatency previous;
+    private Duration latency;
+    private Integer promptEvalCount;
+    private Integer evalCount;
+
+    private LlmCallLatency(LlmCallLatency previous) {
+        this.previous = previous;
+    }
+
+    /**
+     * Starts capturing the calls made on the current thread until the returned tracker is closed.
+     */
+    public static LlmCallLatency track() {
+        LlmCallLatency tracker = new LlmCallLatency(CURRENT.get());
+        CURRENT.set(tracker);
+        return tracker;
+    }
+
+    /**
+     * Records the duration of an exchange made on the current thread, if anyone is tracking it.
+     */
+    static void record(Duration latency) {
+        LlmCallLatency tracker = CURRENT.get();
+        if (tracker != null) {
+            tracker.latency = latency;
+        }
+    }
+
+    /**
+     * Records the token counts Ollama reported for an exchange made on the current thread, if anyone is tracking it.
+     */
+    static void recordTokens(Integer promptEvalCount, Integer evalCount) {
+        LlmCallLatency tracker = CURRENT.get();
+        if (tracker != null) {
+            tracker.promptEvalCount = promptEvalCount;
+            tracker.evalCount = evalCount;
+        }
+    }
+
+    /**
+     * Returns the duration of the last exchange made while tracking, or null when none was made.
+     */
+    public Duration latency() {
+        return latency;
+    }
+
+    /**
+     * Returns the {@code prompt_eval_count} of the last exchange made while tracking, or null.
+     */
+    public Integer promptEvalCount() {
+        return promptEvalCount;
+    }
+
+    /**
+     * Returns the {@code eval_count} of the last exchange made while tracking, or null.
+     */
+    public Integer evalCount() {
+        return evalCount;
+    }
+
+    @Override
+    public void close() {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
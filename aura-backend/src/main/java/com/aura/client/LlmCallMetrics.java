@@ -0,0 +1,72 @@
+package com.aura.client;
+
+import com.aura.dto.OllamaDtos.ChatResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+public class LlmCallMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    public LlmCallMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Records the final response of one call; fields Ollama did not send are skipped.
+     */
+    public void record(LlmCallSite callSite, String model, ChatResponse response) {
+        if (response == null) {
+            return;
+        }
+        Tags tags = Tags.of("model", model == null ? "unknown" : model, "call_site", callSite.tag());
+        recordDuration(tags, "total", response.getTotalDuration());
+        recordDuration(tags, "load", response.getLoadDuration());
+        recordDuration(tags, "prompt_eval", response.getPromptEvalDuration());
+        recordDuration(tags, "eval", response.getEvalDuration());
+        recordTokens(tags, "prompt", response.getPromptEvalCount());
+        recordTokens(tags, "completion", response.getEvalCount());
+
+        Integer promptEvalCount = response.getPromptEvalCount();
+        if (promptEvalCount != null) {
+            DistributionSummary.builder("aura.llm.prompt.eval.tokens")
+                    .description("Prompt tokens Ollama evaluated per call")
+                    .baseUnit("tokens")
+                    .tags(tags)
+                    .register(meterRegistry)
+                    .record(promptEvalCount);
+        }
+    }
+
+    private void recordDuration(Tags tags, String phase, Long nanos) {
+        if (nanos == null) {
+            return;
+        }
+        Timer.builder("aura.llm.duration")
+                .description("Ollama-reported time per call phase")
+                .tags(tags)
+                .tag("phase", phase)
+                .register(meterRegistry)
+                .record(Duration.ofNanos(nanos));
+    }
+
+    private void recordTokens(Tags tags, String type, Integer count) {
+        if (count == null) {
+            return;
+        }
+        Counter.builder("aura.llm.tokens")
+                .description("Tokens processed by Ollama")
+                .baseUnit("tokens")
+                .tags(tags)
+                .tag("type", type)
+                .register(meterRegistry)
+                .increment(count);
+    }
+}
@@ -0,0 +1,27 @@
+package com.aura.client;
+
+/**
+ * Where an LLM call comes from; used as a metrics tag and to pick the scheduling lane.
+ */
+public enum LlmCallSite {
+    CHAT("chat", LlmPriority.INTERACTIVE),
+    CHAT_WITH_FILE("chat-with-file", LlmPriority.INTERACTIVE),
+    EMBEDDING("embedding", LlmPriority.INTERACTIVE),
+    MEMORY("memory", LlmPriority.BACKGROUND);
+
+    private final String tag;
+    private final LlmPriority priority;
+
+    LlmCallSite(String tag, LlmPriority priority) {
+        this.tag = tag;
+        this.priority = priority;
+    }
+
+    public String tag() {
+        return tag;
+    }
+
+    public LlmPriority priority() {
+        return priority;
+    }
+}
@@ -0,0 +1,9 @@
+package com.aura.client;
+
+/**
+ * Scheduling lane of an LLM call: user-facing requests go first, background work only uses leftover capacity.
+ */
+public enum LlmPriority {
+    INTERACTIVE,
+    BACKGROUND
+}
@@ -0,0 +1,138 @@
+package com.aura.client;
+
+import com.aura.config.LlmProperties;
+import com.aura.error.AuraErrorCode;
+import com.aura.error.AuraException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Admits LLM calls through an interactive and a background lane sharing one pool of Ollama slots.
+ */
+@Component
+public class LlmRequestScheduler {
+
+    private final LlmProperties properties;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition slotFreed = lock.newCondition();
+    private int interactiveInFlight;
+    private int backgroundInFlight;
+    private int interactiveWaiting;
+    private int backgroundWaiting;
+
+    public LlmRequestScheduler(LlmProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        Gauge.builder("aura.llm.scheduler.inflight", this, s -> s.inFlight(LlmPriority.INTERACTIVE))
+                .tag("lane", "interactive")
+                .register(meterRegistry);
+        Gauge.builder("aura.llm.scheduler.inflight", this, s -> s.inFlight(LlmPriority.BACKGROUND))
+                .tag("lane", "background")
+                .register(meterRegistry);
+        Gauge.builder("aura.llm.scheduler.waiting", this, s -> s.waiting(LlmPriority.INTERACTIVE))
+                .tag("lane", "interactive")
+                .register(meterRegistry);
+        Gauge.builder("aura.llm.scheduler.waiting", this, s -> s.waiting(LlmPriority.BACKGROUND))
+                .tag("lane", "background")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Waits for a slot in the given lane, runs the call, and frees the slot afterwards.
+     */
+    public <T> T run(LlmPriority priority, Supplier<T> call) {
+        acquire(priority);
+        try {
+            return call.get();
+        } finally {
+            release(priority);
+        }
+    }
+
+    public int inFlight(LlmPriority priority) {
+        lock.lock();
+        try {
+            return priority == LlmPriority.INTERACTIVE ? interactiveInFlight : backgroundInFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int waiting(LlmPriority priority) {
+        lock.lock();
+        try {
+            return priority == LlmPriority.INTERACTIVE ? interactiveWaiting : backgroundWaiting;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void acquire(LlmPriority priority) {
+        lock.lock();
+        try {
+            if (priority == LlmPriority.INTERACTIVE) {
+                interactiveWaiting++;
+                try {
+                    while (!canStartInteractive()) {
+                        RequestDeadline.await(slotFreed, "LLM scheduling");
+                    }
+                } finally {
+                    interactiveWaiting--;
+                }
+                interactiveInFlight++;
+            } else {
+                backgroundWaiting++;
+                try {
+                    while (!canStartBackground()) {
+                        RequestDeadline.await(slotFreed, "LLM scheduling");
+                    }
+                } finally {
+                    backgroundWaiting--;
+                }
+                backgroundInFlight++;
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            slotFreed.signalAll();
+            throw new AuraException(AuraErrorCode.OLLAMA_UNREACHABLE, "Interrupted while waiting for an LLM slot");
+        } catch (AuraException ex) {
+            slotFreed.signalAll();
+            throw ex;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(LlmPriority priority) {
+        lock.lock();
+        try {
+            if (priority == LlmPriority.INTERACTIVE) {
+                interactiveInFlight--;
+            } else {
+                backgroundInFlight--;
+            }
+            slotFreed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean canStartInteractive() {
+        return totalInFlight() < Math.max(1, properties.getMaxConcurrency())
+                && interactiveInFlight < Math.max(1, properties.getInteractiveMaxConcurrency());
+    }
+
+    private boolean canStartBackground() {
+        return interactiveWaiting == 0
+                && totalInFlight() < Math.max(1, properties.getMaxConcurrency())
+                && backgroundInFlight < Math.max(1, properties.getBackgroundMaxConcurrency());
+    }
+
+    private int totalInFlight() {
+        return interactiveInFlight + backgroundInFlight;
+    }
+}
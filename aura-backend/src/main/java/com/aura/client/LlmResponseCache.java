@@ -0,0 +1,172 @@
+package com.aura.client;
+
+import com.aura.config.LlmProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Opt-in LRU cache of deterministic LLM replies, bounded by entry count, bytes and TTL.
+ */
+@Component
+public class LlmResponseCache {
+
+    private final LlmProperties properties;
+    private final Clock clock;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter bypassCounter;
+    private long bytes;
+
+    @Autowired
+    public LlmResponseCache(LlmProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, Clock.systemUTC());
+    }
+
+    LlmResponseCache(LlmProperties properties, MeterRegistry meterRegistry, Clock clock) {
+        this.properties = properties;
+        this.clock = clock;
+        this.hitCounter = resultCounter(meterRegistry, "hit");
+        this.missCounter = resultCounter(meterRegistry, "miss");
+        this.bypassCounter = resultCounter(meterRegistry, "bypass");
+        Gauge.builder("aura.llm.cache.bytes", this, LlmResponseCache::sizeInBytes)
+                .description("Estimated memory held by cached LLM replies")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns true when the cache is enabled and the options pin the output with a zero temperature or a fixed seed.
+     */
+    public boolean isCacheable(Map<String, Object> options) {
+        if (!properties.isCacheEnabled() || options == null) {
+            return false;
+        }
+        if (options.get("seed") instanceof Number) {
+            return true;
+        }
+        return options.get("temperature") instanceof Number temperature && temperature.doubleValue() == 0.0;
+    }
+
+    /**
+     * Returns the cached reply for the key, or null when absent or expired.
+     */
+    public String get(String key) {
+        lock.lock();
+        try {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                missCounter.increment();
+                return null;
+            }
+            if (!entry.expiresAt().isAfter(clock.instant())) {
+                remove(key);
+                missCounter.increment();
+                return null;
+            }
+            hitCounter.increment();
+            return entry.value();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stores a reply and evicts least recently used entries until both limits hold.
+     */
+    public void put(String key, String value) {
+        long entryBytes = estimateBytes(key, value);
+        if (entryBytes > properties.getCacheMaxBytes()) {
+            return;
+        }
+        lock.lock();
+        try {
+            remove(key);
+            Instant expiresAt = clock.instant().plus(Duration.ofSeconds(properties.getCacheTtlSeconds()));
+            entries.put(key, new Entry(value, expiresAt, entryBytes));
+            bytes += entryBytes;
+            evict();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records a request that skipped the cache because it is not cacheable.
+     */
+    public void recordBypass() {
+        bypassCounter.increment();
+    }
+
+    /**
+     * Returns the number of cached replies, including expired ones not yet looked up.
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the estimated memory held by cached replies.
+     */
+    public long sizeInBytes() {
+        lock.lock();
+        try {
+            return bytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops least recently used entries while either limit is exceeded; expired entries go on their next lookup.
+     */
+    private void evict() {
+        int maxEntries = Math.max(1, properties.getCacheMaxEntries());
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext() && (entries.size() > maxEntries || bytes > properties.getCacheMaxBytes())) {
+            bytes -= it.next().bytes();
+            it.remove();
+        }
+    }
+
+    private void remove(String key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            bytes -= removed.bytes();
+        }
+    }
+
+    /**
+     * Approximates heap use: two bytes per char for the key and value plus a fixed per-entry overhead.
+     */
+    private static long estimateBytes(String key, String value) {
+        return 2L * (key.length() + value.length()) + 96;
+    }
+
+    private static Counter resultCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("aura.llm.cache")
+                .description("LLM reply cache lookups by result")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private record Entry(String value, Instant expiresAt, long bytes) {
+    }
+}
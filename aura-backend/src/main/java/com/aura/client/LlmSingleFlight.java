@@ -0,0 +1,94 @@
+package com.aura.client;
+
+import com.aura.error.AuraErrorCode;
+import com.aura.error.AuraException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Collapses identical LLM calls that overlap in time into one upstream request; nothing is cached once it finishes.
+ */
+@Component
+public class LlmSingleFlight {
+
+    private final ConcurrentHashMap<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    public LlmSingleFlight(MeterRegistry meterRegistry) {
+        this.hitCounter = resultCounter(meterRegistry, "hit");
+        this.missCounter = resultCounter(meterRegistry, "miss");
+    }
+
+    /**
+     * Returns the result of the in-flight call for the key, or runs the call if none is running.
+     */
+    public String execute(String key, Supplier<String> call) {
+        while (true) {
+            CompletableFuture<String> leader = new CompletableFuture<>();
+            CompletableFuture<String> existing = inFlight.putIfAbsent(key, leader);
+            if (existing == null) {
+                missCounter.increment();
+                return lead(key, leader, call);
+            }
+            hitCounter.increment();
+            try {
+                return RequestDeadline.await(existing, "LLM call");
+            } catch (ExecutionException ex) {
+                if (!(ex.getCause() instanceof AuraException aura && aura.getCode() == AuraErrorCode.DEADLINE_EXCEEDED)) {
+                    throw rethrow(ex.getCause());
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new AuraException(AuraErrorCode.OLLAMA_UNREACHABLE, "Interrupted while waiting for an identical LLM call");
+            }
+        }
+    }
+
+    /**
+     * Returns the number of distinct calls currently in flight.
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * Runs the call, forgetting the key before completing so a retrying follower never joins the finished call.
+     */
+    private String lead(String key, CompletableFuture<String> leader, Supplier<String> call) {
+        String result;
+        try {
+            result = call.get();
+        } catch (RuntimeException | Error ex) {
+            inFlight.remove(key, leader);
+            leader.completeExceptionally(ex);
+            throw ex;
+        }
+        inFlight.remove(key, leader);
+        leader.complete(result);
+        return result;
+    }
+
+    private static RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new AuraException(AuraErrorCode.OLLAMA_UNREACHABLE, "LLM call failed");
+    }
+
+    private static Counter resultCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("aura.llm.singleflight")
+                .description("Chat requests by whether they joined an identical in-flight call")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
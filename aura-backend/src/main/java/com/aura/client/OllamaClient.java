@@ -1,72 +1,312 @@
 package com.aura.client;
 
 import com.aura.config.OllamaProperties;
+import com.aura.config.WorkerThreads;
 import com.aura.dto.OllamaDtos.ChatMessage;
 import com.aura.dto.OllamaDtos.ChatRequest;
 import com.aura.dto.OllamaDtos.ChatResponse;
+import com.aura.dto.OllamaDtos.EmbedRequest;
+import com.aura.dto.OllamaDtos.EmbedResponse;
 import com.aura.error.AuraErrorCode;
 import com.aura.error.AuraException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestClient;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 @Component
 @RequiredArgsConstructor
 public class OllamaClient {
 
-    private final RestClient ollamaRestClient;
+    private final OllamaNodePool nodePool;
+    private final LlmRequestScheduler scheduler;
+    private final LlmSingleFlight singleFlight;
+    private final LlmResponseCache responseCache;
+    private final LlmCallMetrics callMetrics;
     private final OllamaProperties props;
+    private final ObjectMapper objectMapper;
+    private final WorkerThreads workerThreads;
+    private ExecutorService callExecutor;
+
+    @PostConstruct
+    void start() {
+        callExecutor = workerThreads.unbounded("ollama-call");
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (callExecutor != null) {
+            callExecutor.shutdownNow();
+        }
+    }
 
     /**
      * Sends a single-turn chat request to Ollama and returns the assistant reply.
      */
     public String chatOnce(String userContent, String systemPrompt) {
+        return chatWithMessages(List.of(
+                ChatMessage.builder().role("system").content(systemPrompt).build(),
+                ChatMessage.builder().role("user").content(userContent).build()
+        ));
+    }
+
+    /**
+     * Sends a multi-turn chat request to Ollama as a plain chat call and returns the assistant reply.
+     */
+    public String chatWithMessages(List<ChatMessage> messages) {
+        return chatWithMessages(messages, LlmCallSite.CHAT);
+    }
+
+    /**
+     * Sends a multi-turn chat request in the call site's lane, with failover, single-flight and the reply cache.
+     */
+    public String chatWithMessages(List<ChatMessage> messages, LlmCallSite callSite) {
         ChatRequest body = ChatRequest.builder()
                 .model(props.getModel())
                 .stream(false)
-                .messages(List.of(
-                        ChatMessage.builder().role("system").content(systemPrompt).build(),
-                        ChatMessage.builder().role("user").content(userContent).build()
-                ))
+                .messages(messages)
+                .options(props.getOptions())
+                .keepAlive(props.getKeepAlive())
                 .build();
 
-        ChatResponse resp = ollamaRestClient.post()
+        String key = requestKey(body);
+        boolean cacheable = responseCache.isCacheable(body.getOptions());
+        if (cacheable) {
+            String cached = responseCache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        } else {
+            responseCache.recordBypass();
+        }
+
+        return singleFlight.execute(key, () -> {
+            ChatResponse resp = scheduler.run(callSite.priority(), () -> {
+                long started = System.nanoTime();
+                ChatResponse response = executeWithFailover(client -> client.post()
+                        .uri("/api/chat")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .body(body)
+                        .retrieve()
+                        .body(ChatResponse.class));
+                LlmCallLatency.record(Duration.ofNanos(System.nanoTime() - started));
+                return response;
+            });
+
+            if (resp == null || resp.getMessage() == null || resp.getMessage().getContent() == null) {
+                throw new AuraException(AuraErrorCode.OLLAMA_EMPTY_RESPONSE, "Empty response from Ollama");
+            }
+            callMetrics.record(callSite, body.getModel(), resp);
+            LlmCallLatency.recordTokens(resp.getPromptEvalCount(), resp.getEvalCount());
+            String answer = resp.getMessage().getContent();
+            if (cacheable) {
+                responseCache.put(key, answer);
+            }
+            return answer;
+        });
+    }
+
+    /**
+     * Streams a chat reply, forwarding each content fragment to the consumer, and returns the full reply.
+     */
+    public String streamChatWithMessages(List<ChatMessage> messages, Consumer<String> onToken) {
+        ChatRequest body = ChatRequest.builder()
+                .model(props.getModel())
+                .stream(true)
+                .messages(messages)
+                .options(props.getOptions())
+                .keepAlive(props.getKeepAlive())
+                .build();
+
+        AtomicReference<ChatResponse> done = new AtomicReference<>();
+        String answer = scheduler.run(LlmPriority.INTERACTIVE, () -> execute(nodePool.acquire(), client -> client.post()
                 .uri("/api/chat")
                 .contentType(MediaType.APPLICATION_JSON)
-                .accept(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_NDJSON)
                 .body(body)
-                .retrieve()
-                .body(ChatResponse.class);
+                .exchange((request, response) -> {
+                    if (response.getStatusCode().isError()) {
+                        throw new AuraException(AuraErrorCode.OLLAMA_UNREACHABLE,
+                                "Ollama returned status " + response.getStatusCode().value());
+                    }
+                    return readStream(response.getBody(), body, onToken, done);
+                })));
 
-        if (resp == null || resp.getMessage() == null || resp.getMessage().getContent() == null) {
+        if (answer == null) {
             throw new AuraException(AuraErrorCode.OLLAMA_EMPTY_RESPONSE, "Empty response from Ollama");
         }
-        return resp.getMessage().getContent();
+        if (done.get() != null) {
+            LlmCallLatency.recordTokens(done.get().getPromptEvalCount(), done.get().getEvalCount());
+        }
+        return answer;
     }
 
     /**
-     * Sends a multi-turn chat request to Ollama and returns the assistant reply.
+     * Embeds the inputs in one {@code /api/embed} call and returns their vectors in input order.
      */
-    public String chatWithMessages(List<ChatMessage> messages) {
-        ChatRequest body = ChatRequest.builder()
-                .model(props.getModel())
-                .stream(false)
-                .messages(messages)
+    public List<float[]> embed(List<String> inputs) {
+        if (inputs.isEmpty()) {
+            return List.of();
+        }
+        EmbedRequest body = EmbedRequest.builder()
+                .model(props.getEmbeddingModel())
+                .input(inputs)
+                .keepAlive(props.getKeepAlive())
                 .build();
 
-        ChatResponse resp = ollamaRestClient.post()
-                .uri("/api/chat")
+        EmbedResponse resp = scheduler.run(LlmCallSite.EMBEDDING.priority(), () -> executeWithFailover(client -> client.post()
+                .uri("/api/embed")
                 .contentType(MediaType.APPLICATION_JSON)
                 .accept(MediaType.APPLICATION_JSON)
                 .body(body)
                 .retrieve()
-                .body(ChatResponse.class);
+                .body(EmbedResponse.class)));
 
-        if (resp == null || resp.getMessage() == null || resp.getMessage().getContent() == null) {
-            throw new AuraException(AuraErrorCode.OLLAMA_EMPTY_RESPONSE, "Empty response from Ollama");
+        if (resp == null || resp.getEmbeddings() == null || resp.getEmbeddings().size() != inputs.size()) {
+            throw new AuraException(AuraErrorCode.OLLAMA_EMPTY_RESPONSE,
+                    "Ollama returned no embedding for some of " + inputs.size() + " inputs");
+        }
+        return resp.getEmbeddings();
+    }
+
+    /**
+     * Hashes the serialized request, which covers the model, every message in order, and the sampling options.
+     */
+    private String requestKey(ChatRequest body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(body)));
+        } catch (JsonProcessingException | NoSuchAlgorithmException ex) {
+            throw new AuraException(AuraErrorCode.INTERNAL_ERROR, "Failed to hash chat request");
+        }
+    }
+
+    private <T> T executeWithFailover(Function<RestClient, T> call) {
+        OllamaNode node = nodePool.acquire();
+        try {
+            return execute(node, call);
+        } catch (ResourceAccessException | HttpServerErrorException ex) {
+            if (!nodePool.hasHealthyAlternative(node)) {
+                throw ex;
+            }
+            return execute(nodePool.acquire(node), call);
+        }
+    }
+
+    /**
+     * Runs a call on an acquired node; failures, and timeouts not caused by the caller, count against the node.
+     */
+    private <T> T execute(OllamaNode node, Function<RestClient, T> call) {
+        RequestDeadline deadline = RequestDeadline.current();
+        boolean expiredBefore = deadline != null && deadline.isExpired();
+        boolean success = false;
+        try {
+            T result = withDeadline(() -> call.apply(node.restClient()));
+            success = true;
+            return result;
+        } catch (ResourceAccessException | HttpServerErrorException ex) {
+            throw ex;
+        } catch (RuntimeException ex) {
+            success = !isNodeFailure(ex, deadline, expiredBefore);
+            throw ex;
+        } finally {
+            nodePool.release(node, success);
+        }
+    }
+
+    /**
+     * Runs the exchange on a worker that is interrupted when the request deadline passes or is cancelled.
+     */
+    private <T> T withDeadline(Supplier<T> call) {
+        RequestDeadline deadline = RequestDeadline.current();
+        if (deadline == null) {
+            return call.get();
+        }
+        deadline.check("Ollama call");
+        Future<T> future = callExecutor.submit(call::get);
+        try (RequestDeadline.Scope abort = deadline.onCancel(() -> future.cancel(true))) {
+            return future.get(deadline.remaining().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException | CancellationException ex) {
+            future.cancel(true);
+            throw deadline.exceeded("Ollama call");
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new AuraException(AuraErrorCode.OLLAMA_UNREACHABLE, "Ollama call failed");
+        } catch (InterruptedException ex) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw deadline.exceeded("Ollama call");
+        }
+    }
+
+    private boolean isNodeFailure(RuntimeException ex, RequestDeadline deadline, boolean expiredBefore) {
+        if (!(ex instanceof AuraException aura)) {
+            return false;
+        }
+        if (aura.getCode() == AuraErrorCode.DEADLINE_EXCEEDED) {
+            return deadline != null && !expiredBefore && !deadline.isCancelled();
+        }
+        return aura.getCode() == AuraErrorCode.OLLAMA_UNREACHABLE;
+    }
+
+    private String readStream(InputStream body, ChatRequest request, Consumer<String> onToken,
+                              AtomicReference<ChatResponse> done) throws IOException {
+        StringBuilder answer = new StringBuilder();
+        boolean received = false;
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            ChatResponse chunk = objectMapper.readValue(line, ChatResponse.class);
+            if (chunk.getError() != null) {
+                throw new AuraException(AuraErrorCode.OLLAMA_UNREACHABLE, "Ollama stream failed: " + chunk.getError());
+            }
+            if (chunk.getMessage() != null && chunk.getMessage().getContent() != null) {
+                received = true;
+                String content = chunk.getMessage().getContent();
+                if (!content.isEmpty()) {
+                    answer.append(content);
+                    onToken.accept(content);
+                }
+            }
+            if (chunk.isDone()) {
+                callMetrics.record(LlmCallSite.CHAT, request.getModel(), chunk);
+                done.set(chunk);
+                break;
+            }
         }
-        return resp.getMessage().getContent();
+        return received ? answer.toString() : null;
     }
 }
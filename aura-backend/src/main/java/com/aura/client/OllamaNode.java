@@ -0,0 +1,80 @@
+package com.aura.client;
+
+import org.springframework.web.client.RestClient;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public final class OllamaNode {
+
+    private final String baseUrl;
+    private final RestClient restClient;
+    private final RestClient probeClient;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile boolean healthy = true;
+    private volatile long lastUsedNanos = System.nanoTime();
+
+    public OllamaNode(String baseUrl, RestClient restClient) {
+        this(baseUrl, restClient, restClient);
+    }
+
+    public OllamaNode(String baseUrl, RestClient restClient, RestClient probeClient) {
+        this.baseUrl = baseUrl;
+        this.restClient = restClient;
+        this.probeClient = probeClient;
+    }
+
+    public String baseUrl() {
+        return baseUrl;
+    }
+
+    public RestClient restClient() {
+        return restClient;
+    }
+
+    /**
+     * Returns the client used for health probes, which gives up much sooner than the one for model calls.
+     */
+    public RestClient probeClient() {
+        return probeClient;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    /**
+     * Returns the {@link System#nanoTime()} at which the node was last handed a request.
+     */
+    public long lastUsedNanos() {
+        return lastUsedNanos;
+    }
+
+    int acquire() {
+        lastUsedNanos = System.nanoTime();
+        return inFlight.incrementAndGet();
+    }
+
+    void release() {
+        inFlight.decrementAndGet();
+    }
+
+    int recordFailure() {
+        return consecutiveFailures.incrementAndGet();
+    }
+
+    void recordSuccess() {
+        consecutiveFailures.set(0);
+    }
+
+    void markHealthy(boolean healthy) {
+        this.healthy = healthy;
+        if (healthy) {
+            consecutiveFailures.set(0);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.aura.client;
+
+import com.aura.error.AuraErrorCode;
+import com.aura.error.AuraException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Routes each Ollama call to the least loaded healthy node and ejects nodes after consecutive failures.
+ */
+public class OllamaNodePool {
+
+    private final List<OllamaNode> nodes;
+    private final int ejectAfterFailures;
+    private final Executor probeExecutor;
+    private final AtomicInteger cursor = new AtomicInteger();
+
+    public OllamaNodePool(List<OllamaNode> nodes, int ejectAfterFailures) {
+        this(nodes, ejectAfterFailures, Runnable::run);
+    }
+
+    public OllamaNodePool(List<OllamaNode> nodes, int ejectAfterFailures, Executor probeExecutor) {
+        if (nodes == null || nodes.isEmpty()) {
+            throw new IllegalArgumentException("At least one Ollama endpoint is required");
+        }
+        this.nodes = List.copyOf(nodes);
+        this.ejectAfterFailures = Math.max(1, ejectAfterFailures);
+        this.probeExecutor = probeExecutor;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (probeExecutor instanceof ExecutorService executor) {
+            executor.shutdownNow();
+        }
+    }
+
+    public List<OllamaNode> nodes() {
+        return nodes;
+    }
+
+    /**
+     * Picks the least loaded healthy node, or any node when all are ejected, and counts the call as in flight.
+     */
+    public OllamaNode acquire() {
+        return acquire(null);
+    }
+
+    /**
+     * Same as {@link #acquire()} but avoids the given node when another candidate exists.
+     */
+    public OllamaNode acquire(OllamaNode exclude) {
+        OllamaNode selected = select(exclude, true);
+        if (selected == null) {
+            selected = select(exclude, false);
+        }
+        if (selected == null) {
+            throw new AuraException(AuraErrorCode.OLLAMA_UNREACHABLE, "No Ollama endpoint available");
+        }
+        selected.acquire();
+        return selected;
+    }
+
+    /**
+     * Ends an in-flight call and updates the node's health from its outcome.
+     */
+    public void release(OllamaNode node, boolean success) {
+        node.release();
+        if (success) {
+            node.recordSuccess();
+        } else if (node.recordFailure() >= ejectAfterFailures) {
+            node.markHealthy(false);
+        }
+    }
+
+    /**
+     * Returns whether at least one node other than the given one is currently healthy.
+     */
+    public boolean hasHealthyAlternative(OllamaNode node) {
+        for (OllamaNode candidate : nodes) {
+            if (candidate != node && candidate.isHealthy()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Probes ejected nodes in parallel and puts back those that answer again.
+     */
+    @Scheduled(fixedDelayString = "${ollama.health-check-interval-ms:10000}")
+    public void checkHealth() {
+        List<CompletableFuture<Void>> probes = new ArrayList<>();
+        for (OllamaNode node : nodes) {
+            if (!node.isHealthy()) {
+                probes.add(CompletableFuture.runAsync(() -> node.markHealthy(probe(node)), probeExecutor));
+            }
+        }
+        CompletableFuture.allOf(probes.toArray(CompletableFuture[]::new)).join();
+    }
+
+    private boolean probe(OllamaNode node) {
+        try {
+            node.probeClient().get()
+                    .uri("/api/tags")
+                    .retrieve()
+                    .toBodilessEntity();
+            return true;
+        } catch (RuntimeException ex) {
+            return false;
+        }
+    }
+
+    private OllamaNode select(OllamaNode exclude, boolean healthyOnly) {
+        int size = nodes.size();
+        int start = Math.floorMod(cursor.getAndIncrement(), size);
+        OllamaNode best = null;
+        for (int i = 0; i < size; i++) {
+            OllamaNode candidate = nodes.get((start + i) % size);
+            if (candidate == exclude && size > 1) {
+                continue;
+            }
+            if (healthyOnly && !candidate.isHealthy()) {
+                continue;
+            }
+            if (best == null || candidate.inFlight() < best.inFlight()) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+}
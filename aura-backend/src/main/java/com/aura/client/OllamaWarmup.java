@@ -0,0 +1,178 @@
+package com.aura.client;
+
+import com.aura.config.OllamaProperties;
+import com.aura.config.WorkerThreads;
+import com.aura.dto.OllamaDtos.GenerateRequest;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Loads the model on every Ollama endpoint at startup and keeps it resident while traffic flows.
+ */
+@Slf4j
+@Component("ollamaWarmup")
+@RequiredArgsConstructor
+public class OllamaWarmup implements HealthIndicator {
+
+    private final OllamaNodePool nodePool;
+    private final OllamaProperties props;
+    private final WorkerThreads workerThreads;
+    private final Set<OllamaNode> warmNodes = ConcurrentHashMap.newKeySet();
+    private final Set<OllamaNode> loadingNodes = ConcurrentHashMap.newKeySet();
+    private volatile long lastRefreshNanos = System.nanoTime();
+    private ExecutorService loader;
+
+    @PostConstruct
+    void start() {
+        loader = workerThreads.unbounded("ollama-warmup");
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (loader != null) {
+            loader.shutdownNow();
+        }
+    }
+
+    @Override
+    public Health health() {
+        if (!props.isWarmupEnabled()) {
+            return Health.up().withDetail("warmup", "disabled").build();
+        }
+        Health.Builder builder = warmNodes.isEmpty() ? Health.outOfService() : Health.up();
+        return builder
+                .withDetail("model", String.valueOf(props.getModel()))
+                .withDetail("warmEndpoints", warmNodes.size())
+                .withDetail("endpoints", nodePool.nodes().size())
+                .build();
+    }
+
+    /**
+     * Preloads the model on endpoints that are not warm yet, including ones that were ejected.
+     */
+    @Scheduled(fixedDelayString = "${ollama.warmup-retry-interval-ms:5000}")
+    public void warmColdNodes() {
+        loadColdNodes();
+    }
+
+    /**
+     * Pings warm endpoints that served nothing since the last refresh, only while some endpoint did.
+     */
+    @Scheduled(fixedDelayString = "${ollama.keep-alive-refresh-interval-ms:240000}")
+    public void refreshResidency() {
+        refreshIdleNodes();
+    }
+
+    /**
+     * Starts loads on the cold endpoints and returns when they have all finished.
+     */
+    CompletableFuture<Void> loadColdNodes() {
+        if (!props.isWarmupEnabled()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        List<CompletableFuture<Void>> loads = new ArrayList<>();
+        for (OllamaNode node : nodePool.nodes()) {
+            if (!node.isHealthy()) {
+                warmNodes.remove(node);
+            } else if (!warmNodes.contains(node)) {
+                loads.add(loadAsync(node, true));
+            }
+        }
+        return CompletableFuture.allOf(loads.toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * Starts keep-alive pings on the idle warm endpoints and returns when they have all finished.
+     */
+    CompletableFuture<Void> refreshIdleNodes() {
+        long since = lastRefreshNanos;
+        lastRefreshNanos = System.nanoTime();
+        if (!props.isWarmupEnabled()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        boolean trafficPresent = nodePool.nodes().stream().anyMatch(node -> node.lastUsedNanos() - since > 0);
+        if (!trafficPresent) {
+            return CompletableFuture.completedFuture(null);
+        }
+        List<CompletableFuture<Void>> loads = new ArrayList<>();
+        for (OllamaNode node : nodePool.nodes()) {
+            if (warmNodes.contains(node) && node.isHealthy() && node.lastUsedNanos() - since <= 0) {
+                loads.add(loadAsync(node, false));
+            }
+        }
+        return CompletableFuture.allOf(loads.toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * Returns the number of endpoints with the model loaded.
+     */
+    public int warmCount() {
+        return warmNodes.size();
+    }
+
+    /**
+     * Loads the model on a worker unless a load is already in flight on the node.
+     */
+    private CompletableFuture<Void> loadAsync(OllamaNode node, boolean cold) {
+        if (!loadingNodes.add(node)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        try {
+            return CompletableFuture.runAsync(() -> {
+                try {
+                    if (!load(node)) {
+                        warmNodes.remove(node);
+                    } else if (warmNodes.add(node) && cold) {
+                        log.info("Model {} loaded on {}", props.getModel(), node.baseUrl());
+                    }
+                } finally {
+                    loadingNodes.remove(node);
+                }
+            }, loader);
+        } catch (RejectedExecutionException ex) {
+            loadingNodes.remove(node);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    /**
+     * Sends an empty generate request, which makes Ollama load the model and reset its keep-alive timer.
+     */
+    private boolean load(OllamaNode node) {
+        long started = System.nanoTime();
+        try {
+            node.restClient().post()
+                    .uri("/api/generate")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(GenerateRequest.builder()
+                            .model(props.getModel())
+                            .stream(false)
+                            .keepAlive(props.getKeepAlive())
+                            .build())
+                    .retrieve()
+                    .toBodilessEntity();
+            log.debug("Keep-alive for {} on {} took {}", props.getModel(), node.baseUrl(),
+                    Duration.ofNanos(System.nanoTime() - started));
+            return true;
+        } catch (RuntimeException ex) {
+            log.warn("Could not load model {} on {}: {}", props.getModel(), node.baseUrl(), ex.getMessage());
+            return false;
+        }
+    }
+}
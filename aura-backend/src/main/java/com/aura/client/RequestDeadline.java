@@ -0,0 +1,176 @@
+package com.aura.client;
+
+import com.aura.error.AuraErrorCode;
+import com.aura.error.AuraException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+
+/**
+ * Time budget of one incoming request, bound to the handling thread and cancelled when the client goes away.
+ */
+public final class RequestDeadline {
+
+    private static final ThreadLocal<RequestDeadline> CURRENT = new ThreadLocal<>();
+
+    private final long deadlineNanos;
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+    private final List<Runnable> cancelCallbacks = new CopyOnWriteArrayList<>();
+
+    private RequestDeadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Creates a deadline that expires after the given budget.
+     */
+    public static RequestDeadline after(Duration budget) {
+        return new RequestDeadline(System.nanoTime() + budget.toNanos());
+    }
+
+    /**
+     * Returns the deadline bound to the current thread, or null when the work has no deadline.
+     */
+    public static RequestDeadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Binds this deadline to the current thread until the returned scope is closed.
+     */
+    public Scope attach() {
+        RequestDeadline previous = CURRENT.get();
+        CURRENT.set(this);
+        return () -> {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    /**
+     * Returns the time left, never negative; zero once cancelled.
+     */
+    public Duration remaining() {
+        if (cancelled.get()) {
+            return Duration.ZERO;
+        }
+        return Duration.ofNanos(Math.max(0, deadlineNanos - System.nanoTime()));
+    }
+
+    public boolean isExpired() {
+        return cancelled.get() || deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    public boolean isCancelled() {
+        return cancelled.get();
+    }
+
+    /**
+     * Marks the request as abandoned and runs the cancel callbacks once.
+     */
+    public void cancel() {
+        if (cancelled.compareAndSet(false, true)) {
+            cancelCallbacks.forEach(Runnable::run);
+        }
+    }
+
+    /**
+     * Registers a callback run on cancellation, or runs it at once if already cancelled.
+     */
+    public Scope onCancel(Runnable callback) {
+        cancelCallbacks.add(callback);
+        if (cancelled.get() && cancelCallbacks.remove(callback)) {
+            callback.run();
+        }
+        return () -> cancelCallbacks.remove(callback);
+    }
+
+    /**
+     * Throws {@link AuraErrorCode#DEADLINE_EXCEEDED} if the budget is spent or the request was cancelled.
+     */
+    public void check(String stage) {
+        if (isExpired()) {
+            throw exceeded(stage);
+        }
+    }
+
+    /**
+     * Checks the current thread's deadline, if any.
+     */
+    public static void checkCurrent(String stage) {
+        RequestDeadline deadline = current();
+        if (deadline != null) {
+            deadline.check(stage);
+        }
+    }
+
+    /**
+     * Returns the smaller of the fallback and the current thread's remaining budget.
+     */
+    public static Duration remainingOr(Duration fallback) {
+        RequestDeadline deadline = current();
+        if (deadline == null) {
+            return fallback;
+        }
+        Duration remaining = deadline.remaining();
+        return remaining.compareTo(fallback) < 0 ? remaining : fallback;
+    }
+
+    /**
+     * Waits on the condition for at most the current thread's remaining budget.
+     */
+    public static void await(Condition condition, String stage) throws InterruptedException {
+        RequestDeadline deadline = current();
+        if (deadline == null) {
+            condition.await();
+            return;
+        }
+        deadline.check(stage);
+        condition.awaitNanos(deadline.remaining().toNanos());
+    }
+
+    /**
+     * Waits for a shared future within the remaining budget, leaving the future running for others.
+     */
+    public static <T> T await(CompletableFuture<T> future, String stage) throws ExecutionException, InterruptedException {
+        RequestDeadline deadline = current();
+        if (deadline == null) {
+            return future.get();
+        }
+        deadline.check(stage);
+        CompletableFuture<T> view = future.copy();
+        try (Scope abort = deadline.onCancel(() -> view.cancel(false))) {
+            return view.get(deadline.remaining().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException | CancellationException ex) {
+            throw deadline.exceeded(stage);
+        }
+    }
+
+    /**
+     * Builds the error reported when the budget runs out or the request is cancelled during the given stage.
+     */
+    public AuraException exceeded(String stage) {
+        String reason = cancelled.get() ? "Request cancelled" : "Request deadline exceeded";
+        return new AuraException(AuraErrorCode.DEADLINE_EXCEEDED, reason + " during " + stage);
+    }
+
+    /**
+     * Handle that undoes a binding or registration; closing never throws.
+     */
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
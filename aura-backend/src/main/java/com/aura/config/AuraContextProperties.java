@@ -12,5 +12,17 @@ import org.springframework.stereotype.Component;
 public class AuraContextProperties {
     private int windowSizeMessages = 16;
     private int memoryUpdateEveryMessages = 10;
+    private int memoryUpdateQueueCapacity = 1000;
+    private int memoryUpdateWorkers = 1;
     private int maxPromptChars = 24000;
+    private ContextMode contextMode = ContextMode.SLIDING;
+    private int historyBlockMessages = 8;
+
+    /**
+     * SLIDING keeps the last N messages; PREFIX_STABLE moves the window in blocks so prompts share a cacheable prefix.
+     */
+    public enum ContextMode {
+        SLIDING,
+        PREFIX_STABLE
+    }
 }
@@ -0,0 +1,36 @@
+package com.aura.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "aura.chat")
+public class ChatProperties {
+    private long requestTimeoutSeconds = 120;
+    private long streamTimeoutSeconds = 300;
+    private int maxConcurrentChats = 16;
+    private int userMaxInFlight = 2;
+    private int userMaxQueued = 4;
+    private int fairShareQuantum = 1;
+    private long fileCostBytes = 1024L * 1024L;
+    private boolean limitEnabled = true;
+    private int limitInitial = 8;
+    private int limitMin = 2;
+    private int limitMax = 64;
+    private long limitLatencyTargetMs = 0;
+    private int limitLatencyWindow = 200;
+    private double limitLatencyTolerance = 3.0;
+    private double limitBackoffRatio = 0.9;
+    private long shedRetryAfterSeconds = 2;
+    private int jobWorkers = 4;
+    private int jobQueueCapacity = 32;
+    private long jobMaxWaitSeconds = 30;
+    private long jobPollIntervalMs = 500;
+    private long jobStaleAfterSeconds = 1800;
+    private long jobRetentionHours = 24;
+    private long jobCleanupIntervalMs = 60000;
+}
@@ -0,0 +1,20 @@
+package com.aura.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "aura.llm")
+public class LlmProperties {
+    private int maxConcurrency = 8;
+    private int interactiveMaxConcurrency = 8;
+    private int backgroundMaxConcurrency = 2;
+    private boolean cacheEnabled = false;
+    private int cacheMaxEntries = 1000;
+    private long cacheTtlSeconds = 600;
+    private long cacheMaxBytes = 16L * 1024L * 1024L;
+}
@@ -5,12 +5,43 @@ import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 @Getter
 @Setter
 @Component
 @ConfigurationProperties(prefix = "ollama")
 public class OllamaProperties {
     private String baseUrl;
+    private List<String> endpoints = new ArrayList<>();
     private String model;
+    private String embeddingModel = "nomic-embed-text";
     private String systemPrompt;
+    private Map<String, Object> options = new LinkedHashMap<>();
+    private int ejectAfterFailures = 3;
+    private long healthCheckIntervalMs = 10000;
+    private long healthCheckTimeoutMs = 2000;
+    private long connectTimeoutMs = 2000;
+    private long readTimeoutMs = 300000;
+    private String keepAlive = "30m";
+    private boolean warmupEnabled = true;
+    private long warmupRetryIntervalMs = 5000;
+    private long keepAliveRefreshIntervalMs = 240000;
+
+    /**
+     * Returns the configured endpoints, or the single base URL when no endpoint list is set.
+     */
+    public List<String> resolveEndpoints() {
+        List<String> resolved = endpoints.stream()
+                .filter(url -> url != null && !url.isBlank())
+                .map(String::trim)
+                .toList();
+        if (!resolved.isEmpty()) {
+            return resolved;
+        }
+        return baseUrl == null || baseUrl.isBlank() ? List.of() : List.of(baseUrl.trim());
+    }
 }
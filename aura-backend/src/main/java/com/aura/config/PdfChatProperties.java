@@ -13,10 +13,39 @@ public class PdfChatProperties {
     private long maxFileSizeMb = 25;
     private int maxPages = 200;
     private int parseTimeoutSeconds = 10;
+    private int parseWorkers = 0;
+    private int parseQueueCapacity = 16;
+    private long parseRetryAfterSeconds = 2;
+    private int parallelMinPages = 32;
+    private int minPagesPerRange = 16;
+    private int rangeWorkers = 0;
+    private long parseMaxMainMemoryBytes = 4L * 1024L * 1024L;
+    private String tempDir;
+    private long cacheMaxBytes = 64L * 1024L * 1024L;
+    private String cacheDir;
+    private long cacheDiskMaxBytes = 512L * 1024L * 1024L;
+    private int sessionDocumentLimit = 4;
     private int maxExtractedChars = 200000;
     private int directInjectMaxChars = 12000;
     private int chunkSizeChars = 1200;
     private int chunkOverlapChars = 120;
+    private int chunkBoundaryToleranceChars = 200;
     private int topK = 6;
     private double minChunkScoreThreshold = 0.0;
+    private RetrievalMode retrievalMode = RetrievalMode.LEXICAL;
+    private int embeddingBatchSize = 32;
+    private long embeddingCacheMaxBytes = 64L * 1024L * 1024L;
+    private long vectorIndexCacheMaxBytes = 128L * 1024L * 1024L;
+    private int hnswM = 16;
+    private int hnswEfConstruction = 100;
+    private int hnswEfSearch = 64;
+    private double minSemanticScore = 0.0;
+    private int hybridCandidates = 6;
+    private int rrfK = 60;
+
+    public enum RetrievalMode {
+        LEXICAL,
+        SEMANTIC,
+        HYBRID
+    }
 }
@@ -1,16 +1,52 @@
 package com.aura.config;
 
+import com.aura.client.OllamaNode;
+import com.aura.client.OllamaNodePool;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestClient;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+
 @Configuration
 public class RestClientConfig {
 
     @Bean
-    public RestClient ollamaRestClient(OllamaProperties props) {
+    public OllamaNodePool ollamaNodePool(OllamaProperties props, WorkerThreads workerThreads) {
+        List<OllamaNode> nodes = props.resolveEndpoints().stream()
+                .map(url -> new OllamaNode(url, ollamaRestClient(url, props), ollamaProbeClient(url, props)))
+                .toList();
+        return new OllamaNodePool(nodes, props.getEjectAfterFailures(), workerThreads.unbounded("ollama-health"));
+    }
+
+    /**
+     * Builds the client for model calls; interrupting the calling thread aborts the exchange.
+     */
+    public static RestClient ollamaRestClient(String baseUrl, OllamaProperties props) {
+        return restClient(baseUrl, props.getConnectTimeoutMs(), props.getReadTimeoutMs());
+    }
+
+    /**
+     * Builds the client for health probes, bounded by the health-check timeout.
+     */
+    public static RestClient ollamaProbeClient(String baseUrl, OllamaProperties props) {
+        long timeoutMs = props.getHealthCheckTimeoutMs();
+        return restClient(baseUrl, Math.min(props.getConnectTimeoutMs(), timeoutMs), timeoutMs);
+    }
+
+    private static RestClient restClient(String baseUrl, long connectTimeoutMs, long readTimeoutMs) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
         return RestClient.builder()
-                .baseUrl(props.getBaseUrl())
+                .baseUrl(baseUrl)
+                .requestFactory(requestFactory)
                 .build();
     }
 }
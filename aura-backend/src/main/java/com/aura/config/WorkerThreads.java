@@ -0,0 +1,57 @@
+package com.aura.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates worker executors on virtual or platform threads, following {@code spring.threads.virtual.enabled}.
+ */
+@Component
+public class WorkerThreads {
+
+    private final boolean virtual;
+
+    @Autowired
+    public WorkerThreads(Environment environment) {
+        this(Threading.VIRTUAL.isActive(environment));
+    }
+
+    public WorkerThreads(boolean virtual) {
+        this.virtual = virtual;
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * Returns an executor that starts a thread per task: a new virtual thread each time, or a cached platform pool.
+     */
+    public ExecutorService unbounded(String name) {
+        return virtual
+                ? Executors.newThreadPerTaskExecutor(factory(name))
+                : Executors.newCachedThreadPool(factory(name));
+    }
+
+    /**
+     * Returns an executor running at most the given number of tasks at once.
+     */
+    public ExecutorService bounded(String name, int threads) {
+        return Executors.newFixedThreadPool(Math.max(1, threads), factory(name));
+    }
+
+    /**
+     * Returns a factory naming threads {@code name-1}, {@code name-2}, and so on.
+     */
+    public ThreadFactory factory(String name) {
+        return virtual
+                ? Thread.ofVirtual().name(name + "-", 1).factory()
+                : Thread.ofPlatform().name(name + "-", 1).daemon(true).factory();
+    }
+}
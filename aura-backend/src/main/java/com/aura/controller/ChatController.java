@@ -1,19 +1,36 @@
 package com.aura.controller;
 
+import com.aura.client.RequestDeadline;
+import com.aura.config.ChatProperties;
+import com.aura.config.WorkerThreads;
+import com.aura.dto.ChatJobDTO;
 import com.aura.dto.ChatRequestDTO;
 import com.aura.dto.ChatResponseDTO;
 import com.aura.dto.MessageDTO;
 import com.aura.repository.SessionRepository;
 import com.aura.security.CurrentUserProvider;
+import com.aura.service.ChatJobService;
 import com.aura.service.ChatService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.net.URI;
+import java.time.Duration;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/chat")
@@ -21,27 +38,121 @@ import java.util.List;
 @CrossOrigin
 public class ChatController {
 
+    private static final long ASYNC_TIMEOUT_MARGIN_SECONDS = 10;
+
     private final ChatService chatService;
     private final SessionRepository sessionRepository;
     private final CurrentUserProvider currentUserProvider;
+    private final ChatProperties chatProperties;
+    private final ChatJobService chatJobService;
+    private final WorkerThreads workerThreads;
+    private ExecutorService requestExecutor;
+
+    @PostConstruct
+    void start() {
+        requestExecutor = workerThreads.unbounded("chat-request");
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (requestExecutor != null) {
+            requestExecutor.shutdownNow();
+        }
+    }
 
     /**
      * Handles a chat request and returns the assistant reply with session context.
      */
     @PostMapping
-    public ResponseEntity<ChatResponseDTO> chat(@Valid @RequestBody ChatRequestDTO request) {
-        return ResponseEntity.ok(chatService.chat(request));
+    public DeferredResult<ResponseEntity<ChatResponseDTO>> chat(@Valid @RequestBody ChatRequestDTO request) {
+        return answerAsync(() -> chatService.chat(request));
+    }
+
+    /**
+     * Handles a chat request and streams the assistant reply token by token as Server-Sent Events.
+     */
+    @PostMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter chatStream(@Valid @RequestBody ChatRequestDTO request) {
+        return withDeadline(chatProperties.getStreamTimeoutSeconds(), () -> chatService.chatStream(request));
     }
 
     /**
      * Handles a chat request with an optional PDF upload and returns the assistant reply.
      */
     @PostMapping(path = "/with-file", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<ChatResponseDTO> chatWithFile(@RequestPart("message") String message,
-                                                        @RequestPart(value = "sessionId", required = false) String sessionId,
-                                                        @RequestPart(value = "file", required = false) MultipartFile file) {
+    public DeferredResult<ResponseEntity<ChatResponseDTO>> chatWithFile(
+            @RequestPart("message") String message,
+            @RequestPart(value = "sessionId", required = false) String sessionId,
+            @RequestPart(value = "file", required = false) MultipartFile file) {
         Long parsedSessionId = parseSessionId(sessionId);
-        return ResponseEntity.ok(chatService.chatWithFile(parsedSessionId, message, file));
+        return answerAsync(() -> chatService.chatWithFile(parsedSessionId, message, file));
+    }
+
+    /**
+     * Queues a chat request with an optional PDF upload as a background job and returns 202 with the job id.
+     */
+    @PostMapping(path = "/with-file/async", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ChatJobDTO> submitChatWithFile(@RequestPart("message") String message,
+                                                         @RequestPart(value = "sessionId", required = false) String sessionId,
+                                                         @RequestPart(value = "file", required = false) MultipartFile file) {
+        ChatJobDTO job = chatJobService.submitWithFile(parseSessionId(sessionId), message, file);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/chat/jobs/" + job.getJobId()))
+                .body(job);
+    }
+
+    /**
+     * Returns a chat job, optionally waiting up to {@code waitSeconds} for it to finish without holding a thread.
+     */
+    @GetMapping("/jobs/{id}")
+    public DeferredResult<ResponseEntity<ChatJobDTO>> getJob(@PathVariable UUID id,
+                                                             @RequestParam(defaultValue = "0") long waitSeconds) {
+        long timeoutSeconds = Math.max(0L, chatProperties.getJobMaxWaitSeconds()) + ASYNC_TIMEOUT_MARGIN_SECONDS;
+        DeferredResult<ResponseEntity<ChatJobDTO>> result = new DeferredResult<>(
+                TimeUnit.SECONDS.toMillis(timeoutSeconds));
+        chatJobService.get(id, waitSeconds).whenComplete((job, ex) -> {
+            if (ex != null) {
+                result.setErrorResult(ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex);
+            } else {
+                result.setResult(ResponseEntity.ok(job));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Runs a blocking chat off the request thread and cancels its deadline when the client goes away.
+     */
+    private DeferredResult<ResponseEntity<ChatResponseDTO>> answerAsync(Supplier<ChatResponseDTO> handler) {
+        long timeoutSeconds = chatProperties.getRequestTimeoutSeconds();
+        RequestDeadline deadline = timeoutSeconds > 0 ? RequestDeadline.after(Duration.ofSeconds(timeoutSeconds)) : null;
+        DeferredResult<ResponseEntity<ChatResponseDTO>> result = new DeferredResult<>(timeoutSeconds > 0
+                ? TimeUnit.SECONDS.toMillis(timeoutSeconds + ASYNC_TIMEOUT_MARGIN_SECONDS)
+                : 0L);
+        if (deadline != null) {
+            result.onError(ex -> deadline.cancel());
+            result.onTimeout(deadline::cancel);
+        }
+        requestExecutor.execute(new DelegatingSecurityContextRunnable(() -> {
+            try (RequestDeadline.Scope scope = deadline == null ? null : deadline.attach()) {
+                result.setResult(ResponseEntity.ok(handler.get()));
+            } catch (RuntimeException ex) {
+                result.setErrorResult(ex);
+            }
+        }));
+        return result;
+    }
+
+    /**
+     * Runs the handler with a request deadline bound to this thread; a non-positive budget means no deadline.
+     */
+    private <T> T withDeadline(long timeoutSeconds, Supplier<T> handler) {
+        if (timeoutSeconds <= 0) {
+            return handler.get();
+        }
+        try (RequestDeadline.Scope scope = RequestDeadline.after(Duration.ofSeconds(timeoutSeconds)).attach()) {
+            return handler.get();
+        }
     }
 
     private Long parseSessionId(String raw) {
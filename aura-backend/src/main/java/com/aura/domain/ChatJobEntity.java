@@ -0,0 +1,72 @@
+package com.aura.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "chat_jobs", indexes = {
+        @Index(name = "idx_chat_jobs_user_id", columnList = "user_id"),
+        @Index(name = "idx_chat_jobs_status_created_at", columnList = "status, created_at")
+})
+public class ChatJobEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", nullable = false)
+    private UserEntity user;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private ChatJobStatus status;
+
+    @Column(name = "session_id")
+    private Long sessionId;
+
+    @Column(name = "user_message_id")
+    private Long userMessageId;
+
+    @Column(name = "assistant_message_id")
+    private Long assistantMessageId;
+
+    @Column(name = "assistant_reply", columnDefinition = "TEXT")
+    private String assistantReply;
+
+    @Column(name = "replied_at")
+    private Instant repliedAt;
+
+    @Column(name = "new_session", nullable = false)
+    private boolean newSession;
+
+    @Column(name = "error_code", length = 32)
+    private String errorCode;
+
+    @Column(name = "error_message", columnDefinition = "TEXT")
+    private String errorMessage;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @Column(name = "started_at")
+    private Instant startedAt;
+
+    @Column(name = "finished_at")
+    private Instant finishedAt;
+
+    @PrePersist
+    void onCreate() {
+        if (createdAt == null) {
+            createdAt = Instant.now();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.aura.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "session_documents", uniqueConstraints = {
+        @UniqueConstraint(name = "uq_session_documents_session_sha", columnNames = {"session_id", "sha256"})
+})
+public class SessionDocumentEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "session_id", nullable = false)
+    private SessionEntity session;
+
+    @Column(name = "sha256", nullable = false, length = 64)
+    private String sha256;
+
+    @Column(name = "filename", length = 255)
+    private String filename;
+
+    @Column(name = "extracted_text", nullable = false, columnDefinition = "TEXT")
+    private String extractedText;
+
+    @Column(name = "chunks_json", nullable = false, columnDefinition = "TEXT")
+    private String chunksJson;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @PrePersist
+    void onCreate() {
+        if (createdAt == null) {
+            createdAt = Instant.now();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.aura.dto;
+
+import com.aura.error.ErrorResponse;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChatJobDTO {
+    private UUID jobId;
+    private String status;
+    private Instant createdAt;
+    private Instant finishedAt;
+    private ChatResponseDTO result;
+    private ErrorResponse error;
+}
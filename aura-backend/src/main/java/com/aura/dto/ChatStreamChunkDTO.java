@@ -0,0 +1,12 @@
+package com.aura.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChatStreamChunkDTO {
+    private String content;
+}
@@ -1,7 +1,10 @@
 package com.aura.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.*;
 import java.util.List;
+import java.util.Map;
 
 public class OllamaDtos {
 
@@ -24,6 +27,47 @@ public class OllamaDtos {
         private String model;
         private List<ChatMessage> messages;
         private boolean stream;
+        @JsonInclude(JsonInclude.Include.NON_EMPTY)
+        private Map<String, Object> options;
+        @JsonProperty("keep_alive")
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private String keepAlive;
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class GenerateRequest {
+        private String model;
+        private boolean stream;
+        @JsonProperty("keep_alive")
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private String keepAlive;
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class EmbedRequest {
+        private String model;
+        private List<String> input;
+        @JsonProperty("keep_alive")
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private String keepAlive;
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class EmbedResponse {
+        private List<float[]> embeddings;
+        private String error;
     }
 
     @Getter
@@ -34,6 +78,19 @@ public class OllamaDtos {
     public static class ChatResponse {
         private InnerMessage message;
         private boolean done;
+        private String error;
+        @JsonProperty("total_duration")
+        private Long totalDuration;
+        @JsonProperty("load_duration")
+        private Long loadDuration;
+        @JsonProperty("prompt_eval_count")
+        private Integer promptEvalCount;
+        @JsonProperty("prompt_eval_duration")
+        private Long promptEvalDuration;
+        @JsonProperty("eval_count")
+        private Integer evalCount;
+        @JsonProperty("eval_duration")
+        private Long evalDuration;
 
         @Getter
         @Setter
@@ -16,5 +16,9 @@ public enum AuraErrorCode {
     FILE_TOO_LARGE,
     PDF_ENCRYPTED,
     PDF_TOO_MANY_PAGES,
-    PDF_PARSE_FAILED
+    PDF_PARSE_FAILED,
+    USER_QUEUE_FULL,
+    DEADLINE_EXCEEDED,
+    OVERLOADED,
+    JOB_NOT_FOUND
 }
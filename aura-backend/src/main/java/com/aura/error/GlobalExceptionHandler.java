@@ -1,6 +1,7 @@
 package com.aura.error;
 
 import org.springframework.context.support.DefaultMessageSourceResolvable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -27,13 +28,16 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(AuraException.class)
     public ResponseEntity<ErrorResponse> handleAura(AuraException ex) {
         HttpStatus status = switch (ex.getCode()) {
-            case SESSION_NOT_FOUND -> HttpStatus.NOT_FOUND;
+            case SESSION_NOT_FOUND, JOB_NOT_FOUND -> HttpStatus.NOT_FOUND;
             case OLLAMA_EMPTY_RESPONSE -> HttpStatus.BAD_GATEWAY;
             case VALIDATION_ERROR, USER_ALREADY_EXISTS, AUTH_INVALID_CREDENTIALS,
                  INVALID_FILE_TYPE, PDF_ENCRYPTED, PDF_TOO_MANY_PAGES, PDF_PARSE_FAILED -> HttpStatus.BAD_REQUEST;
             case AUTH_REFRESH_INVALID, AUTH_REFRESH_REVOKED, AUTH_REFRESH_EXPIRED -> HttpStatus.UNAUTHORIZED;
             case FORBIDDEN -> HttpStatus.FORBIDDEN;
             case FILE_TOO_LARGE -> HttpStatus.PAYLOAD_TOO_LARGE;
+            case USER_QUEUE_FULL -> HttpStatus.TOO_MANY_REQUESTS;
+            case DEADLINE_EXCEEDED -> HttpStatus.GATEWAY_TIMEOUT;
+            case OVERLOADED -> HttpStatus.SERVICE_UNAVAILABLE;
             default -> HttpStatus.INTERNAL_SERVER_ERROR;
         };
         ErrorResponse body = ErrorResponse.builder()
@@ -44,6 +48,18 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(status).body(body);
     }
 
+    @ExceptionHandler(OverloadedException.class)
+    public ResponseEntity<ErrorResponse> handleOverloaded(OverloadedException ex) {
+        ErrorResponse body = ErrorResponse.builder()
+                .code(ex.getCode().name())
+                .message(ex.getMessage())
+                .timestamp(Instant.now())
+                .build();
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(body);
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<ErrorResponse> handleIllegalArgument(IllegalArgumentException ex) {
         ErrorResponse body = ErrorResponse.builder()
@@ -0,0 +1,13 @@
+package com.aura.error;
+
+import lombok.Getter;
+
+@Getter
+public class OverloadedException extends AuraException {
+    private final long retryAfterSeconds;
+
+    public OverloadedException(String message, long retryAfterSeconds) {
+        super(AuraErrorCode.OVERLOADED, message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,38 @@
+package com.aura.repository;
+
+import com.aura.domain.ChatJobEntity;
+import com.aura.domain.ChatJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface ChatJobRepository extends JpaRepository<ChatJobEntity, UUID> {
+
+    Optional<ChatJobEntity> findByIdAndUser_Id(UUID id, UUID userId);
+
+    /**
+     * Fails jobs that were still unfinished at the cutoff, e.g. because the instance running them went away.
+     */
+    @Modifying
+    @Query("""
+            UPDATE ChatJobEntity j
+            SET j.status = com.aura.domain.ChatJobStatus.FAILED,
+                j.errorCode = :errorCode, j.errorMessage = :errorMessage, j.finishedAt = :now
+            WHERE j.status IN :statuses AND j.createdAt < :cutoff
+            """)
+    int failUnfinishedBefore(@Param("statuses") Collection<ChatJobStatus> statuses,
+                             @Param("cutoff") Instant cutoff,
+                             @Param("errorCode") String errorCode,
+                             @Param("errorMessage") String errorMessage,
+                             @Param("now") Instant now);
+
+    @Modifying
+    @Query("DELETE FROM ChatJobEntity j WHERE j.finishedAt < :cutoff")
+    int deleteFinishedBefore(@Param("cutoff") Instant cutoff);
+}
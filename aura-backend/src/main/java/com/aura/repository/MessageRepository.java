@@ -14,4 +14,8 @@ public interface MessageRepository extends JpaRepository<MessageEntity, Long> {
     List<MessageEntity> findBySessionOrderByIdDesc(SessionEntity session, Pageable pageable);
 
     List<MessageEntity> findBySessionAndIdGreaterThanOrderByIdAsc(SessionEntity session, Long id);
+
+    long countBySession(SessionEntity session);
+
+    long countBySessionAndIdGreaterThan(SessionEntity session, Long id);
 }
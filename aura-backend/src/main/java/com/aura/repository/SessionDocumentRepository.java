@@ -0,0 +1,34 @@
+package com.aura.repository;
+
+import com.aura.domain.SessionDocumentEntity;
+import com.aura.repository.projection.SessionDocumentRef;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface SessionDocumentRepository extends JpaRepository<SessionDocumentEntity, Long> {
+
+    /**
+     * Returns the ids and hashes of the session's documents, newest first, without loading their text.
+     */
+    List<SessionDocumentRef> findBySession_IdOrderByIdDesc(Long sessionId, Pageable pageable);
+
+    /**
+     * Attaches a document unless the session already has one with the same hash.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO session_documents (session_id, sha256, filename, extracted_text, chunks_json, created_at)
+            VALUES (:sessionId, :sha256, :filename, :extractedText, :chunksJson, NOW())
+            ON CONFLICT (session_id, sha256) DO NOTHING
+            """, nativeQuery = true)
+    int insertIfAbsent(@Param("sessionId") Long sessionId,
+                       @Param("sha256") String sha256,
+                       @Param("filename") String filename,
+                       @Param("extractedText") String extractedText,
+                       @Param("chunksJson") String chunksJson);
+}
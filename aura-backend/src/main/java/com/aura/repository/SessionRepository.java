@@ -78,4 +78,19 @@ public interface SessionRepository extends JpaRepository<SessionEntity, Long> {
                                              Pageable pageable);
 
     Optional<SessionEntity> findByIdAndUser_Id(Long id, UUID userId);
+
+    /**
+     * Writes a memory snapshot only if last_memory_message_id is still the expected value (0 for no memory yet).
+     */
+    @Modifying
+    @Query("""
+            UPDATE SessionEntity s
+            SET s.memoryJson = :memoryJson, s.lastMemoryMessageId = :lastMessageId
+            WHERE s.id = :sessionId
+              AND COALESCE(s.lastMemoryMessageId, 0) = :expectedLastMessageId
+            """)
+    int updateMemoryIfUnchanged(@Param("sessionId") Long sessionId,
+                                @Param("memoryJson") String memoryJson,
+                                @Param("lastMessageId") Long lastMessageId,
+                                @Param("expectedLastMessageId") Long expectedLastMessageId);
 }
@@ -0,0 +1,6 @@
+package com.aura.repository.projection;
+
+public interface SessionDocumentRef {
+    Long getId();
+    String getSha256();
+}
@@ -0,0 +1,189 @@
+package com.aura.service;
+
+import com.aura.config.ChatProperties;
+import com.aura.error.OverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * AIMD concurrency limit for the blocking chat endpoints, driven by Ollama latency; requests over the limit are shed.
+ */
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    /** Latencies needed before a target is derived from them; until then only drops back off. */
+    static final int MIN_TARGET_SAMPLES = 20;
+    private static final double BASELINE_QUANTILE = 0.1;
+
+    private final ChatProperties properties;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Counter shedCounter;
+    private final long[] warmupSamples = new long[MIN_TARGET_SAMPLES];
+    private int warmupCount;
+    private double baselineNanos;
+    private double limit;
+    private int inFlight;
+
+    public AdaptiveConcurrencyLimiter(ChatProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.limit = clamp(properties.getLimitInitial());
+        this.shedCounter = Counter.builder("aura.chat.limit.shed")
+                .description("Chat requests rejected because the concurrency limit was reached")
+                .register(meterRegistry);
+        Gauge.builder("aura.chat.limit", this, AdaptiveConcurrencyLimiter::currentLimit)
+                .description("Current adaptive concurrency limit for chat requests")
+                .register(meterRegistry);
+        Gauge.builder("aura.chat.limit.inflight", this, AdaptiveConcurrencyLimiter::inFlightCount)
+                .description("Chat requests currently admitted by the concurrency limiter")
+                .register(meterRegistry);
+        Gauge.builder("aura.chat.limit.latency.target", this, l -> l.latencyTarget().toMillis())
+                .description("Ollama latency above which the concurrency limit backs off")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Admits the request or sheds it when the current limit is reached.
+     */
+    public Permit acquire() {
+        if (!properties.isLimitEnabled()) {
+            return new Permit(false);
+        }
+        lock.lock();
+        try {
+            if (inFlight >= (int) limit) {
+                shedCounter.increment();
+                throw new OverloadedException("Server is busy, please retry shortly", properties.getShedRetryAfterSeconds());
+            }
+            inFlight++;
+            return new Permit(true);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of requests admitted at once right now.
+     */
+    public int currentLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of admitted requests that have not completed yet.
+     */
+    public int inFlightCount() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the latency above which the limit backs off, or zero while it cannot be derived yet.
+     */
+    public Duration latencyTarget() {
+        lock.lock();
+        try {
+            long nanos = latencyTargetNanos();
+            return nanos == Long.MAX_VALUE ? Duration.ZERO : Duration.ofNanos(nanos);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void complete(Duration latency, boolean dropped) {
+        lock.lock();
+        try {
+            int admitted = inFlight;
+            inFlight--;
+            if (dropped || (latency != null && latency.toNanos() > latencyTargetNanos())) {
+                limit = clamp(limit * properties.getLimitBackoffRatio());
+            } else if (latency != null && admitted * 2 >= (int) limit) {
+                limit = clamp(limit + 1.0 / limit);
+            }
+            if (latency != null && !dropped) {
+                updateBaseline(latency.toNanos());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long latencyTargetNanos() {
+        if (properties.getLimitLatencyTargetMs() > 0) {
+            return Duration.ofMillis(properties.getLimitLatencyTargetMs()).toNanos();
+        }
+        if (warmupCount < MIN_TARGET_SAMPLES) {
+            return Long.MAX_VALUE;
+        }
+        return (long) (baselineNanos * Math.max(1.0, properties.getLimitLatencyTolerance()));
+    }
+
+    /**
+     * Tracks the p10 latency, falling quickly and rising slowly so sustained overload does not raise the target.
+     */
+    private void updateBaseline(long nanos) {
+        if (warmupCount < MIN_TARGET_SAMPLES) {
+            warmupSamples[warmupCount++] = nanos;
+            if (warmupCount == MIN_TARGET_SAMPLES) {
+                long[] sorted = warmupSamples.clone();
+                Arrays.sort(sorted);
+                baselineNanos = sorted[(int) (MIN_TARGET_SAMPLES * BASELINE_QUANTILE)];
+            }
+            return;
+        }
+        double step = baselineNanos / Math.max(1, properties.getLimitLatencyWindow());
+        baselineNanos += nanos > baselineNanos ? step * BASELINE_QUANTILE : -step * (1 - BASELINE_QUANTILE);
+    }
+
+    private double clamp(double value) {
+        int min = Math.max(1, properties.getLimitMin());
+        int max = Math.max(min, properties.getLimitMax());
+        return Math.max(min, Math.min(max, value));
+    }
+
+    /**
+     * Admission held by one request; closing it without a sample leaves the limit unchanged.
+     */
+    public final class Permit implements AutoCloseable {
+        private final boolean counted;
+        private Duration latency;
+        private boolean dropped;
+        private boolean closed;
+
+        private Permit(boolean counted) {
+            this.counted = counted;
+        }
+
+        public void recordLatency(Duration latency) {
+            this.latency = latency;
+        }
+
+        public void recordDropped() {
+            this.dropped = true;
+        }
+
+        @Override
+        public void close() {
+            if (closed || !counted) {
+                return;
+            }
+            closed = true;
+            complete(latency, dropped);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.aura.service;
 
 import com.aura.config.AuraContextProperties;
+import com.aura.config.AuraContextProperties.ContextMode;
 import com.aura.domain.MessageAuthor;
 import com.aura.domain.MessageEntity;
 import com.aura.domain.SessionEntity;
@@ -27,36 +28,131 @@ public class ChatContextService {
     public List<ChatMessage> buildContextMessages(SessionEntity session,
                                                   MessageEntity currentUserMessage,
                                                   String systemPrompt) {
+        if (contextProperties.getContextMode() == ContextMode.PREFIX_STABLE) {
+            return buildPrefixStableMessages(session, currentUserMessage, systemPrompt);
+        }
         int windowSize = Math.max(0, contextProperties.getWindowSizeMessages());
         List<MessageEntity> recentMessages = fetchRecentMessages(session, currentUserMessage, windowSize);
 
         List<ChatMessage> messages = new ArrayList<>();
-        messages.add(ChatMessage.builder()
+        messages.add(systemMessage(systemPrompt));
+
+        ChatMessage memoryBlock = memoryBlock(session);
+        if (memoryBlock != null) {
+            messages.add(memoryBlock);
+        }
+
+        for (MessageEntity message : recentMessages) {
+            messages.add(toChatMessage(message));
+        }
+
+        messages.add(currentMessage(currentUserMessage));
+
+        return clampMessages(messages);
+    }
+
+    /**
+     * Clamps the messages in place to {@code aura.context.max-prompt-chars}, dropping the oldest history first.
+     */
+    public void fitToBudget(List<ChatMessage> messages) {
+        List<ChatMessage> clamped = clampMessages(messages);
+        if (clamped != messages) {
+            messages.clear();
+            messages.addAll(clamped);
+        }
+    }
+
+    /**
+     * Builds a context that only changes at its tail between turns, with the memory block after the transcript.
+     */
+    private List<ChatMessage> buildPrefixStableMessages(SessionEntity session,
+                                                        MessageEntity currentUserMessage,
+                                                        String systemPrompt) {
+        int windowSize = Math.max(0, contextProperties.getWindowSizeMessages());
+        int blockSize = Math.max(1, contextProperties.getHistoryBlockMessages());
+        List<MessageEntity> history = fetchBlockAlignedMessages(session, currentUserMessage, windowSize, blockSize);
+
+        List<ChatMessage> transcript = new ArrayList<>();
+        for (MessageEntity message : history) {
+            transcript.add(toChatMessage(message));
+        }
+        ChatMessage memoryBlock = memoryBlock(session);
+        ChatMessage current = currentMessage(currentUserMessage);
+
+        int maxPromptChars = contextProperties.getMaxPromptChars();
+        if (maxPromptChars > 0) {
+            int total = length(current) + length(systemMessage(systemPrompt)) + totalChars(transcript)
+                    + (memoryBlock == null ? 0 : length(memoryBlock));
+            while (total > maxPromptChars && !transcript.isEmpty()) {
+                List<ChatMessage> block = transcript.subList(0, Math.min(blockSize, transcript.size()));
+                total -= totalChars(block);
+                block.clear();
+            }
+        }
+
+        List<ChatMessage> messages = new ArrayList<>();
+        messages.add(systemMessage(systemPrompt));
+        messages.addAll(transcript);
+        if (memoryBlock != null) {
+            messages.add(memoryBlock);
+        }
+        messages.add(current);
+        return clampMessages(messages);
+    }
+
+    /**
+     * Returns the history before the current message, starting at a multiple of the block size.
+     */
+    private List<MessageEntity> fetchBlockAlignedMessages(SessionEntity session,
+                                                          MessageEntity currentUserMessage,
+                                                          int windowSize,
+                                                          int blockSize) {
+        if (windowSize <= 0) {
+            return List.of();
+        }
+        long historySize = messageRepository.countBySession(session);
+        if (currentUserMessage.getId() != null) {
+            historySize--;
+        }
+        long excess = Math.max(0, historySize - windowSize);
+        long start = (excess / blockSize) * blockSize;
+        int keep = (int) (historySize - start);
+        if (keep <= 0) {
+            return List.of();
+        }
+        return fetchRecentMessages(session, currentUserMessage, keep);
+    }
+
+    private ChatMessage systemMessage(String systemPrompt) {
+        return ChatMessage.builder()
                 .role("system")
                 .content(systemPrompt == null ? "" : systemPrompt)
-                .build());
+                .build();
+    }
 
+    private ChatMessage memoryBlock(SessionEntity session) {
         String memoryJson = session.getMemoryJson();
-        if (memoryJson != null && !memoryJson.isBlank() && memoryJsonValidator.isValid(memoryJson)) {
-            messages.add(ChatMessage.builder()
-                    .role("system")
-                    .content(MEMORY_BLOCK_PREFIX + memoryJson)
-                    .build());
+        if (memoryJson == null || memoryJson.isBlank() || !memoryJsonValidator.isValid(memoryJson)) {
+            return null;
         }
+        return ChatMessage.builder()
+                .role("system")
+                .content(MEMORY_BLOCK_PREFIX + memoryJson)
+                .build();
+    }
 
-        for (MessageEntity message : recentMessages) {
-            messages.add(ChatMessage.builder()
-                    .role(roleFor(message.getAuthor()))
-                    .content(message.getContent())
-                    .build());
-        }
+    private ChatMessage toChatMessage(MessageEntity message) {
+        return ChatMessage.builder()
+                .role(roleFor(message.getAuthor()))
+                .content(message.getContent())
+                .build();
+    }
 
-        messages.add(ChatMessage.builder()
+    private ChatMessage currentMessage(MessageEntity currentUserMessage) {
+        return ChatMessage.builder()
                 .role("user")
                 .content(currentUserMessage.getContent())
-                .build());
-
-        return clampMessages(messages);
+                .build();
     }
 
     private List<MessageEntity> fetchRecentMessages(SessionEntity session,
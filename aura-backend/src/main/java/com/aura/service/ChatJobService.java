@@ -0,0 +1,416 @@
+package com.aura.service;
+
+import com.aura.client.RequestDeadline;
+import com.aura.config.ChatProperties;
+import com.aura.config.PdfChatProperties;
+import com.aura.config.WorkerThreads;
+import com.aura.domain.ChatJobEntity;
+import com.aura.domain.ChatJobStatus;
+import com.aura.dto.ChatJobDTO;
+import com.aura.dto.ChatResponseDTO;
+import com.aura.error.AuraErrorCode;
+import com.aura.error.AuraException;
+import com.aura.error.ErrorResponse;
+import com.aura.error.OverloadedException;
+import com.aura.repository.ChatJobRepository;
+import com.aura.security.AuthenticatedUser;
+import com.aura.security.CurrentUserProvider;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Runs chat-with-file requests as background jobs whose state lives in {@code chat_jobs}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ChatJobService {
+
+    private final ChatJobRepository chatJobRepository;
+    private final ChatService chatService;
+    private final CurrentUserProvider currentUserProvider;
+    private final ChatProperties chatProperties;
+    private final PdfChatProperties pdfChatProperties;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final TransactionTemplate transactionTemplate;
+    private final WorkerThreads workerThreads;
+    private final Map<UUID, CompletableFuture<Void>> localJobs = new ConcurrentHashMap<>();
+    private ThreadPoolExecutor workers;
+    private ScheduledExecutorService pollTimer;
+
+    @PostConstruct
+    void start() {
+        int workerCount = Math.max(1, chatProperties.getJobWorkers());
+        workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, chatProperties.getJobQueueCapacity())),
+                workerThreads.factory("chat-job"));
+        pollTimer = Executors.newScheduledThreadPool(1, workerThreads.factory("chat-job-poll"));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (workers != null) {
+            for (Runnable pending : workers.shutdownNow()) {
+                if (pending instanceof QueuedJob job) {
+                    job.discard();
+                }
+            }
+        }
+        if (pollTimer != null) {
+            pollTimer.shutdownNow();
+        }
+    }
+
+    /**
+     * Stages the upload, records a queued job and hands it to the job pool, shedding it when full.
+     */
+    public ChatJobDTO submitWithFile(Long sessionId, String message, MultipartFile file) {
+        if (message == null || message.isBlank()) {
+            throw new AuraException(AuraErrorCode.VALIDATION_ERROR, "Message cannot be blank");
+        }
+        AuthenticatedUser principal = currentUserProvider.require();
+        AdaptiveConcurrencyLimiter.Permit admission = concurrencyLimiter.acquire();
+        StagedUpload upload = null;
+        try {
+            upload = file == null ? null : StagedUpload.of(file, tempDir());
+            ChatJobEntity job = transactionTemplate.execute(status -> chatJobRepository.save(ChatJobEntity.builder()
+                    .user(currentUserProvider.requireEntity())
+                    .status(ChatJobStatus.QUEUED)
+                    .sessionId(sessionId)
+                    .build()));
+            UUID jobId = job.getId();
+            ChatJobDTO queued = toDto(job);
+            localJobs.put(jobId, new CompletableFuture<>());
+            try {
+                workers.execute(new QueuedJob(jobId, sessionId, message, upload, admission));
+            } catch (RejectedExecutionException ex) {
+                localJobs.remove(jobId);
+                transactionTemplate.executeWithoutResult(status -> chatJobRepository.deleteById(jobId));
+                throw new OverloadedException("Too many chat jobs in progress", chatProperties.getShedRetryAfterSeconds());
+            }
+            log.debug("Queued chat job {} for user {}", jobId, principal.id());
+            return queued;
+        } catch (RuntimeException ex) {
+            if (upload != null) {
+                upload.delete();
+            }
+            admission.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Returns the job once it has finished or {@code waitSeconds} have passed.
+     */
+    public CompletableFuture<ChatJobDTO> get(UUID jobId, long waitSeconds) {
+        AuthenticatedUser principal = currentUserProvider.require();
+        long wait = Math.min(Math.max(0L, waitSeconds), chatProperties.getJobMaxWaitSeconds());
+        ChatJobEntity job = find(jobId, principal);
+        if (job.getStatus().isTerminal() || wait == 0) {
+            return CompletableFuture.completedFuture(toDto(job));
+        }
+
+        CompletableFuture<ChatJobDTO> result = new CompletableFuture<>();
+        long waitUntil = System.nanoTime() + TimeUnit.SECONDS.toNanos(wait);
+        CompletableFuture<Void> local = localJobs.get(jobId);
+        if (local != null) {
+            local.thenRunAsync(() -> poll(result, jobId, principal, waitUntil), pollTimer);
+        }
+        schedulePoll(result, jobId, principal, waitUntil);
+        return result;
+    }
+
+    private void poll(CompletableFuture<ChatJobDTO> result, UUID jobId, AuthenticatedUser principal, long waitUntil) {
+        if (result.isDone()) {
+            return;
+        }
+        try {
+            ChatJobEntity job = find(jobId, principal);
+            if (job.getStatus().isTerminal() || System.nanoTime() - waitUntil >= 0) {
+                result.complete(toDto(job));
+            } else {
+                schedulePoll(result, jobId, principal, waitUntil);
+            }
+        } catch (RuntimeException ex) {
+            result.completeExceptionally(ex);
+        }
+    }
+
+    private void schedulePoll(CompletableFuture<ChatJobDTO> result, UUID jobId, AuthenticatedUser principal,
+                              long waitUntil) {
+        long pollNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(10L, chatProperties.getJobPollIntervalMs()));
+        long delay = Math.max(0L, Math.min(pollNanos, waitUntil - System.nanoTime()));
+        try {
+            pollTimer.schedule(() -> poll(result, jobId, principal, waitUntil), delay, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException ex) {
+            result.completeExceptionally(ex);
+        }
+    }
+
+    /**
+     * Fails jobs left unfinished past the stale limit and deletes finished jobs past their retention.
+     */
+    @Scheduled(fixedDelayString = "${aura.chat.job-cleanup-interval-ms:60000}")
+    public void expireJobs() {
+        Instant now = Instant.now();
+        Instant staleCutoff = now.minusSeconds(chatProperties.getJobStaleAfterSeconds());
+        Instant retentionCutoff = now.minus(Duration.ofHours(chatProperties.getJobRetentionHours()));
+        transactionTemplate.executeWithoutResult(status -> {
+            int failed = chatJobRepository.failUnfinishedBefore(
+                    List.of(ChatJobStatus.QUEUED, ChatJobStatus.RUNNING), staleCutoff,
+                    AuraErrorCode.DEADLINE_EXCEEDED.name(), "Chat job did not finish in time", now);
+            int deleted = chatJobRepository.deleteFinishedBefore(retentionCutoff);
+            if (failed > 0 || deleted > 0) {
+                log.info("Chat job cleanup: {} stale jobs failed, {} old jobs deleted", failed, deleted);
+            }
+        });
+    }
+
+    private void runJob(UUID jobId, Long sessionId, String message, StagedUpload upload,
+                        AdaptiveConcurrencyLimiter.Permit admission) {
+        try {
+            update(jobId, job -> {
+                job.setStatus(ChatJobStatus.RUNNING);
+                job.setStartedAt(Instant.now());
+            });
+            ChatResponseDTO response = withDeadline(() ->
+                    chatService.chatWithFile(admission, sessionId, message, upload));
+            update(jobId, job -> {
+                job.setStatus(ChatJobStatus.SUCCEEDED);
+                job.setSessionId(response.getSessionId());
+                job.setUserMessageId(response.getUserMessageId());
+                job.setAssistantMessageId(response.getAssistantMessageId());
+                job.setAssistantReply(response.getAssistantReply());
+                job.setRepliedAt(response.getTimestamp());
+                job.setNewSession(response.isNewSession());
+                job.setFinishedAt(Instant.now());
+            });
+        } catch (AuraException ex) {
+            fail(jobId, ex.getCode(), ex.getMessage());
+        } catch (RuntimeException ex) {
+            log.warn("Chat job {} failed", jobId, ex);
+            fail(jobId, AuraErrorCode.INTERNAL_ERROR, "Internal error");
+        } finally {
+            release(jobId, upload, admission);
+        }
+    }
+
+    private void release(UUID jobId, StagedUpload upload, AdaptiveConcurrencyLimiter.Permit admission) {
+        if (upload != null) {
+            upload.delete();
+        }
+        admission.close();
+        CompletableFuture<Void> local = localJobs.remove(jobId);
+        if (local != null) {
+            local.complete(null);
+        }
+    }
+
+    private Path tempDir() {
+        String dir = pdfChatProperties.getTempDir();
+        return dir == null || dir.isBlank() ? null : Path.of(dir);
+    }
+
+    private ChatResponseDTO withDeadline(Supplier<ChatResponseDTO> call) {
+        long timeoutSeconds = chatProperties.getRequestTimeoutSeconds();
+        if (timeoutSeconds <= 0) {
+            return call.get();
+        }
+        try (RequestDeadline.Scope scope = RequestDeadline.after(Duration.ofSeconds(timeoutSeconds)).attach()) {
+            return call.get();
+        }
+    }
+
+    private void fail(UUID jobId, AuraErrorCode code, String message) {
+        try {
+            update(jobId, job -> {
+                job.setStatus(ChatJobStatus.FAILED);
+                job.setErrorCode(code.name());
+                job.setErrorMessage(message);
+                job.setFinishedAt(Instant.now());
+            });
+        } catch (RuntimeException ex) {
+            log.warn("Could not record failure of chat job {}", jobId, ex);
+        }
+    }
+
+    private void update(UUID jobId, Consumer<ChatJobEntity> change) {
+        transactionTemplate.executeWithoutResult(status -> chatJobRepository.findById(jobId).ifPresent(change));
+    }
+
+    private ChatJobEntity find(UUID jobId, AuthenticatedUser principal) {
+        Optional<ChatJobEntity> job = principal.isAdmin()
+                ? chatJobRepository.findById(jobId)
+                : chatJobRepository.findByIdAndUser_Id(jobId, principal.id());
+        return job.orElseThrow(() -> new AuraException(AuraErrorCode.JOB_NOT_FOUND, "Job not found: " + jobId));
+    }
+
+    private ChatJobDTO toDto(ChatJobEntity job) {
+        ChatJobDTO.ChatJobDTOBuilder dto = ChatJobDTO.builder()
+                .jobId(job.getId())
+                .status(job.getStatus().name())
+                .createdAt(job.getCreatedAt())
+                .finishedAt(job.getFinishedAt());
+        if (job.getStatus() == ChatJobStatus.SUCCEEDED) {
+            dto.result(ChatResponseDTO.builder()
+                    .sessionId(job.getSessionId())
+                    .userMessageId(job.getUserMessageId())
+                    .assistantMessageId(job.getAssistantMessageId())
+                    .assistantReply(job.getAssistantReply())
+                    .timestamp(job.getRepliedAt())
+                    .newSession(job.isNewSession())
+                    .build());
+        } else if (job.getStatus() == ChatJobStatus.FAILED) {
+            dto.error(ErrorResponse.builder()
+                    .code(job.getErrorCode())
+                    .message(job.getErrorMessage())
+                    .timestamp(job.getFinishedAt())
+                    .build());
+        }
+        return dto.build();
+    }
+
+    /**
+     * A job waiting in the pool's queue, kept as its own type so the jobs that never ran can be found at shutdown.
+     */
+    private final class QueuedJob implements Runnable {
+        private final UUID jobId;
+        private final StagedUpload upload;
+        private final AdaptiveConcurrencyLimiter.Permit admission;
+        private final Runnable task;
+
+        QueuedJob(UUID jobId, Long sessionId, String message, StagedUpload upload,
+                  AdaptiveConcurrencyLimiter.Permit admission) {
+            this.jobId = jobId;
+            this.upload = upload;
+            this.admission = admission;
+            this.task = new DelegatingSecurityContextRunnable(() -> runJob(jobId, sessionId, message, upload, admission));
+        }
+
+        @Override
+        public void run() {
+            task.run();
+        }
+
+        void discard() {
+            fail(jobId, AuraErrorCode.INTERNAL_ERROR, "Server shut down before the job ran");
+            release(jobId, upload, admission);
+        }
+    }
+
+    /**
+     * Copy of a multipart upload that outlives the submitting request.
+     */
+    static final class StagedUpload implements MultipartFile {
+        private final Path path;
+        private final String name;
+        private final String originalFilename;
+        private final String contentType;
+        private final long size;
+
+        private StagedUpload(Path path, MultipartFile source) {
+            this.path = path;
+            this.name = source.getName();
+            this.originalFilename = source.getOriginalFilename();
+            this.contentType = source.getContentType();
+            this.size = source.getSize();
+        }
+
+        static StagedUpload of(MultipartFile source, Path tempDir) {
+            Path path;
+            try {
+                path = tempDir == null
+                        ? Files.createTempFile("aura-chat-job-", ".upload")
+                        : Files.createTempFile(tempDir, "aura-chat-job-", ".upload");
+            } catch (IOException ex) {
+                throw new AuraException(AuraErrorCode.INTERNAL_ERROR, "Failed to store upload");
+            }
+            StagedUpload upload = new StagedUpload(path, source);
+            try (InputStream in = source.getInputStream()) {
+                Files.copy(in, path, StandardCopyOption.REPLACE_EXISTING);
+                return upload;
+            } catch (IOException ex) {
+                upload.delete();
+                throw new AuraException(AuraErrorCode.INTERNAL_ERROR, "Failed to store upload");
+            }
+        }
+
+        void delete() {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException ex) {
+                log.warn("Could not delete staged upload {}", path, ex);
+            }
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getOriginalFilename() {
+            return originalFilename;
+        }
+
+        @Override
+        public String getContentType() {
+            return contentType;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        @Override
+        public long getSize() {
+            return size;
+        }
+
+        @Override
+        public byte[] getBytes() throws IOException {
+            return Files.readAllBytes(path);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return Files.newInputStream(path);
+        }
+
+        @Override
+        public void transferTo(File dest) throws IOException {
+            Files.copy(path, dest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
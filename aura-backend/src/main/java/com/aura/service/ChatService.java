@@ -1,34 +1,53 @@
 package com.aura.service;
 
+import com.aura.client.LlmCallLatency;
+import com.aura.client.LlmCallSite;
 import com.aura.client.OllamaClient;
+import com.aura.client.RequestDeadline;
 import com.aura.config.AuraContextProperties;
+import com.aura.config.ChatProperties;
 import com.aura.config.OllamaProperties;
 import com.aura.config.PdfChatProperties;
+import com.aura.config.WorkerThreads;
 import com.aura.domain.MessageAuthor;
 import com.aura.domain.MessageEntity;
 import com.aura.domain.SessionEntity;
 import com.aura.dto.ChatRequestDTO;
 import com.aura.dto.ChatResponseDTO;
+import com.aura.dto.ChatStreamChunkDTO;
 import com.aura.dto.MessageDTO;
 import com.aura.dto.OllamaDtos.ChatMessage;
 import com.aura.error.AuraErrorCode;
 import com.aura.error.AuraException;
+import com.aura.error.ErrorResponse;
 import com.aura.repository.MessageRepository;
 import com.aura.repository.SessionRepository;
 import com.aura.security.AuthenticatedUser;
 import com.aura.security.CurrentUserProvider;
-import com.aura.service.pdf.LexicalRetriever;
+import com.aura.service.pdf.DocumentRetriever;
+import com.aura.service.pdf.PdfDocument;
+import com.aura.service.pdf.PdfDocumentService;
 import com.aura.service.pdf.PdfPromptBuilder;
-import com.aura.service.pdf.PdfTextExtractor;
 import com.aura.service.pdf.ScoredChunk;
-import com.aura.service.pdf.TextChunk;
-import com.aura.service.pdf.TextChunker;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Service
 @RequiredArgsConstructor
@@ -41,133 +60,397 @@ public class ChatService {
     private final CurrentUserProvider currentUserProvider;
     private final AuraContextProperties contextProperties;
     private final ChatContextService chatContextService;
-    private final MemoryUpdateService memoryUpdateService;
-    private final PdfTextExtractor pdfTextExtractor;
-    private final TextChunker textChunker;
-    private final LexicalRetriever lexicalRetriever;
+    private final SessionMemoryUpdater sessionMemoryUpdater;
+    private final PdfDocumentService pdfDocumentService;
+    private final SessionDocumentService sessionDocumentService;
+    private final DocumentRetriever documentRetriever;
     private final PdfPromptBuilder pdfPromptBuilder;
     private final PdfChatProperties pdfChatProperties;
+    private final ChatProperties chatProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final FairShareAdmission fairShareAdmission;
+    private final ChatStageMetrics stageMetrics;
+    private final PromptCacheMetrics promptCacheMetrics;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final WorkerThreads workerThreads;
+    private ExecutorService streamExecutor;
 
     /**
      * Creates or reuses a chat session, saves the user message, queries Ollama, saves the assistant message, and returns the result.
      */
-    @Transactional
     public ChatResponseDTO chat(ChatRequestDTO request) {
         AuthenticatedUser principal = currentUserProvider.require();
-        SessionResolution resolution = resolveOrCreateSession(request.getSessionId(), principal);
-        SessionEntity session = resolution.session();
-        boolean newSession = resolution.newSession();
+        try (AdaptiveConcurrencyLimiter.Permit admission = concurrencyLimiter.acquire()) {
+            return chat(admission, request, principal);
+        }
+    }
 
-        MessageEntity userMsg = messageRepository.save(MessageEntity.builder()
-                .author(MessageAuthor.USER)
-                .content(request.getMessage())
-                .session(session)
-                .build());
+    private ChatResponseDTO chat(AdaptiveConcurrencyLimiter.Permit admission,
+                                 ChatRequestDTO request,
+                                 AuthenticatedUser principal) {
+        try (FairShareAdmission.Permit permit = fairShareAdmission.acquire(principal.id(), 1)) {
+            ChatTurn turn = stageMetrics.time(ChatStageMetrics.DB, LlmCallSite.CHAT, () ->
+                    transactionTemplate.execute(status ->
+                            beginTurn(request.getSessionId(), request.getMessage(), principal)));
+            try {
+                applySessionDocuments(turn, request.getMessage(), LlmCallSite.CHAT);
 
-        String answer = ollamaClient.chatWithMessages(
-                chatContextService.buildContextMessages(session, userMsg, properties.getSystemPrompt())
-        );
+                String answer = generate(admission, turn, LlmCallSite.CHAT);
 
-        MessageEntity botMsg = messageRepository.save(MessageEntity.builder()
-                .author(MessageAuthor.ASSISTANT)
-                .content(answer)
-                .session(session)
-                .build());
+                return stageMetrics.time(ChatStageMetrics.DB, LlmCallSite.CHAT, () -> completeTurn(turn, answer));
+            } catch (RuntimeException ex) {
+                abandonTurn(turn, ex);
+                throw ex;
+            }
+        }
+    }
 
-        updateSessionMemoryIfNeeded(session);
+    /**
+     * Creates or reuses a chat session, saves the user message, and streams the Ollama reply as Server-Sent Events.
+     */
+    public SseEmitter chatStream(ChatRequestDTO request) {
+        AuthenticatedUser principal = currentUserProvider.require();
+        FairShareAdmission.Permit permit = fairShareAdmission.acquire(principal.id(), 1);
+        try {
+            ChatTurn turn = stageMetrics.time(ChatStageMetrics.DB, LlmCallSite.CHAT, () ->
+                    transactionTemplate.execute(status ->
+                            beginTurn(request.getSessionId(), request.getMessage(), principal)));
+            try {
+                applySessionDocuments(turn, request.getMessage(), LlmCallSite.CHAT);
+            } catch (RuntimeException ex) {
+                abandonTurn(turn, ex);
+                throw ex;
+            }
 
-        return ChatResponseDTO.builder()
-                .sessionId(session.getId())
-                .userMessageId(userMsg.getId())
-                .assistantMessageId(botMsg.getId())
-                .assistantReply(answer)
-                .timestamp(botMsg.getTimestamp())
-                .newSession(newSession)
-                .build();
+            SseEmitter emitter = new SseEmitter(TimeUnit.SECONDS.toMillis(chatProperties.getStreamTimeoutSeconds()));
+            RequestDeadline current = RequestDeadline.current();
+            RequestDeadline deadline = current != null
+                    ? current
+                    : RequestDeadline.after(Duration.ofSeconds(chatProperties.getStreamTimeoutSeconds()));
+            AtomicBoolean cancelled = new AtomicBoolean(false);
+            emitter.onTimeout(() -> abandonStream(cancelled, deadline));
+            emitter.onError(ex -> abandonStream(cancelled, deadline));
+
+            try {
+                streamExecutor.execute(() -> {
+                    try (permit; RequestDeadline.Scope scope = deadline.attach()) {
+                        streamReply(emitter, cancelled, turn);
+                    }
+                });
+            } catch (RuntimeException ex) {
+                abandonTurn(turn, ex);
+                throw ex;
+            }
+            return emitter;
+        } catch (RuntimeException ex) {
+            closeQuietly(permit);
+            throw ex;
+        }
     }
 
     /**
-     * Creates or reuses a chat session, saves the user message, processes an optional PDF, queries Ollama,
-     * saves the assistant message, and returns the result.
+     * Attaches an optional PDF to the session, then answers the message like {@link #chat(ChatRequestDTO)}.
      */
-    @Transactional
     public ChatResponseDTO chatWithFile(Long sessionId, String message, MultipartFile file) {
+        requireMessage(message);
+        AuthenticatedUser principal = currentUserProvider.require();
+        try (AdaptiveConcurrencyLimiter.Permit admission = concurrencyLimiter.acquire()) {
+            return chatWithFile(admission, sessionId, message, file, principal);
+        }
+    }
+
+    /**
+     * Same as {@link #chatWithFile(Long, String, MultipartFile)} under an admission the caller already holds.
+     */
+    public ChatResponseDTO chatWithFile(AdaptiveConcurrencyLimiter.Permit admission,
+                                        Long sessionId,
+                                        String message,
+                                        MultipartFile file) {
+        requireMessage(message);
+        return chatWithFile(admission, sessionId, message, file, currentUserProvider.require());
+    }
+
+    private ChatResponseDTO chatWithFile(AdaptiveConcurrencyLimiter.Permit admission,
+                                         Long sessionId,
+                                         String message,
+                                         MultipartFile file,
+                                         AuthenticatedUser principal) {
+        if (file == null) {
+            return chat(admission, ChatRequestDTO.builder().sessionId(sessionId).message(message).build(), principal);
+        }
+        try (FairShareAdmission.Permit permit = fairShareAdmission.acquire(principal.id(), fileCost(file))) {
+            return answerWithFile(admission, sessionId, message, file, principal);
+        }
+    }
+
+    private void requireMessage(String message) {
         if (message == null || message.isBlank()) {
             throw new AuraException(AuraErrorCode.VALIDATION_ERROR, "Message cannot be blank");
         }
-        if (file == null) {
-            return chat(ChatRequestDTO.builder().sessionId(sessionId).message(message).build());
+    }
+
+    private ChatResponseDTO answerWithFile(AdaptiveConcurrencyLimiter.Permit admission,
+                                           Long sessionId,
+                                           String message,
+                                           MultipartFile file,
+                                           AuthenticatedUser principal) {
+        LlmCallSite site = LlmCallSite.CHAT_WITH_FILE;
+        PdfDocument document = stageMetrics.time(ChatStageMetrics.PDF_PARSE, site, () ->
+                pdfDocumentService.load(file));
+
+        ChatTurn turn = stageMetrics.time(ChatStageMetrics.DB, site, () ->
+                transactionTemplate.execute(status -> beginTurn(sessionId, message, principal)));
+        try {
+            String extractedText = document.text();
+            boolean directInject = extractedText.length() <= pdfChatProperties.getDirectInjectMaxChars();
+            List<ScoredChunk> selectedChunks = List.of();
+            if (!directInject) {
+                selectedChunks = stageMetrics.time(ChatStageMetrics.RETRIEVAL, site, () ->
+                        documentRetriever.retrieveTopChunks(message, document));
+            }
+
+            String prompt = pdfPromptBuilder.buildPrompt(message, extractedText, selectedChunks, directInject);
+            overrideLastUserMessage(turn.contextMessages(), prompt);
+
+            String answer = generate(admission, turn, site);
+
+            if (pdfChatProperties.getSessionDocumentLimit() > 0) {
+                stageMetrics.time(ChatStageMetrics.DB, site, () -> {
+                    sessionDocumentService.attach(turn.session().getId(), file.getOriginalFilename(), document);
+                    return null;
+                });
+            }
+            return stageMetrics.time(ChatStageMetrics.DB, site, () -> completeTurn(turn, answer));
+        } catch (RuntimeException ex) {
+            abandonTurn(turn, ex);
+            throw ex;
         }
+    }
 
+    /**
+     * Returns all messages for a session ordered by timestamp ascending.
+     */
+    @Transactional(readOnly = true)
+    public List<MessageDTO> getMessages(Long sessionId) {
         AuthenticatedUser principal = currentUserProvider.require();
+        SessionEntity session = resolveSession(sessionId, principal);
+
+        return messageRepository.findBySessionOrderByTimestampAsc(session).stream()
+                .map(m -> MessageDTO.builder()
+                        .id(m.getId())
+                        .author(m.getAuthor().name())
+                        .content(m.getContent())
+                        .timestamp(m.getTimestamp())
+                        .build())
+                .toList();
+    }
+
+    @PostConstruct
+    void start() {
+        streamExecutor = workerThreads.unbounded("chat-stream");
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (streamExecutor != null) {
+            streamExecutor.shutdownNow();
+        }
+    }
+
+    private ChatTurn beginTurn(Long sessionId, String content, AuthenticatedUser principal) {
         SessionResolution resolution = resolveOrCreateSession(sessionId, principal);
         SessionEntity session = resolution.session();
-        boolean newSession = resolution.newSession();
 
         MessageEntity userMsg = messageRepository.save(MessageEntity.builder()
                 .author(MessageAuthor.USER)
-                .content(message)
+                .content(content)
                 .session(session)
                 .build());
 
-        String extractedText = pdfTextExtractor.extractText(file);
-        boolean directInject = extractedText.length() <= pdfChatProperties.getDirectInjectMaxChars();
-        List<ScoredChunk> selectedChunks = List.of();
-        if (!directInject) {
-            List<TextChunk> chunks = textChunker.chunk(
-                    extractedText,
-                    pdfChatProperties.getChunkSizeChars(),
-                    pdfChatProperties.getChunkOverlapChars()
-            );
-            selectedChunks = lexicalRetriever.retrieveTopChunks(
-                    message,
-                    chunks,
-                    pdfChatProperties.getTopK(),
-                    pdfChatProperties.getMinChunkScoreThreshold()
-            );
-        }
-
-        String prompt = pdfPromptBuilder.buildPrompt(message, extractedText, selectedChunks, directInject);
         List<ChatMessage> contextMessages = chatContextService.buildContextMessages(
                 session, userMsg, properties.getSystemPrompt());
-        overrideLastUserMessage(contextMessages, prompt);
-
-        String answer = ollamaClient.chatWithMessages(contextMessages);
+        return new ChatTurn(session, userMsg, resolution.newSession(), contextMessages);
+    }
 
-        MessageEntity botMsg = messageRepository.save(MessageEntity.builder()
-                .author(MessageAuthor.ASSISTANT)
-                .content(answer)
-                .session(session)
-                .build());
+    private ChatResponseDTO completeTurn(ChatTurn turn, String answer) {
+        SessionEntity session = turn.session();
+        TurnCompletion completion = transactionTemplate.execute(status -> {
+            MessageEntity botMsg = messageRepository.save(MessageEntity.builder()
+                    .author(MessageAuthor.ASSISTANT)
+                    .content(answer)
+                    .session(session)
+                    .build());
+            return new TurnCompletion(botMsg, isMemoryUpdateDue(session));
+        });
 
-        updateSessionMemoryIfNeeded(session);
+        if (completion.memoryUpdateDue()) {
+            sessionMemoryUpdater.request(session.getId());
+        }
 
+        MessageEntity botMsg = completion.assistantMessage();
         return ChatResponseDTO.builder()
                 .sessionId(session.getId())
-                .userMessageId(userMsg.getId())
+                .userMessageId(turn.userMessage().getId())
                 .assistantMessageId(botMsg.getId())
                 .assistantReply(answer)
                 .timestamp(botMsg.getTimestamp())
-                .newSession(newSession)
+                .newSession(turn.newSession())
                 .build();
     }
 
+    private void streamReply(SseEmitter emitter, AtomicBoolean cancelled, ChatTurn turn) {
+        ChatResponseDTO completed;
+        try (LlmCallLatency callLatency = LlmCallLatency.track()) {
+            String answer = ollamaClient.streamChatWithMessages(turn.contextMessages(), token -> {
+                if (cancelled.get()) {
+                    throw new CancellationException("Client disconnected");
+                }
+                sendEvent(emitter, "token", ChatStreamChunkDTO.builder().content(token).build());
+            });
+            promptCacheMetrics.record(turn.session().getId(), LlmCallSite.CHAT, turn.contextMessages(), answer,
+                    callLatency.promptEvalCount(), callLatency.evalCount());
+
+            completed = stageMetrics.time(ChatStageMetrics.DB, LlmCallSite.CHAT, () ->
+                    completeTurn(turn, answer));
+        } catch (RuntimeException ex) {
+            abandonTurn(turn, ex);
+            failStream(emitter, ex);
+            return;
+        }
+        try {
+            sendEvent(emitter, "done", completed);
+            emitter.complete();
+        } catch (RuntimeException ex) {
+            failStream(emitter, ex);
+        }
+    }
+
+    private void failStream(SseEmitter emitter, RuntimeException ex) {
+        if (ex instanceof CancellationException || ex instanceof UncheckedIOException) {
+            emitter.completeWithError(ex);
+        } else if (ex instanceof AuraException aura) {
+            sendErrorAndComplete(emitter, aura.getCode(), aura.getMessage());
+        } else {
+            sendErrorAndComplete(emitter, AuraErrorCode.INTERNAL_ERROR, "Internal error");
+        }
+    }
+
     /**
-     * Returns all messages for a session ordered by timestamp ascending.
+     * Deletes the user message of a turn that got no reply, and its session when the turn created it.
      */
-    @Transactional(readOnly = true)
-    public List<MessageDTO> getMessages(Long sessionId) {
-        AuthenticatedUser principal = currentUserProvider.require();
-        SessionEntity session = resolveSession(sessionId, principal);
+    private void abandonTurn(ChatTurn turn, RuntimeException cause) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                messageRepository.deleteById(turn.userMessage().getId());
+                if (turn.newSession()) {
+                    sessionRepository.deleteById(turn.session().getId());
+                }
+            });
+        } catch (RuntimeException ex) {
+            cause.addSuppressed(ex);
+        }
+    }
 
-        return messageRepository.findBySessionOrderByTimestampAsc(session).stream()
-                .map(m -> MessageDTO.builder()
-                        .id(m.getId())
-                        .author(m.getAuthor().name())
-                        .content(m.getContent())
-                        .timestamp(m.getTimestamp())
-                        .build())
-                .toList();
+    /**
+     * Grounds the user message on the session's attached documents, if any match.
+     */
+    private void applySessionDocuments(ChatTurn turn, String message, LlmCallSite site) {
+        if (turn.newSession()) {
+            return;
+        }
+        List<PdfDocument> documents = stageMetrics.time(ChatStageMetrics.DB, site, () ->
+                sessionDocumentService.load(turn.session().getId()));
+        if (documents.isEmpty()) {
+            return;
+        }
+
+        List<String> fullTexts = new ArrayList<>();
+        List<PdfDocument> chunked = new ArrayList<>();
+        for (PdfDocument document : documents) {
+            if (document.chunks().isEmpty()) {
+                fullTexts.add(document.text());
+            } else {
+                chunked.add(document);
+            }
+        }
+        List<ScoredChunk> selectedChunks = chunked.isEmpty() ? List.of()
+                : stageMetrics.time(ChatStageMetrics.RETRIEVAL, site, () -> documentRetriever.retrieveAcross(message, chunked));
+        if (fullTexts.isEmpty() && selectedChunks.isEmpty()) {
+            return;
+        }
+
+        // The system prompt is kept whatever the budget; history and memory give way to the documents.
+        int maxPromptChars = contextProperties.getMaxPromptChars();
+        List<ChatMessage> messages = turn.contextMessages();
+        int documentBudget = maxPromptChars > 0 ? Math.max(1, maxPromptChars - systemChars(messages)) : 0;
+        overrideLastUserMessage(messages,
+                pdfPromptBuilder.buildSessionPrompt(message, fullTexts, selectedChunks, documentBudget));
+        chatContextService.fitToBudget(messages);
+    }
+
+    /**
+     * Calls Ollama and reports the exchange latency, or a drop, to the concurrency limiter.
+     */
+    private String generate(AdaptiveConcurrencyLimiter.Permit admission, ChatTurn turn, LlmCallSite site) {
+        List<ChatMessage> messages = turn.contextMessages();
+        try (LlmCallLatency callLatency = LlmCallLatency.track()) {
+            String answer = stageMetrics.time(ChatStageMetrics.LLM, site, () ->
+                    ollamaClient.chatWithMessages(messages, site));
+            if (callLatency.latency() != null) {
+                admission.recordLatency(callLatency.latency());
+            }
+            promptCacheMetrics.record(turn.session().getId(), site, messages, answer,
+                    callLatency.promptEvalCount(), callLatency.evalCount());
+            return answer;
+        } catch (AuraException ex) {
+            if (ex.getCode() == AuraErrorCode.DEADLINE_EXCEEDED || ex.getCode() == AuraErrorCode.OLLAMA_UNREACHABLE) {
+                admission.recordDropped();
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Stops a stream whose client went away and aborts the Ollama exchange.
+     */
+    private void abandonStream(AtomicBoolean cancelled, RequestDeadline deadline) {
+        cancelled.set(true);
+        deadline.cancel();
+    }
+
+    /**
+     * Charges one fair-share unit plus one per {@code aura.chat.file-cost-bytes} of upload.
+     */
+    private int fileCost(MultipartFile file) {
+        long unit = Math.max(1L, chatProperties.getFileCostBytes());
+        return (int) Math.min(Integer.MAX_VALUE, 1L + file.getSize() / unit);
+    }
+
+    private void closeQuietly(FairShareAdmission.Permit permit) {
+        if (permit != null) {
+            permit.close();
+        }
+    }
+
+    private void sendEvent(SseEmitter emitter, String name, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void sendErrorAndComplete(SseEmitter emitter, AuraErrorCode code, String message) {
+        try {
+            emitter.send(SseEmitter.event().name("error").data(ErrorResponse.builder()
+                    .code(code.name())
+                    .message(message)
+                    .timestamp(Instant.now())
+                    .build()));
+            emitter.complete();
+        } catch (IOException | IllegalStateException ex) {
+            emitter.completeWithError(ex);
+        }
     }
 
     private SessionResolution resolveOrCreateSession(Long sessionId, AuthenticatedUser principal) {
@@ -191,30 +474,16 @@ public class ChatService {
                 .orElseThrow(() -> new AuraException(AuraErrorCode.SESSION_NOT_FOUND, "Session not found: " + sessionId));
     }
 
-    private void updateSessionMemoryIfNeeded(SessionEntity session) {
+    private boolean isMemoryUpdateDue(SessionEntity session) {
         int threshold = contextProperties.getMemoryUpdateEveryMessages();
         if (threshold <= 0) {
-            return;
-        }
-        List<MessageEntity> newMessages = loadMessagesSinceLastMemory(session);
-        if (newMessages.size() < threshold) {
-            return;
-        }
-        MemoryUpdateResult result = memoryUpdateService.updateMemory(session, newMessages);
-        if (result.updated()) {
-            session.setMemoryJson(result.memoryJson());
-            MessageEntity last = newMessages.get(newMessages.size() - 1);
-            session.setLastMemoryMessageId(last.getId());
-            sessionRepository.save(session);
+            return false;
         }
-    }
-
-    private List<MessageEntity> loadMessagesSinceLastMemory(SessionEntity session) {
         Long lastMemoryMessageId = session.getLastMemoryMessageId();
-        if (lastMemoryMessageId == null) {
-            return messageRepository.findBySessionOrderByIdAsc(session);
-        }
-        return messageRepository.findBySessionAndIdGreaterThanOrderByIdAsc(session, lastMemoryMessageId);
+        long newMessages = lastMemoryMessageId == null
+                ? messageRepository.countBySession(session)
+                : messageRepository.countBySessionAndIdGreaterThan(session, lastMemoryMessageId);
+        return newMessages >= threshold;
     }
 
     private void overrideLastUserMessage(List<ChatMessage> messages, String content) {
@@ -230,6 +499,20 @@ public class ChatService {
         }
     }
 
+    private int systemChars(List<ChatMessage> messages) {
+        String content = messages.isEmpty() ? null : messages.get(0).getContent();
+        return content == null ? 0 : content.length();
+    }
+
     private record SessionResolution(SessionEntity session, boolean newSession) {
     }
+
+    private record ChatTurn(SessionEntity session,
+                            MessageEntity userMessage,
+                            boolean newSession,
+                            List<ChatMessage> contextMessages) {
+    }
+
+    private record TurnCompletion(MessageEntity assistantMessage, boolean memoryUpdateDue) {
+    }
 }
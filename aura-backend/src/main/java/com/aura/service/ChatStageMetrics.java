@@ -0,0 +1,39 @@
+package com.aura.service;
+
+import com.aura.client.LlmCallSite;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+@Component
+public class ChatStageMetrics {
+
+    public static final String DB = "db";
+    public static final String PDF_PARSE = "pdf_parse";
+    public static final String RETRIEVAL = "retrieval";
+    public static final String LLM = "llm";
+
+    private final MeterRegistry meterRegistry;
+
+    public ChatStageMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Runs the work and records its duration under {@code aura.chat.stage}, whether it succeeds or fails.
+     */
+    public <T> T time(String stage, LlmCallSite callSite, Supplier<T> work) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return work.get();
+        } finally {
+            sample.stop(Timer.builder("aura.chat.stage")
+                    .description("Time spent per chat request stage")
+                    .tag("stage", stage)
+                    .tag("call_site", callSite.tag())
+                    .register(meterRegistry));
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.aura.service;
+
+import com.aura.client.RequestDeadline;
+import com.aura.config.ChatProperties;
+import com.aura.error.AuraErrorCode;
+import com.aura.error.AuraException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Shares chat capacity between users with deficit round robin over per-user queues.
+ */
+@Component
+public class FairShareAdmission {
+
+    private final ChatProperties properties;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition granted = lock.newCondition();
+    private final Map<UUID, UserLane> lanes = new HashMap<>();
+    private final List<UserLane> ring = new ArrayList<>();
+    private final Counter rejectedCounter;
+    private int ringPosition;
+    private int inFlight;
+    private int queued;
+
+    public FairShareAdmission(ChatProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.rejectedCounter = Counter.builder("aura.chat.admission.rejected")
+                .description("Chat requests rejected because the user's queue was full")
+                .register(meterRegistry);
+        Gauge.builder("aura.chat.admission.queued", this, FairShareAdmission::queuedCount)
+                .description("Chat requests waiting for a fair-share slot")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Waits, within the request deadline, until the user's request is granted a slot and returns its permit.
+     */
+    public Permit acquire(UUID userId, int cost) {
+        lock.lock();
+        try {
+            UserLane lane = lanes.computeIfAbsent(userId, UserLane::new);
+            Ticket ticket = new Ticket(Math.max(1, cost));
+            lane.waiting.addLast(ticket);
+            queued++;
+            if (!lane.inRing) {
+                lane.inRing = true;
+                ring.add(lane);
+            }
+            dispatch();
+            if (!ticket.granted && lane.waiting.size() > Math.max(0, properties.getUserMaxQueued())) {
+                lane.waiting.remove(ticket);
+                queued--;
+                rejectedCounter.increment();
+                throw new AuraException(AuraErrorCode.USER_QUEUE_FULL, "Too many pending requests for this user");
+            }
+            try {
+                while (!ticket.granted) {
+                    RequestDeadline.await(granted, "chat admission");
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                abandon(lane, ticket);
+                throw new AuraException(AuraErrorCode.INTERNAL_ERROR, "Interrupted while waiting for a chat slot");
+            } catch (AuraException ex) {
+                abandon(lane, ticket);
+                throw ex;
+            }
+            return new Permit(lane);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of requests waiting for a slot across all users.
+     */
+    public int queuedCount() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of requests currently holding a slot.
+     */
+    public int inFlightCount() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Grants waiting tickets in deficit round robin order while global and per-user capacity remain.
+     */
+    private void dispatch() {
+        int capacity = Math.max(1, properties.getMaxConcurrentChats());
+        int userLimit = Math.max(1, properties.getUserMaxInFlight());
+        int quantum = Math.max(1, properties.getFairShareQuantum());
+        boolean grantedAny = false;
+        for (int i = ring.size() - 1; i >= 0; i--) {
+            UserLane lane = ring.get(i);
+            if (lane.waiting.isEmpty()) {
+                dropFromRing(i);
+            }
+        }
+        while (inFlight < capacity && hasEligibleLane(userLimit)) {
+            if (ringPosition >= ring.size()) {
+                ringPosition = 0;
+            }
+            UserLane lane = ring.get(ringPosition);
+            if (lane.waiting.isEmpty()) {
+                dropFromRing(ringPosition);
+                continue;
+            }
+            if (lane.inFlight < userLimit) {
+                lane.deficit += quantum;
+                while (!lane.waiting.isEmpty()
+                        && lane.waiting.peekFirst().cost <= lane.deficit
+                        && lane.inFlight < userLimit
+                        && inFlight < capacity) {
+                    Ticket ticket = lane.waiting.pollFirst();
+                    lane.deficit -= ticket.cost;
+                    lane.inFlight++;
+                    inFlight++;
+                    queued--;
+                    ticket.granted = true;
+                    grantedAny = true;
+                }
+            }
+            ringPosition++;
+        }
+        if (grantedAny) {
+            granted.signalAll();
+        }
+    }
+
+    private void dropFromRing(int index) {
+        UserLane lane = ring.remove(index);
+        lane.deficit = 0;
+        lane.inRing = false;
+        if (index < ringPosition) {
+            ringPosition--;
+        }
+        forgetIfIdle(lane);
+    }
+
+    private boolean hasEligibleLane(int userLimit) {
+        for (UserLane lane : ring) {
+            if (!lane.waiting.isEmpty() && lane.inFlight < userLimit) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void abandon(UserLane lane, Ticket ticket) {
+        if (ticket.granted) {
+            releaseSlot(lane);
+        } else {
+            lane.waiting.remove(ticket);
+            queued--;
+            forgetIfIdle(lane);
+        }
+    }
+
+    private void releaseSlot(UserLane lane) {
+        lane.inFlight--;
+        inFlight--;
+        forgetIfIdle(lane);
+        dispatch();
+    }
+
+    private void forgetIfIdle(UserLane lane) {
+        if (lane.inFlight == 0 && lane.waiting.isEmpty() && !lane.inRing) {
+            lanes.remove(lane.userId);
+        }
+    }
+
+    /**
+     * Slot held by one admitted request; closing it more than once has no effect.
+     */
+    public final class Permit implements AutoCloseable {
+        private final UserLane lane;
+        private boolean closed;
+
+        private Permit(UserLane lane) {
+            this.lane = lane;
+        }
+
+        @Override
+        public void close() {
+            lock.lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                releaseSlot(lane);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private static final class UserLane {
+        private final UUID userId;
+        private final Deque<Ticket> waiting = new ArrayDeque<>();
+        private int inFlight;
+        private int deficit;
+        private boolean inRing;
+
+        private UserLane(UUID userId) {
+            this.userId = userId;
+        }
+    }
+
+    private static final class Ticket {
+        private final int cost;
+        private boolean granted;
+
+        private Ticket(int cost) {
+            this.cost = cost;
+        }
+    }
+}
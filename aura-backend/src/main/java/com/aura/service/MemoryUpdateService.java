@@ -1,5 +1,6 @@
 package com.aura.service;
 
+import com.aura.client.LlmCallSite;
 import com.aura.client.OllamaClient;
 import com.aura.domain.MessageAuthor;
 import com.aura.domain.MessageEntity;
@@ -49,7 +50,7 @@ public class MemoryUpdateService {
 
         String response;
         try {
-            response = ollamaClient.chatWithMessages(messages);
+            response = ollamaClient.chatWithMessages(messages, LlmCallSite.MEMORY);
         } catch (RuntimeException ex) {
             return MemoryUpdateResult.noChange(session.getMemoryJson());
         }
@@ -0,0 +1,97 @@
+package com.aura.service;
+
+import com.aura.client.LlmCallSite;
+import com.aura.config.AuraContextProperties;
+import com.aura.dto.OllamaDtos.ChatMessage;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Estimates the prompt tokens each chat turn reused from Ollama's KV cache of the session's previous turn.
+ */
+@Component
+public class PromptCacheMetrics {
+
+    static final int MAX_SESSIONS = 10_000;
+
+    private final AuraContextProperties contextProperties;
+    private final MeterRegistry meterRegistry;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<Long, CachedContext> sessions = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, CachedContext> eldest) {
+            return size() > MAX_SESSIONS;
+        }
+    };
+
+    public PromptCacheMetrics(AuraContextProperties contextProperties, MeterRegistry meterRegistry) {
+        this.contextProperties = contextProperties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Records one completed Ollama call for the session; calls without token counts are ignored.
+     */
+    public void record(Long sessionId, LlmCallSite callSite, List<ChatMessage> prompt, String reply,
+                       Integer promptEvalCount, Integer evalCount) {
+        if (sessionId == null || promptEvalCount == null || evalCount == null) {
+            return;
+        }
+        List<Segment> context = new ArrayList<>(prompt.size() + 1);
+        for (ChatMessage message : prompt) {
+            context.add(Segment.of(message.getRole(), message.getContent()));
+        }
+        CachedContext previous;
+        long saved;
+        lock.lock();
+        try {
+            previous = sessions.get(sessionId);
+            saved = previous == null ? 0 : previous.reusableTokens(context);
+            context.add(Segment.of("assistant", reply));
+            sessions.put(sessionId, new CachedContext(context, saved + promptEvalCount + evalCount));
+        } finally {
+            lock.unlock();
+        }
+        if (previous != null) {
+            DistributionSummary.builder("aura.llm.prompt.tokens.saved")
+                    .description("Prompt tokens reused from the previous turn's KV cache instead of evaluated again")
+                    .baseUnit("tokens")
+                    .tag("call_site", callSite.tag())
+                    .tag("context_mode", contextProperties.getContextMode().name().toLowerCase())
+                    .register(meterRegistry)
+                    .record(saved);
+        }
+    }
+
+    private record Segment(int hash, int chars) {
+        static Segment of(String role, String content) {
+            return new Segment(Objects.hash(role, content), content == null ? 0 : content.length());
+        }
+    }
+
+    private record CachedContext(List<Segment> segments, long tokens) {
+        long reusableTokens(List<Segment> prompt) {
+            long total = 0;
+            long shared = 0;
+            boolean matching = true;
+            for (int i = 0; i < segments.size(); i++) {
+                Segment segment = segments.get(i);
+                total += segment.chars();
+                if (matching && i < prompt.size() && prompt.get(i).equals(segment)) {
+                    shared += segment.chars();
+                } else {
+                    matching = false;
+                }
+            }
+            return total == 0 ? 0 : Math.round((double) tokens * shared / total);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.aura.service;
+
+import com.aura.config.PdfChatProperties;
+import com.aura.domain.SessionDocumentEntity;
+import com.aura.error.AuraErrorCode;
+import com.aura.error.AuraException;
+import com.aura.repository.SessionDocumentRepository;
+import com.aura.repository.projection.SessionDocumentRef;
+import com.aura.service.pdf.LexicalRetriever;
+import com.aura.service.pdf.PdfDocument;
+import com.aura.service.pdf.PdfDocumentCache;
+import com.aura.service.pdf.TextChunk;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SessionDocumentService {
+
+    private static final TypeReference<List<TextChunk>> CHUNK_LIST = new TypeReference<>() {
+    };
+    private static final int MAX_FILENAME_LENGTH = 255;
+
+    private final SessionDocumentRepository sessionDocumentRepository;
+    private final PdfDocumentCache documentCache;
+    private final LexicalRetriever lexicalRetriever;
+    private final ObjectMapper objectMapper;
+    private final PdfChatProperties properties;
+
+    /**
+     * Attaches the document to the session; attaching the same bytes again is a no-op.
+     */
+    @Transactional
+    public void attach(Long sessionId, String filename, PdfDocument document) {
+        sessionDocumentRepository.insertIfAbsent(
+                sessionId,
+                document.sha256(),
+                truncate(filename),
+                document.text(),
+                writeChunks(document.chunks()));
+    }
+
+    /**
+     * Returns the session's most recently attached documents, up to {@code aura.chat.pdf.session-document-limit}.
+     */
+    @Transactional(readOnly = true)
+    public List<PdfDocument> load(Long sessionId) {
+        int limit = properties.getSessionDocumentLimit();
+        if (sessionId == null || limit <= 0) {
+            return List.of();
+        }
+        List<SessionDocumentRef> refs = sessionDocumentRepository.findBySession_IdOrderByIdDesc(
+                sessionId, PageRequest.of(0, limit));
+        List<PdfDocument> documents = new ArrayList<>(refs.size());
+        for (SessionDocumentRef ref : refs) {
+            PdfDocument document = documentCache.get(ref.getSha256());
+            if (document == null) {
+                document = sessionDocumentRepository.findById(ref.getId()).map(this::toDocument).orElse(null);
+                if (document == null) {
+                    continue;
+                }
+                documentCache.put(document);
+            }
+            documents.add(document);
+        }
+        return documents;
+    }
+
+    private PdfDocument toDocument(SessionDocumentEntity entity) {
+        try {
+            List<TextChunk> chunks = objectMapper.readValue(entity.getChunksJson(), CHUNK_LIST);
+            return new PdfDocument(entity.getSha256(), entity.getExtractedText(), chunks, lexicalRetriever.index(chunks));
+        } catch (JsonProcessingException ex) {
+            log.warn("Skipping session document {} with unreadable chunks", entity.getId(), ex);
+            return null;
+        }
+    }
+
+    private String writeChunks(List<TextChunk> chunks) {
+        try {
+            return objectMapper.writeValueAsString(chunks);
+        } catch (JsonProcessingException ex) {
+            throw new AuraException(AuraErrorCode.INTERNAL_ERROR, "Failed to store document");
+        }
+    }
+
+    private static String truncate(String filename) {
+        if (filename == null || filename.length() <= MAX_FILENAME_LENGTH) {
+            return filename;
+        }
+        return filename.substring(0, MAX_FILENAME_LENGTH);
+    }
+}
@@ -0,0 +1,186 @@
+package com.aura.service;
+
+import com.aura.config.AuraContextProperties;
+import com.aura.config.WorkerThreads;
+import com.aura.domain.MessageEntity;
+import com.aura.domain.SessionEntity;
+import com.aura.repository.MessageRepository;
+import com.aura.repository.SessionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Runs session memory extraction on background workers, with at most one pending job per session.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SessionMemoryUpdater {
+
+    private final MemoryUpdateService memoryUpdateService;
+    private final SessionRepository sessionRepository;
+    private final MessageRepository messageRepository;
+    private final AuraContextProperties contextProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final WorkerThreads workerThreads;
+
+    private final ConcurrentHashMap<Long, Instant> pending = new ConcurrentHashMap<>();
+    private BlockingQueue<Long> queue;
+    private ExecutorService workers;
+    private Timer lagTimer;
+    private Counter coalescedCounter;
+    private Counter droppedCounter;
+    private Counter updatedCounter;
+    private Counter unchangedCounter;
+    private Counter conflictCounter;
+
+    @PostConstruct
+    void start() {
+        init();
+        int workerCount = Math.max(1, contextProperties.getMemoryUpdateWorkers());
+        workers = workerThreads.bounded("memory-updater", workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            workers.execute(this::runWorker);
+        }
+    }
+
+    void init() {
+        queue = new ArrayBlockingQueue<>(Math.max(1, contextProperties.getMemoryUpdateQueueCapacity()));
+        Gauge.builder("aura.memory.queue.depth", pending, ConcurrentHashMap::size)
+                .description("Sessions waiting for a memory update")
+                .register(meterRegistry);
+        lagTimer = Timer.builder("aura.memory.queue.lag")
+                .description("Time between the first request for a memory update and its start")
+                .register(meterRegistry);
+        coalescedCounter = outcomeCounter("coalesced");
+        droppedCounter = outcomeCounter("dropped");
+        updatedCounter = outcomeCounter("updated");
+        unchangedCounter = outcomeCounter("unchanged");
+        conflictCounter = outcomeCounter("conflict");
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (workers != null) {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Schedules a memory update, merging into the pending job; dropped when the queue is full.
+     */
+    public void request(Long sessionId) {
+        if (sessionId == null) {
+            return;
+        }
+        if (pending.putIfAbsent(sessionId, Instant.now()) != null) {
+            coalescedCounter.increment();
+            return;
+        }
+        if (!queue.offer(sessionId)) {
+            pending.remove(sessionId);
+            droppedCounter.increment();
+        }
+    }
+
+    /**
+     * Returns the number of sessions currently waiting for a memory update.
+     */
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    private void runWorker() {
+        while (!Thread.currentThread().isInterrupted()) {
+            Long sessionId;
+            try {
+                sessionId = queue.take();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            try {
+                process(sessionId);
+            } catch (RuntimeException ex) {
+                log.warn("Memory update failed for session {}", sessionId, ex);
+            }
+        }
+    }
+
+    /**
+     * Computes and stores a new memory snapshot unless another update advanced it in the meantime.
+     */
+    void process(Long sessionId) {
+        Instant requestedAt = pending.remove(sessionId);
+        if (requestedAt != null) {
+            lagTimer.record(Duration.between(requestedAt, Instant.now()));
+        }
+
+        PendingUpdate update = transactionTemplate.execute(status -> loadPendingUpdate(sessionId));
+        if (update == null) {
+            return;
+        }
+
+        MemoryUpdateResult result = memoryUpdateService.updateMemory(update.session(), update.messages());
+        if (!result.updated()) {
+            unchangedCounter.increment();
+            return;
+        }
+
+        Long lastMessageId = update.messages().get(update.messages().size() - 1).getId();
+        Long expected = update.session().getLastMemoryMessageId();
+        Integer written = transactionTemplate.execute(status -> sessionRepository.updateMemoryIfUnchanged(
+                sessionId, result.memoryJson(), lastMessageId, expected == null ? 0L : expected));
+        if (written != null && written > 0) {
+            updatedCounter.increment();
+        } else {
+            conflictCounter.increment();
+        }
+    }
+
+    private PendingUpdate loadPendingUpdate(Long sessionId) {
+        int threshold = contextProperties.getMemoryUpdateEveryMessages();
+        if (threshold <= 0) {
+            return null;
+        }
+        SessionEntity session = sessionRepository.findById(sessionId).orElse(null);
+        if (session == null) {
+            return null;
+        }
+        Long lastMemoryMessageId = session.getLastMemoryMessageId();
+        List<MessageEntity> messages = lastMemoryMessageId == null
+                ? messageRepository.findBySessionOrderByIdAsc(session)
+                : messageRepository.findBySessionAndIdGreaterThanOrderByIdAsc(session, lastMemoryMessageId);
+        if (messages.size() < threshold) {
+            return null;
+        }
+        return new PendingUpdate(session, messages);
+    }
+
+    private Counter outcomeCounter(String outcome) {
+        return Counter.builder("aura.memory.updates")
+                .description("Memory update requests by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private record PendingUpdate(SessionEntity session, List<MessageEntity> messages) {
+    }
+}
@@ -0,0 +1,81 @@
+package com.aura.service.pdf;
+
+import java.util.List;
+
+/**
+ * Inverted index over a fixed list of chunks, held in primitive arrays, with BM25 length norms precomputed.
+ */
+public final class DocumentIndex {
+
+    private final List<TextChunk> chunks;
+    private final TermDictionary terms;
+    private final int[] postingStarts;
+    private final int[] postingChunks;
+    private final int[] postingFrequencies;
+    private final double[] lengthNorms;
+    private final long estimatedBytes;
+
+    DocumentIndex(List<TextChunk> chunks,
+                  TermDictionary terms,
+                  int[] postingStarts,
+                  int[] postingChunks,
+                  int[] postingFrequencies,
+                  double[] lengthNorms) {
+        this.chunks = List.copyOf(chunks);
+        this.terms = terms;
+        this.postingStarts = postingStarts;
+        this.postingChunks = postingChunks;
+        this.postingFrequencies = postingFrequencies;
+        this.lengthNorms = lengthNorms;
+        this.estimatedBytes = terms.estimatedBytes()
+                + 4L * postingStarts.length
+                + 8L * postingChunks.length
+                + 8L * lengthNorms.length;
+    }
+
+    public List<TextChunk> chunks() {
+        return chunks;
+    }
+
+    public int size() {
+        return chunks.size();
+    }
+
+    /**
+     * Approximates the heap held by the dictionary and postings, not counting the chunk texts.
+     */
+    public long estimatedBytes() {
+        return estimatedBytes;
+    }
+
+    TermDictionary terms() {
+        return terms;
+    }
+
+    int postingStart(int term) {
+        return postingStarts[term];
+    }
+
+    int postingEnd(int term) {
+        return postingStarts[term + 1];
+    }
+
+    int postingChunk(int posting) {
+        return postingChunks[posting];
+    }
+
+    int postingFrequency(int posting) {
+        return postingFrequencies[posting];
+    }
+
+    int documentFrequency(int term) {
+        return postingStarts[term + 1] - postingStarts[term];
+    }
+
+    /**
+     * Returns {@code k1 * (1 - b + b * length / averageLength)} for the chunk.
+     */
+    double lengthNorm(int chunk) {
+        return lengthNorms[chunk];
+    }
+}
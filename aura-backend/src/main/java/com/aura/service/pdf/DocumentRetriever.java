@@ -0,0 +1,118 @@
+package com.aura.service.pdf;
+
+import com.aura.client.RequestDeadline;
+import com.aura.config.PdfChatProperties;
+import com.aura.config.PdfChatProperties.RetrievalMode;
+import com.aura.config.WorkerThreads;
+import com.aura.error.AuraException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Picks the chunks that answer a query with the configured retrieval mode, falling back to BM25 when embedding fails.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DocumentRetriever {
+
+    private final LexicalRetriever lexicalRetriever;
+    private final SemanticRetriever semanticRetriever;
+    private final PdfChatProperties properties;
+    private final WorkerThreads workerThreads;
+    private ExecutorService vectorExecutor;
+
+    @PostConstruct
+    void start() {
+        vectorExecutor = workerThreads.unbounded("vector-retrieval");
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (vectorExecutor != null) {
+            vectorExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns up to {@code aura.chat.pdf.top-k} chunks of the document, best first.
+     */
+    public List<ScoredChunk> retrieveTopChunks(String query, PdfDocument document) {
+        RetrievalMode mode = properties.getRetrievalMode();
+        if (mode == RetrievalMode.HYBRID) {
+            return hybrid(query, document);
+        }
+        if (mode == RetrievalMode.SEMANTIC) {
+            try {
+                return semanticRetriever.retrieveTopChunks(
+                        query, document, properties.getTopK(), properties.getMinSemanticScore());
+            } catch (AuraException | RestClientException ex) {
+                logFallback(document, ex);
+            }
+        }
+        return lexical(query, document, properties.getTopK());
+    }
+
+    /**
+     * Returns up to {@code aura.chat.pdf.top-k} chunks across documents, ranking each document on its own.
+     */
+    public List<ScoredChunk> retrieveAcross(String query, List<PdfDocument> documents) {
+        if (documents.size() == 1) {
+            return retrieveTopChunks(query, documents.get(0));
+        }
+        List<List<ScoredChunk>> rankings = new ArrayList<>(documents.size());
+        for (PdfDocument document : documents) {
+            rankings.add(retrieveTopChunks(query, document));
+        }
+        return ReciprocalRankFusion.interleave(rankings, properties.getRrfK(), properties.getTopK());
+    }
+
+    private List<ScoredChunk> hybrid(String query, PdfDocument document) {
+        int depth = Math.max(properties.getTopK(), properties.getHybridCandidates());
+        RequestDeadline deadline = RequestDeadline.current();
+        Future<List<ScoredChunk>> vector = vectorExecutor.submit(() -> {
+            try (RequestDeadline.Scope scope = deadline != null ? deadline.attach() : null) {
+                return semanticRetriever.retrieveTopChunks(query, document, depth, properties.getMinSemanticScore());
+            }
+        });
+
+        // Chunks sharing no term with the query score zero; they carry no BM25 evidence worth fusing.
+        List<ScoredChunk> lexical = lexical(query, document, depth).stream()
+                .filter(scored -> scored.score() > 0)
+                .toList();
+        try {
+            return ReciprocalRankFusion.fuse(List.of(lexical, vector.get()), properties.getRrfK(), properties.getTopK());
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof AuraException || ex.getCause() instanceof RestClientException) {
+                logFallback(document, ex.getCause());
+                return lexical.size() > properties.getTopK() ? lexical.subList(0, properties.getTopK()) : lexical;
+            }
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (InterruptedException ex) {
+            vector.cancel(true);
+            Thread.currentThread().interrupt();
+            return lexical.size() > properties.getTopK() ? lexical.subList(0, properties.getTopK()) : lexical;
+        }
+    }
+
+    private List<ScoredChunk> lexical(String query, PdfDocument document, int topK) {
+        return lexicalRetriever.retrieveTopChunks(query, document.index(), topK, properties.getMinChunkScoreThreshold());
+    }
+
+    private void logFallback(PdfDocument document, Throwable ex) {
+        log.warn("Semantic retrieval failed for document {}, using BM25: {}", document.sha256(), ex.getMessage());
+    }
+}
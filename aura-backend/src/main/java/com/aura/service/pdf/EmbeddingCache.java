@@ -0,0 +1,127 @@
+package com.aura.service.pdf;
+
+import com.aura.config.PdfChatProperties;
+import com.aura.error.AuraErrorCode;
+import com.aura.error.AuraException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Component
+public class EmbeddingCache {
+
+    private static final long ENTRY_OVERHEAD_BYTES = 160;
+
+    private final PdfChatProperties properties;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, float[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private long bytes;
+
+    public EmbeddingCache(PdfChatProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.hitCounter = resultCounter(meterRegistry, "hit");
+        this.missCounter = resultCounter(meterRegistry, "miss");
+        Gauge.builder("aura.pdf.embedding.cache.bytes", this, EmbeddingCache::sizeInBytes)
+                .description("Estimated memory held by cached embedding vectors")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cache key for a text embedded with the model.
+     */
+    public static String key(String model, String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return model + ":" + HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new AuraException(AuraErrorCode.INTERNAL_ERROR, "Failed to hash embedding input");
+        }
+    }
+
+    /**
+     * Returns the cached vector for the key, or null.
+     */
+    public float[] get(String key) {
+        lock.lock();
+        try {
+            float[] vector = entries.get(key);
+            (vector != null ? hitCounter : missCounter).increment();
+            return vector;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stores the vector, evicting least recently used ones over the byte budget.
+     */
+    public void put(String key, float[] vector) {
+        long maxBytes = properties.getEmbeddingCacheMaxBytes();
+        long vectorBytes = entryBytes(vector);
+        if (vectorBytes > maxBytes) {
+            return;
+        }
+        lock.lock();
+        try {
+            float[] previous = entries.put(key, vector);
+            if (previous != null) {
+                bytes -= entryBytes(previous);
+            }
+            bytes += vectorBytes;
+            Iterator<float[]> it = entries.values().iterator();
+            while (it.hasNext() && bytes > maxBytes) {
+                bytes -= entryBytes(it.next());
+                it.remove();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the estimated memory held by cached vectors.
+     */
+    public long sizeInBytes() {
+        lock.lock();
+        try {
+            return bytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of cached vectors.
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static long entryBytes(float[] vector) {
+        return 4L * vector.length + ENTRY_OVERHEAD_BYTES;
+    }
+
+    private static Counter resultCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("aura.pdf.embedding.cache")
+                .description("Embedding cache lookups by result")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,464 @@
+package com.aura.service.pdf;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Hierarchical navigable small world graph over unit-length vectors, ranked by cosine similarity.
+ */
+public final class HnswIndex {
+
+    private static final long SEED = 42L;
+    private static final int POOLED_SEARCHES = Runtime.getRuntime().availableProcessors();
+
+    private final int dimension;
+    private final int size;
+    private final int m;
+    private final int maxM0;
+    private final float[] vectors;
+    private final int[] levels;
+    private final int[] baseLinks;
+    private final int[][] upperLinks;
+    private final ArrayBlockingQueue<Search> searches = new ArrayBlockingQueue<>(POOLED_SEARCHES);
+    private int entryPoint = -1;
+    private int topLevel = -1;
+
+    private HnswIndex(int dimension, int size, int m) {
+        this.dimension = dimension;
+        this.size = size;
+        this.m = m;
+        this.maxM0 = 2 * m;
+        this.vectors = new float[size * dimension];
+        this.levels = new int[size];
+        this.baseLinks = new int[size * (maxM0 + 1)];
+        this.upperLinks = new int[size][];
+    }
+
+    /**
+     * Normalizes and inserts the vectors; levels come from a fixed seed, so the graph is deterministic.
+     */
+    public static HnswIndex build(List<float[]> vectors, int m, int efConstruction) {
+        if (m < 2) {
+            throw new IllegalArgumentException("HNSW M must be at least 2");
+        }
+        int dimension = vectors.isEmpty() ? 0 : vectors.get(0).length;
+        HnswIndex index = new HnswIndex(dimension, vectors.size(), m);
+        for (int i = 0; i < vectors.size(); i++) {
+            float[] vector = vectors.get(i);
+            if (vector.length != dimension) {
+                throw new IllegalArgumentException("Vector " + i + " has " + vector.length
+                        + " dimensions, expected " + dimension);
+            }
+            System.arraycopy(vector, 0, index.vectors, i * dimension, dimension);
+            normalize(index.vectors, i * dimension, dimension);
+        }
+
+        Random random = new Random(SEED);
+        double levelMultiplier = 1.0 / Math.log(m);
+        Search search = new Search(vectors.size(), Math.max(efConstruction, m));
+        int[] selected = new int[index.maxM0 + 1];
+        for (int node = 0; node < index.size; node++) {
+            int level = (int) (-Math.log(1.0 - random.nextDouble()) * levelMultiplier);
+            index.insert(node, level, Math.max(efConstruction, m), search, selected);
+        }
+        return index;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int dimension() {
+        return dimension;
+    }
+
+    /**
+     * Approximates the heap held by the vectors and links, and by the visited marks of pooled searches.
+     */
+    public long estimatedBytes() {
+        long bytes = 4L * vectors.length + 4L * levels.length + 4L * baseLinks.length + 16L * upperLinks.length
+                + 4L * size * POOLED_SEARCHES;
+        for (int[] links : upperLinks) {
+            if (links != null) {
+                bytes += 4L * links.length;
+            }
+        }
+        return bytes + 64;
+    }
+
+    /**
+     * Writes up to {@code k} most similar node ids and their similarities, best first, and returns how many.
+     */
+    public int search(float[] query, int k, int ef, int[] ids, float[] similarities) {
+        if (query.length != dimension) {
+            throw new IllegalArgumentException("Query has " + query.length + " dimensions, expected " + dimension);
+        }
+        int limit = Math.min(k, size);
+        if (limit <= 0) {
+            return 0;
+        }
+        float[] unit = Arrays.copyOf(query, dimension);
+        normalize(unit, 0, dimension);
+        int candidates = Math.max(ef, limit);
+        Search search = searches.poll();
+        if (search == null) {
+            search = new Search(size, candidates);
+        }
+        try {
+            if (size <= candidates) {
+                scanAll(unit, search.results);
+            } else {
+                int current = entryPoint;
+                for (int level = topLevel; level > 0; level--) {
+                    current = greedyClosest(unit, 0, current, level);
+                }
+                searchLayer(unit, 0, current, candidates, 0, search);
+            }
+
+            NodeQueue results = search.results;
+            while (results.size() > limit) {
+                results.pop();
+            }
+            for (int i = limit - 1; i >= 0; i--) {
+                similarities[i] = results.peekScore();
+                ids[i] = results.pop();
+            }
+            return limit;
+        } finally {
+            searches.offer(search);
+        }
+    }
+
+    private void insert(int node, int level, int efConstruction, Search search, int[] selected) {
+        levels[node] = level;
+        if (level > 0) {
+            upperLinks[node] = new int[level * (m + 1)];
+        }
+        if (entryPoint < 0) {
+            entryPoint = node;
+            topLevel = level;
+            return;
+        }
+
+        int offset = node * dimension;
+        int current = entryPoint;
+        for (int l = topLevel; l > level; l--) {
+            current = greedyClosest(vectors, offset, current, l);
+        }
+        for (int l = Math.min(level, topLevel); l >= 0; l--) {
+            searchLayer(vectors, offset, current, efConstruction, l, search);
+            int count = search.results.size();
+            int[] found = new int[count];
+            float[] scores = new float[count];
+            for (int i = count - 1; i >= 0; i--) {
+                scores[i] = search.results.peekScore();
+                found[i] = search.results.pop();
+            }
+            int chosen = selectNeighbors(found, scores, count, m, selected);
+            int[] links = links(node, l);
+            int start = linksOffset(node, l);
+            links[start] = chosen;
+            System.arraycopy(selected, 0, links, start + 1, chosen);
+            int maxLinks = l == 0 ? maxM0 : m;
+            for (int i = 0; i < chosen; i++) {
+                link(links[start + 1 + i], node, l, maxLinks, selected);
+            }
+            current = found[0];
+        }
+        if (level > topLevel) {
+            topLevel = level;
+            entryPoint = node;
+        }
+    }
+
+    /**
+     * Adds {@code target} to the node's links, re-selecting them when the node is full.
+     */
+    private void link(int node, int target, int level, int maxLinks, int[] selected) {
+        int[] links = links(node, level);
+        int start = linksOffset(node, level);
+        int count = links[start];
+        if (count < maxLinks) {
+            links[start + 1 + count] = target;
+            links[start] = count + 1;
+            return;
+        }
+
+        int[] candidates = new int[count + 1];
+        float[] scores = new float[count + 1];
+        int nodeOffset = node * dimension;
+        for (int i = 0; i < count; i++) {
+            candidates[i] = links[start + 1 + i];
+            scores[i] = dot(vectors, nodeOffset, candidates[i]);
+        }
+        candidates[count] = target;
+        scores[count] = dot(vectors, nodeOffset, target);
+        sortDescending(candidates, scores);
+        int chosen = selectNeighbors(candidates, scores, count + 1, maxLinks, selected);
+        links[start] = chosen;
+        System.arraycopy(selected, 0, links, start + 1, chosen);
+    }
+
+    /**
+     * Selects diverse neighbors with the heuristic of Malkov and Yashunin.
+     */
+    private int selectNeighbors(int[] candidates, float[] scores, int count, int limit, int[] selected) {
+        int chosen = 0;
+        for (int i = 0; i < count && chosen < limit; i++) {
+            int candidate = candidates[i];
+            int offset = candidate * dimension;
+            boolean diverse = true;
+            for (int j = 0; j < chosen; j++) {
+                if (dot(vectors, offset, selected[j]) > scores[i]) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                selected[chosen++] = candidate;
+            }
+        }
+        return chosen;
+    }
+
+    private int greedyClosest(float[] query, int queryOffset, int entry, int level) {
+        int current = entry;
+        float best = dot(query, queryOffset, current);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            int[] links = links(current, level);
+            int start = linksOffset(current, level);
+            int count = links[start];
+            for (int i = 1; i <= count; i++) {
+                int neighbor = links[start + i];
+                float score = dot(query, queryOffset, neighbor);
+                if (score > best) {
+                    best = score;
+                    current = neighbor;
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Best-first search of one level, leaving the {@code ef} most similar nodes in {@code search.results}.
+     */
+    private void searchLayer(float[] query, int queryOffset, int entry, int ef, int level, Search search) {
+        search.reset();
+        NodeQueue candidates = search.candidates;
+        NodeQueue results = search.results;
+        float entryScore = dot(query, queryOffset, entry);
+        search.visit(entry);
+        candidates.push(entry, entryScore);
+        results.push(entry, entryScore);
+        while (candidates.size() > 0) {
+            if (results.size() >= ef && candidates.peekScore() < results.peekScore()) {
+                break;
+            }
+            int current = candidates.pop();
+            int[] links = links(current, level);
+            int start = linksOffset(current, level);
+            int count = links[start];
+            for (int i = 1; i <= count; i++) {
+                int neighbor = links[start + i];
+                if (!search.visit(neighbor)) {
+                    continue;
+                }
+                float score = dot(query, queryOffset, neighbor);
+                if (results.size() < ef || score > results.peekScore()) {
+                    candidates.push(neighbor, score);
+                    results.push(neighbor, score);
+                    if (results.size() > ef) {
+                        results.pop();
+                    }
+                }
+            }
+        }
+    }
+
+    private void scanAll(float[] query, NodeQueue results) {
+        results.clear();
+        for (int node = 0; node < size; node++) {
+            results.push(node, dot(query, 0, node));
+        }
+    }
+
+    private int[] links(int node, int level) {
+        return level == 0 ? baseLinks : upperLinks[node];
+    }
+
+    private int linksOffset(int node, int level) {
+        return level == 0 ? node * (maxM0 + 1) : (level - 1) * (m + 1);
+    }
+
+    /**
+     * Four independent sums so the multiply-adds of consecutive components do not wait on each other.
+     */
+    private float dot(float[] query, int queryOffset, int node) {
+        int offset = node * dimension;
+        float s0 = 0f;
+        float s1 = 0f;
+        float s2 = 0f;
+        float s3 = 0f;
+        int i = 0;
+        for (int unrolled = dimension & ~3; i < unrolled; i += 4) {
+            s0 += query[queryOffset + i] * vectors[offset + i];
+            s1 += query[queryOffset + i + 1] * vectors[offset + i + 1];
+            s2 += query[queryOffset + i + 2] * vectors[offset + i + 2];
+            s3 += query[queryOffset + i + 3] * vectors[offset + i + 3];
+        }
+        for (; i < dimension; i++) {
+            s0 += query[queryOffset + i] * vectors[offset + i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    private static void normalize(float[] vector, int offset, int dimension) {
+        double norm = 0;
+        for (int i = 0; i < dimension; i++) {
+            norm += (double) vector[offset + i] * vector[offset + i];
+        }
+        if (norm == 0) {
+            return;
+        }
+        float scale = (float) (1.0 / Math.sqrt(norm));
+        for (int i = 0; i < dimension; i++) {
+            vector[offset + i] *= scale;
+        }
+    }
+
+    private static void sortDescending(int[] ids, float[] scores) {
+        for (int i = 1; i < ids.length; i++) {
+            int id = ids[i];
+            float score = scores[i];
+            int j = i - 1;
+            while (j >= 0 && scores[j] < score) {
+                ids[j + 1] = ids[j];
+                scores[j + 1] = scores[j];
+                j--;
+            }
+            ids[j + 1] = id;
+            scores[j + 1] = score;
+        }
+    }
+
+    /**
+     * Pooled per-search scratch space: candidate and result queues and visited marks.
+     */
+    private static final class Search {
+        final NodeQueue candidates;
+        final NodeQueue results;
+        private final int[] visited;
+        private int epoch;
+
+        Search(int size, int ef) {
+            this.candidates = new NodeQueue(ef + 1, true);
+            this.results = new NodeQueue(ef + 1, false);
+            this.visited = new int[size];
+        }
+
+        void reset() {
+            candidates.clear();
+            results.clear();
+            if (++epoch == 0) {
+                Arrays.fill(visited, 0);
+                epoch = 1;
+            }
+        }
+
+        /**
+         * Marks the node visited and returns whether it was not already.
+         */
+        boolean visit(int node) {
+            if (visited[node] == epoch) {
+                return false;
+            }
+            visited[node] = epoch;
+            return true;
+        }
+    }
+
+    /**
+     * Binary heap of node ids keyed by similarity.
+     */
+    private static final class NodeQueue {
+        private final boolean bestFirst;
+        private int[] ids;
+        private float[] scores;
+        private int size;
+
+        NodeQueue(int capacity, boolean bestFirst) {
+            this.bestFirst = bestFirst;
+            this.ids = new int[capacity];
+            this.scores = new float[capacity];
+        }
+
+        int size() {
+            return size;
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        float peekScore() {
+            return scores[0];
+        }
+
+        void push(int id, float score) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                scores = Arrays.copyOf(scores, size * 2);
+            }
+            int index = size++;
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (!above(score, scores[parent])) {
+                    break;
+                }
+                ids[index] = ids[parent];
+                scores[index] = scores[parent];
+                index = parent;
+            }
+            ids[index] = id;
+            scores[index] = score;
+        }
+
+        int pop() {
+            int top = ids[0];
+            size--;
+            int id = ids[size];
+            float score = scores[size];
+            int index = 0;
+            while (true) {
+                int child = 2 * index + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && above(scores[child + 1], scores[child])) {
+                    child++;
+                }
+                if (!above(scores[child], score)) {
+                    break;
+                }
+                ids[index] = ids[child];
+                scores[index] = scores[child];
+                index = child;
+            }
+            if (size > 0) {
+                ids[index] = id;
+                scores[index] = score;
+            }
+            return top;
+        }
+
+        private boolean above(float a, float b) {
+            return bestFirst ? a > b : a < b;
+        }
+    }
+}
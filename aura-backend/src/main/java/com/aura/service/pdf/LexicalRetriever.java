@@ -2,20 +2,15 @@ package com.aura.service.pdf;
 
 import org.springframework.stereotype.Component;
 
-import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Locale;
-import java.util.Map;
-import java.util.Set;
 
 @Component
 public class LexicalRetriever {
 
     private static final double DEFAULT_K1 = 1.5;
     private static final double DEFAULT_B = 0.75;
+    private static final int INITIAL_CAPACITY = 64;
 
     public List<ScoredChunk> retrieveTopChunks(String query,
                                                List<TextChunk> chunks,
@@ -24,82 +19,213 @@ public class LexicalRetriever {
         if (query == null || query.isBlank() || chunks == null || chunks.isEmpty() || topK <= 0) {
             return List.of();
         }
+        return retrieveTopChunks(query, index(chunks), topK, minScoreThreshold);
+    }
 
-        List<List<String>> tokenizedChunks = new ArrayList<>(chunks.size());
-        List<Map<String, Integer>> termFrequencies = new ArrayList<>(chunks.size());
-        Map<String, Integer> docFrequencies = new HashMap<>();
-        int totalTokens = 0;
-
-        for (TextChunk chunk : chunks) {
-            List<String> tokens = tokenize(chunk.text());
-            tokenizedChunks.add(tokens);
-            totalTokens += tokens.size();
-            Map<String, Integer> tf = new HashMap<>();
-            Set<String> seen = new HashSet<>();
-            for (String token : tokens) {
-                tf.merge(token, 1, Integer::sum);
-                if (seen.add(token)) {
-                    docFrequencies.merge(token, 1, Integer::sum);
-                }
+    /**
+     * Scores the chunks of a prebuilt index against the query with BM25 and returns the best ones.
+     */
+    public List<ScoredChunk> retrieveTopChunks(String query,
+                                               DocumentIndex index,
+                                               int topK,
+                                               double minScoreThreshold) {
+        if (query == null || query.isBlank() || index == null || index.size() == 0 || topK <= 0) {
+            return List.of();
+        }
+
+        double[] scores = score(query, index);
+        int[] heap = new int[Math.min(topK, scores.length)];
+        int heapSize = 0;
+        for (int chunk = 0; chunk < scores.length; chunk++) {
+            if (scores[chunk] < minScoreThreshold) {
+                continue;
+            }
+            if (heapSize < heap.length) {
+                heap[heapSize] = chunk;
+                siftUp(heap, heapSize++, scores);
+            } else if (ranksBefore(chunk, heap[0], scores)) {
+                heap[0] = chunk;
+                siftDown(heap, heapSize, scores);
             }
-            termFrequencies.add(tf);
         }
 
-        double avgDocLength = chunks.isEmpty() ? 0.0 : (double) totalTokens / chunks.size();
-        List<String> queryTokens = tokenize(query);
+        ScoredChunk[] selected = new ScoredChunk[heapSize];
+        for (int size = heapSize; size > 0; size--) {
+            int worst = heap[0];
+            heap[0] = heap[size - 1];
+            siftDown(heap, size - 1, scores);
+            selected[size - 1] = new ScoredChunk(index.chunks().get(worst), scores[worst]);
+        }
+        return Arrays.asList(selected);
+    }
+
+    /**
+     * Scans the chunks once, interning their terms, and builds the postings BM25 needs for any later query.
+     */
+    public DocumentIndex index(List<TextChunk> chunks) {
+        List<TextChunk> source = chunks == null ? List.of() : chunks;
+        TermDictionary terms = new TermDictionary();
+        int[] lengths = new int[source.size()];
+        int[] frequencies = new int[INITIAL_CAPACITY];
+        int[] documentFrequencies = new int[INITIAL_CAPACITY];
+        int[] touched = new int[INITIAL_CAPACITY];
+        int[] entryTerms = new int[INITIAL_CAPACITY];
+        int[] entryChunks = new int[INITIAL_CAPACITY];
+        int[] entryFrequencies = new int[INITIAL_CAPACITY];
+        int entries = 0;
+        long totalLength = 0;
 
-        List<ScoredChunk> scored = new ArrayList<>();
-        for (int i = 0; i < chunks.size(); i++) {
-            Map<String, Integer> tf = termFrequencies.get(i);
-            int docLength = tokenizedChunks.get(i).size();
-            double score = bm25Score(queryTokens, tf, docFrequencies, docLength, avgDocLength, chunks.size());
-            if (score >= minScoreThreshold) {
-                scored.add(new ScoredChunk(chunks.get(i), score));
+        for (int chunk = 0; chunk < source.size(); chunk++) {
+            String text = source.get(chunk).text();
+            int touchedCount = 0;
+            int length = 0;
+            int start = text == null ? -1 : TermScanner.start(text, 0);
+            while (start >= 0) {
+                int end = TermScanner.end(text, start);
+                int term = terms.add(text, start, end);
+                if (term >= frequencies.length) {
+                    frequencies = grow(frequencies, term);
+                    documentFrequencies = grow(documentFrequencies, term);
+                }
+                if (frequencies[term]++ == 0) {
+                    touched = grow(touched, touchedCount);
+                    touched[touchedCount++] = term;
+                }
+                length++;
+                start = TermScanner.start(text, end);
+            }
+            lengths[chunk] = length;
+            totalLength += length;
+
+            for (int i = 0; i < touchedCount; i++) {
+                int term = touched[i];
+                if (entries == entryTerms.length) {
+                    entryTerms = grow(entryTerms, entries);
+                    entryChunks = grow(entryChunks, entries);
+                    entryFrequencies = grow(entryFrequencies, entries);
+                }
+                entryTerms[entries] = term;
+                entryChunks[entries] = chunk;
+                entryFrequencies[entries] = frequencies[term];
+                entries++;
+                documentFrequencies[term]++;
+                frequencies[term] = 0;
             }
         }
 
-        scored.sort(Comparator.comparingDouble(ScoredChunk::score).reversed());
-        if (scored.size() > topK) {
-            return scored.subList(0, topK);
+        int termCount = terms.size();
+        int[] postingStarts = new int[termCount + 1];
+        for (int term = 0; term < termCount; term++) {
+            postingStarts[term + 1] = postingStarts[term] + documentFrequencies[term];
+        }
+        int[] cursors = Arrays.copyOf(postingStarts, termCount);
+        int[] postingChunks = new int[entries];
+        int[] postingFrequencies = new int[entries];
+        for (int i = 0; i < entries; i++) {
+            int posting = cursors[entryTerms[i]]++;
+            postingChunks[posting] = entryChunks[i];
+            postingFrequencies[posting] = entryFrequencies[i];
         }
-        return scored;
-    }
 
-    private double bm25Score(List<String> queryTokens,
-                             Map<String, Integer> tf,
-                             Map<String, Integer> df,
-                             int docLength,
-                             double avgDocLength,
-                             int docCount) {
-        if (queryTokens.isEmpty() || docLength == 0 || docCount == 0) {
-            return 0.0;
+        double averageLength = lengths.length == 0 ? 0.0 : (double) totalLength / lengths.length;
+        double[] lengthNorms = new double[lengths.length];
+        for (int chunk = 0; chunk < lengths.length; chunk++) {
+            double relativeLength = averageLength == 0.0 ? 1.0 : lengths[chunk] / averageLength;
+            lengthNorms[chunk] = DEFAULT_K1 * (1.0 - DEFAULT_B + DEFAULT_B * relativeLength);
         }
-        double score = 0.0;
-        for (String token : queryTokens) {
-            Integer termFrequency = tf.get(token);
-            if (termFrequency == null || termFrequency == 0) {
+        return new DocumentIndex(source, terms, postingStarts, postingChunks, postingFrequencies, lengthNorms);
+    }
+
+    /**
+     * Accumulates BM25 scores per chunk from the postings of each query term.
+     */
+    private double[] score(String query, DocumentIndex index) {
+        TermDictionary terms = index.terms();
+        int[] queryTerms = new int[8];
+        int[] queryCounts = new int[8];
+        int distinct = 0;
+        int start = TermScanner.start(query, 0);
+        while (start >= 0) {
+            int end = TermScanner.end(query, start);
+            int term = terms.idOf(query, start, end);
+            start = TermScanner.start(query, end);
+            if (term < 0) {
                 continue;
             }
-            int docFrequency = df.getOrDefault(token, 0);
-            double idf = Math.log(1.0 + (docCount - docFrequency + 0.5) / (docFrequency + 0.5));
-            double numerator = termFrequency * (DEFAULT_K1 + 1.0);
-            double denominator = termFrequency + DEFAULT_K1 * (1.0 - DEFAULT_B + DEFAULT_B * (docLength / avgDocLength));
-            score += idf * (numerator / denominator);
+            int slot = 0;
+            while (slot < distinct && queryTerms[slot] != term) {
+                slot++;
+            }
+            if (slot == distinct) {
+                queryTerms = grow(queryTerms, distinct);
+                queryCounts = grow(queryCounts, distinct);
+                queryTerms[distinct++] = term;
+            }
+            queryCounts[slot]++;
         }
-        return score;
+
+        int docCount = index.size();
+        double[] scores = new double[docCount];
+        for (int i = 0; i < distinct; i++) {
+            int term = queryTerms[i];
+            int docFrequency = index.documentFrequency(term);
+            double weight = queryCounts[i] * Math.log(1.0 + (docCount - docFrequency + 0.5) / (docFrequency + 0.5));
+            for (int posting = index.postingStart(term), end = index.postingEnd(term); posting < end; posting++) {
+                int chunk = index.postingChunk(posting);
+                int termFrequency = index.postingFrequency(posting);
+                scores[chunk] += weight * (termFrequency * (DEFAULT_K1 + 1.0)) / (termFrequency + index.lengthNorm(chunk));
+            }
+        }
+        return scores;
     }
 
-    private List<String> tokenize(String text) {
-        if (text == null || text.isBlank()) {
-            return List.of();
+    /**
+     * Orders by descending score, then by position in the document.
+     */
+    private static boolean ranksBefore(int a, int b, double[] scores) {
+        return scores[a] > scores[b] || (scores[a] == scores[b] && a < b);
+    }
+
+    /**
+     * Restores the heap property upwards; the root is the lowest-ranked chunk kept so far.
+     */
+    private static void siftUp(int[] heap, int index, double[] scores) {
+        int chunk = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!ranksBefore(heap[parent], chunk, scores)) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = chunk;
+    }
+
+    private static void siftDown(int[] heap, int size, double[] scores) {
+        if (size == 0) {
+            return;
         }
-        String[] parts = text.toLowerCase(Locale.ROOT).split("[^a-z0-9]+");
-        List<String> tokens = new ArrayList<>();
-        for (String part : parts) {
-            if (!part.isBlank()) {
-                tokens.add(part);
+        int chunk = heap[0];
+        int index = 0;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
             }
+            if (child + 1 < size && ranksBefore(heap[child], heap[child + 1], scores)) {
+                child++;
+            }
+            if (!ranksBefore(chunk, heap[child], scores)) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
         }
-        return tokens;
+        heap[index] = chunk;
+    }
+
+    private static int[] grow(int[] array, int index) {
+        return index < array.length ? array : Arrays.copyOf(array, Math.max(array.length * 2, index + 1));
     }
 }
@@ -0,0 +1,20 @@
+package com.aura.service.pdf;
+
+import java.util.List;
+
+/**
+ * An uploaded PDF after extraction; chunks and index are set only when the text is too large to inject directly.
+ */
+public record PdfDocument(String sha256, String text, List<TextChunk> chunks, DocumentIndex index) {
+
+    /**
+     * Approximates the heap held by the document: two bytes per char of text and chunks plus the index.
+     */
+    public long estimatedBytes() {
+        long chars = text.length();
+        for (TextChunk chunk : chunks) {
+            chars += chunk.text().length();
+        }
+        return 2L * chars + index.estimatedBytes() + 128;
+    }
+}
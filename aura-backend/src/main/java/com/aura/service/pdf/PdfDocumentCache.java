@@ -0,0 +1,245 @@
+package com.aura.service.pdf;
+
+import com.aura.config.PdfChatProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * LRU cache of extracted PDFs keyed by upload SHA-256, with an optional disk tier.
+ */
+@Slf4j
+@Component
+public class PdfDocumentCache {
+
+    private static final String SUFFIX = ".json";
+    private static final String CHUNKER_VERSION = "2";
+
+    private final PdfChatProperties properties;
+    private final LexicalRetriever lexicalRetriever;
+    private final ObjectMapper objectMapper;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, PdfDocument> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Counter hitCounter;
+    private final Counter diskHitCounter;
+    private final Counter missCounter;
+    private long bytes;
+
+    public PdfDocumentCache(PdfChatProperties properties,
+                            LexicalRetriever lexicalRetriever,
+                            ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.lexicalRetriever = lexicalRetriever;
+        this.objectMapper = objectMapper;
+        this.hitCounter = resultCounter(meterRegistry, "hit");
+        this.diskHitCounter = resultCounter(meterRegistry, "disk_hit");
+        this.missCounter = resultCounter(meterRegistry, "miss");
+        Gauge.builder("aura.pdf.cache.bytes", this, PdfDocumentCache::sizeInBytes)
+                .description("Estimated memory held by cached PDF extractions")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached document for the hash from memory, then from disk, or null when neither has it.
+     */
+    public PdfDocument get(String sha256) {
+        lock.lock();
+        try {
+            PdfDocument cached = entries.get(sha256);
+            if (cached != null) {
+                hitCounter.increment();
+                return cached;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        PdfDocument stored = readFromDisk(sha256);
+        if (stored == null) {
+            missCounter.increment();
+            return null;
+        }
+        diskHitCounter.increment();
+        putInMemory(stored);
+        return stored;
+    }
+
+    /**
+     * Stores the document in memory, evicting least recently used ones over the byte budget, and on disk when enabled.
+     */
+    public void put(PdfDocument document) {
+        putInMemory(document);
+        writeToDisk(document);
+    }
+
+    /**
+     * Returns the estimated memory held by cached documents.
+     */
+    public long sizeInBytes() {
+        lock.lock();
+        try {
+            return bytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of documents held in memory.
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void putInMemory(PdfDocument document) {
+        long maxBytes = properties.getCacheMaxBytes();
+        long documentBytes = document.estimatedBytes();
+        if (documentBytes > maxBytes) {
+            return;
+        }
+        lock.lock();
+        try {
+            PdfDocument previous = entries.put(document.sha256(), document);
+            if (previous != null) {
+                bytes -= previous.estimatedBytes();
+            }
+            bytes += documentBytes;
+            Iterator<PdfDocument> it = entries.values().iterator();
+            while (it.hasNext() && bytes > maxBytes) {
+                bytes -= it.next().estimatedBytes();
+                it.remove();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private PdfDocument readFromDisk(String sha256) {
+        Path dir = cacheDir();
+        if (dir == null) {
+            return null;
+        }
+        Path file = dir.resolve(sha256 + SUFFIX);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            StoredDocument stored = objectMapper.readValue(file.toFile(), StoredDocument.class);
+            if (!settingsKey().equals(stored.chunking())) {
+                deleteQuietly(file);
+                return null;
+            }
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+            return new PdfDocument(sha256, stored.text(), stored.chunks(), lexicalRetriever.index(stored.chunks()));
+        } catch (IOException ex) {
+            log.warn("Discarding unreadable PDF cache entry {}", file, ex);
+            deleteQuietly(file);
+            return null;
+        }
+    }
+
+    private void writeToDisk(PdfDocument document) {
+        Path dir = cacheDir();
+        if (dir == null) {
+            return;
+        }
+        try {
+            Files.createDirectories(dir);
+            Path temp = Files.createTempFile(dir, document.sha256(), ".tmp");
+            try {
+                objectMapper.writeValue(temp.toFile(), new StoredDocument(settingsKey(), document.text(), document.chunks()));
+                Files.move(temp, dir.resolve(document.sha256() + SUFFIX),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                deleteQuietly(temp);
+            }
+            trimDisk(dir);
+        } catch (IOException ex) {
+            log.warn("Could not write PDF cache entry for {}", document.sha256(), ex);
+        }
+    }
+
+    /**
+     * Deletes the least recently used entries until the directory fits its byte budget.
+     */
+    private void trimDisk(Path dir) throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(dir)) {
+            files = listing.filter(path -> path.getFileName().toString().endsWith(SUFFIX))
+                    .sorted(Comparator.comparing(PdfDocumentCache::lastModified))
+                    .toList();
+        }
+        long total = 0;
+        for (Path file : files) {
+            total += Files.size(file);
+        }
+        for (Iterator<Path> it = files.iterator(); it.hasNext() && total > properties.getCacheDiskMaxBytes(); ) {
+            Path oldest = it.next();
+            total -= Files.size(oldest);
+            deleteQuietly(oldest);
+        }
+    }
+
+    /**
+     * Identifies the settings an entry was built with; entries from other settings are discarded.
+     */
+    private String settingsKey() {
+        return CHUNKER_VERSION + "/" + properties.getChunkSizeChars() + "/" + properties.getChunkOverlapChars()
+                + "/" + properties.getChunkBoundaryToleranceChars() + "/" + properties.getDirectInjectMaxChars()
+                + "/" + properties.getMaxExtractedChars();
+    }
+
+    private Path cacheDir() {
+        String dir = properties.getCacheDir();
+        return dir == null || dir.isBlank() ? null : Path.of(dir);
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException ex) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            log.warn("Could not delete {}", file, ex);
+        }
+    }
+
+    private static Counter resultCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("aura.pdf.cache")
+                .description("PDF extraction cache lookups by result")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    record StoredDocument(String chunking, String text, List<TextChunk> chunks) {
+    }
+}
@@ -0,0 +1,47 @@
+package com.aura.service.pdf;
+
+import com.aura.config.PdfChatProperties;
+import com.aura.service.pdf.PdfTextExtractor.SpooledPdf;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+public class PdfDocumentService {
+
+    private final PdfTextExtractor pdfTextExtractor;
+    private final TextChunker textChunker;
+    private final LexicalRetriever lexicalRetriever;
+    private final PdfDocumentCache documentCache;
+    private final PdfChatProperties properties;
+
+    /**
+     * Returns the extracted document for the upload, from the cache when the same bytes were seen before.
+     */
+    public PdfDocument load(MultipartFile file) {
+        SpooledPdf upload = pdfTextExtractor.spool(file);
+        PdfDocument cached;
+        try {
+            cached = documentCache.get(upload.sha256());
+        } catch (RuntimeException ex) {
+            upload.delete();
+            throw ex;
+        }
+        if (cached != null) {
+            upload.delete();
+            return cached;
+        }
+
+        String text = pdfTextExtractor.extractText(upload);
+        List<TextChunk> chunks = text.length() <= properties.getDirectInjectMaxChars()
+                ? List.of()
+                : textChunker.chunk(text, properties.getChunkSizeChars(), properties.getChunkOverlapChars(),
+                        properties.getChunkBoundaryToleranceChars());
+        PdfDocument document = new PdfDocument(upload.sha256(), text, chunks, lexicalRetriever.index(chunks));
+        documentCache.put(document);
+        return document;
+    }
+}
@@ -41,4 +41,35 @@ public class PdfPromptBuilder {
         prompt.append(userMessage == null ? "" : userMessage.trim());
         return prompt.toString();
     }
+
+    /**
+     * Builds a prompt grounded on session documents, kept within {@code maxChars} when positive.
+     */
+    public String buildSessionPrompt(String userMessage, List<String> fullTexts, List<ScoredChunk> selectedChunks,
+                                     int maxChars) {
+        String header = UNTRUSTED_INSTRUCTION.trim() + "\n\n[DOCUMENT]\n";
+        String footer = "\n[USER_MESSAGE]\n" + (userMessage == null ? "" : userMessage.trim());
+        int budget = maxChars > 0 ? maxChars - header.length() - footer.length() : Integer.MAX_VALUE;
+
+        StringBuilder excerpts = new StringBuilder();
+        for (ScoredChunk scored : selectedChunks) {
+            String excerpt = "Excerpt:\n" + scored.chunk().text().trim() + "\n";
+            if (excerpt.length() <= budget - excerpts.length()) {
+                excerpts.append(excerpt);
+            }
+        }
+        StringBuilder texts = new StringBuilder();
+        for (String text : fullTexts) {
+            if (text != null && !text.isBlank()) {
+                String block = text.trim() + "\n\n";
+                int room = budget - excerpts.length() - texts.length();
+                if (block.length() > room) {
+                    texts.append(block, 0, Math.max(0, room));
+                    break;
+                }
+                texts.append(block);
+            }
+        }
+        return header + texts + excerpts + footer;
+    }
 }
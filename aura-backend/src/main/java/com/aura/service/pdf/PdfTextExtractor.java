@@ -1,32 +1,95 @@
 package com.aura.service.pdf;
 
+import com.aura.client.RequestDeadline;
 import com.aura.config.PdfChatProperties;
+import com.aura.config.WorkerThreads;
 import com.aura.error.AuraErrorCode;
 import com.aura.error.AuraException;
+import com.aura.error.OverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.io.MemoryUsageSetting;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.text.PDFTextStripper;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
 import java.util.Locale;
 import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantLock;
 
+@Slf4j
 @Component
 @RequiredArgsConstructor
 public class PdfTextExtractor {
 
+    private static final long START_POLL_MILLIS = 50;
+
     private final PdfChatProperties properties;
-    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
-        Thread thread = new Thread(r, "pdf-text-extractor");
-        thread.setDaemon(true);
-        return thread;
-    });
+    private final WorkerThreads workerThreads;
+    private final MeterRegistry meterRegistry;
+    private ThreadPoolExecutor executor;
+    private ExecutorService rangeExecutor;
+    private Timer queueWaitTimer;
+    private Timer parseTimer;
+    private Counter rejectedCounter;
+
+    /**
+     * Sizes the parse pool to the cores, as parsing is CPU-bound, and bounds its queue.
+     */
+    @PostConstruct
+    public void start() {
+        int workers = properties.getParseWorkers() > 0
+                ? properties.getParseWorkers()
+                : Runtime.getRuntime().availableProcessors();
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, properties.getParseQueueCapacity())),
+                workerThreads.factory("pdf-text-extractor"));
+        rangeExecutor = workerThreads.bounded("pdf-page-range", rangeWorkers());
+        queueWaitTimer = Timer.builder("aura.pdf.queue.wait")
+                .description("Time an upload waited for a PDF parser thread")
+                .register(meterRegistry);
+        parseTimer = Timer.builder("aura.pdf.parse")
+                .description("Time spent parsing a PDF, excluding queue wait")
+                .register(meterRegistry);
+        rejectedCounter = Counter.builder("aura.pdf.rejected")
+                .description("PDF uploads rejected because the parser queue was full")
+                .register(meterRegistry);
+        Gauge.builder("aura.pdf.queue.depth", this, PdfTextExtractor::queuedCount)
+                .description("PDF uploads waiting for a parser thread")
+                .register(meterRegistry);
+    }
 
+    /**
+     * Validates and spools the upload, then extracts its text.
+     */
     public String extractText(MultipartFile file) {
+        return extractText(spool(file));
+    }
+
+    /**
+     * Validates the upload and spools it to a temporary file, hashing it on the way.
+     */
+    public SpooledPdf spool(MultipartFile file) {
         if (file == null || file.isEmpty()) {
             throw new AuraException(AuraErrorCode.INVALID_FILE_TYPE, "Empty file");
         }
@@ -41,29 +104,38 @@ public class PdfTextExtractor {
             throw new AuraException(AuraErrorCode.INVALID_FILE_TYPE, "Only PDF files are supported");
         }
 
-        byte[] data;
-        try {
-            data = file.getBytes();
-        } catch (IOException ex) {
-            throw new AuraException(AuraErrorCode.PDF_PARSE_FAILED, "Failed to read PDF");
-        }
-
-        if (!hasPdfHeader(data)) {
-            throw new AuraException(AuraErrorCode.INVALID_FILE_TYPE, "Invalid PDF header");
-        }
+        RequestDeadline.checkCurrent("PDF parsing");
+        return spoolHashed(file);
+    }
 
-        int timeoutSeconds = properties.getParseTimeoutSeconds();
-        if (timeoutSeconds <= 0) {
-            return clampText(parsePdf(data));
+    /**
+     * Extracts the text of a spooled upload and deletes its file once parsing is done.
+     */
+    public String extractText(SpooledPdf spooled) {
+        Path upload = spooled.path();
+        RequestDeadline deadline = RequestDeadline.current();
+        ParseJob job;
+        try {
+            RequestDeadline.checkCurrent("PDF parsing");
+            job = submit(upload);
+        } catch (RuntimeException ex) {
+            deleteQuietly(upload);
+            throw ex;
         }
-
-        Future<String> future = executor.submit(() -> parsePdf(data));
         try {
-            String text = future.get(timeoutSeconds, TimeUnit.SECONDS);
+            long startedAt = awaitStart(job, deadline);
+            String text = job.future().get(parseBudget(startedAt, deadline), TimeUnit.NANOSECONDS);
             return clampText(text);
         } catch (TimeoutException ex) {
-            future.cancel(true);
+            job.future().cancel(true);
+            executor.remove((Runnable) job.future());
+            job.documents().closeAll();
+            if (deadline != null && deadline.isExpired()) {
+                throw deadline.exceeded("PDF parsing");
+            }
             throw new AuraException(AuraErrorCode.PDF_PARSE_FAILED, "PDF parsing timed out");
+        } catch (CancellationException ex) {
+            throw new AuraException(AuraErrorCode.PDF_PARSE_FAILED, "PDF parsing was cancelled");
         } catch (ExecutionException ex) {
             Throwable cause = ex.getCause();
             if (cause instanceof AuraException auraException) {
@@ -71,18 +143,165 @@ public class PdfTextExtractor {
             }
             throw new AuraException(AuraErrorCode.PDF_PARSE_FAILED, "PDF parsing failed");
         } catch (InterruptedException ex) {
+            job.future().cancel(true);
+            job.documents().closeAll();
             Thread.currentThread().interrupt();
             throw new AuraException(AuraErrorCode.PDF_PARSE_FAILED, "PDF parsing interrupted");
+        } finally {
+            if (!job.started().isDone()) {
+                deleteQuietly(upload);
+            }
         }
     }
 
+    /**
+     * Returns the number of uploads waiting for a parser thread.
+     */
+    public int queuedCount() {
+        return executor == null ? 0 : executor.getQueue().size();
+    }
+
+    /**
+     * Queues the parse, rejecting it at once when every worker is busy and the queue is full.
+     */
+    private ParseJob submit(Path upload) {
+        long submittedAt = System.nanoTime();
+        CompletableFuture<Long> started = new CompletableFuture<>();
+        OpenDocuments documents = new OpenDocuments();
+        try {
+            Future<String> future = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                started.complete(startedAt);
+                queueWaitTimer.record(startedAt - submittedAt, TimeUnit.NANOSECONDS);
+                long parseStart = System.nanoTime();
+                try {
+                    return parsePdf(upload, documents);
+                } finally {
+                    parseTimer.record(System.nanoTime() - parseStart, TimeUnit.NANOSECONDS);
+                    deleteQuietly(upload);
+                }
+            });
+            return new ParseJob(future, started, documents);
+        } catch (RejectedExecutionException ex) {
+            rejectedCounter.increment();
+            throw new OverloadedException("PDF parser is busy", properties.getParseRetryAfterSeconds());
+        }
+    }
+
+    /**
+     * Waits for a worker to pick the job up, bounded only by the request deadline.
+     */
+    private long awaitStart(ParseJob job, RequestDeadline deadline)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        while (true) {
+            try {
+                return job.started().get(START_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException ex) {
+                if (job.future().isDone()) {
+                    job.future().get();
+                }
+                if (deadline != null && deadline.isExpired()) {
+                    throw ex;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the nanoseconds left for parsing under both the parse timeout and the request deadline.
+     */
+    private long parseBudget(long startedAt, RequestDeadline deadline) {
+        int timeoutSeconds = properties.getParseTimeoutSeconds();
+        Duration budget = timeoutSeconds > 0
+                ? Duration.ofSeconds(timeoutSeconds).minusNanos(System.nanoTime() - startedAt)
+                : Duration.ofNanos(Long.MAX_VALUE);
+        if (deadline != null && deadline.remaining().compareTo(budget) < 0) {
+            budget = deadline.remaining();
+        }
+        return Math.max(0L, budget.toNanos());
+    }
+
     @PreDestroy
-    void shutdown() {
-        executor.shutdownNow();
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        if (rangeExecutor != null) {
+            rangeExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Streams the upload to a temporary file through a SHA-256 digest, checking the {@code %PDF} header.
+     */
+    private SpooledPdf spoolHashed(MultipartFile file) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new AuraException(AuraErrorCode.INTERNAL_ERROR, "Failed to hash PDF");
+        }
+        Path upload;
+        try {
+            Path tempDir = tempDir();
+            upload = tempDir == null
+                    ? Files.createTempFile("aura-pdf-", ".pdf")
+                    : Files.createTempFile(tempDir, "aura-pdf-", ".pdf");
+        } catch (IOException ex) {
+            throw new AuraException(AuraErrorCode.PDF_PARSE_FAILED, "Failed to store PDF");
+        }
+        try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+            byte[] header = in.readNBytes(4);
+            if (!hasPdfHeader(header)) {
+                throw new AuraException(AuraErrorCode.INVALID_FILE_TYPE, "Invalid PDF header");
+            }
+            try (OutputStream out = Files.newOutputStream(upload)) {
+                out.write(header);
+                in.transferTo(out);
+            }
+            return new SpooledPdf(upload, HexFormat.of().formatHex(digest.digest()));
+        } catch (IOException ex) {
+            deleteQuietly(upload);
+            throw new AuraException(AuraErrorCode.PDF_PARSE_FAILED, "Failed to read PDF");
+        } catch (RuntimeException ex) {
+            deleteQuietly(upload);
+            throw ex;
+        }
+    }
+
+    /**
+     * Loads the document with at most {@code maxMainMemory} bytes buffered in the heap.
+     */
+    private PDDocument load(Path upload, long maxMainMemory) throws IOException {
+        MemoryUsageSetting memoryUsage = maxMainMemory > 0
+                ? MemoryUsageSetting.setupMixed(maxMainMemory)
+                : MemoryUsageSetting.setupTempFileOnly();
+        Path tempDir = tempDir();
+        if (tempDir != null) {
+            memoryUsage.setTempDir(tempDir.toFile());
+        }
+        try (InputStream in = Files.newInputStream(upload)) {
+            return PDDocument.load(in, memoryUsage);
+        }
+    }
+
+    private Path tempDir() {
+        String dir = properties.getTempDir();
+        return dir == null || dir.isBlank() ? null : Path.of(dir);
     }
 
-    private String parsePdf(byte[] data) {
-        try (PDDocument document = PDDocument.load(data)) {
+    private void deleteQuietly(Path upload) {
+        try {
+            Files.deleteIfExists(upload);
+        } catch (IOException ex) {
+            log.warn("Could not delete PDF upload {}", upload, ex);
+        }
+    }
+
+    String parsePdf(Path upload, OpenDocuments documents) {
+        PDDocument document = null;
+        try {
+            document = documents.add(load(upload, properties.getParseMaxMainMemoryBytes()));
             if (document.isEncrypted()) {
                 throw new AuraException(AuraErrorCode.PDF_ENCRYPTED, "Encrypted PDF is not supported");
             }
@@ -90,13 +309,80 @@ public class PdfTextExtractor {
             if (properties.getMaxPages() > 0 && pages > properties.getMaxPages()) {
                 throw new AuraException(AuraErrorCode.PDF_TOO_MANY_PAGES, "PDF has too many pages");
             }
-            PDFTextStripper stripper = new PDFTextStripper();
-            return stripper.getText(document);
+            List<PageRange> ranges = pageRanges(pages);
+            if (ranges.size() == 1) {
+                return new PDFTextStripper().getText(document);
+            }
+            return extractInParallel(document, upload, ranges, documents);
         } catch (IOException ex) {
             throw new AuraException(AuraErrorCode.PDF_PARSE_FAILED, "Failed to parse PDF");
+        } finally {
+            documents.release(document);
+        }
+    }
+
+    /**
+     * Splits large documents into one contiguous page range per range worker.
+     */
+    List<PageRange> pageRanges(int pages) {
+        int minPagesPerRange = Math.max(1, properties.getMinPagesPerRange());
+        int parts = Math.min(rangeWorkers(), pages / minPagesPerRange);
+        if (pages < properties.getParallelMinPages() || parts <= 1) {
+            return List.of(new PageRange(1, Math.max(1, pages)));
+        }
+        int size = (pages + parts - 1) / parts;
+        List<PageRange> ranges = new ArrayList<>(parts);
+        for (int start = 1; start <= pages; start += size) {
+            ranges.add(new PageRange(start, Math.min(pages, start + size - 1)));
+        }
+        return ranges;
+    }
+
+    /**
+     * Strips each range from its own copy of the document, since PDFBox documents are not thread-safe.
+     */
+    private String extractInParallel(PDDocument document, Path upload, List<PageRange> ranges,
+                                     OpenDocuments documents) throws IOException {
+        List<Future<String>> others = new ArrayList<>(ranges.size() - 1);
+        try {
+            for (PageRange range : ranges.subList(1, ranges.size())) {
+                others.add(rangeExecutor.submit(() -> {
+                    PDDocument copy = documents.add(load(upload, 0));
+                    try {
+                        return stripRange(copy, range);
+                    } finally {
+                        documents.release(copy);
+                    }
+                }));
+            }
+            StringBuilder text = new StringBuilder(stripRange(document, ranges.get(0)));
+            for (Future<String> other : others) {
+                text.append(other.get());
+            }
+            return text.toString();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new AuraException(AuraErrorCode.PDF_PARSE_FAILED, "PDF parsing interrupted");
+        } catch (ExecutionException ex) {
+            throw new AuraException(AuraErrorCode.PDF_PARSE_FAILED, "Failed to parse PDF");
+        } finally {
+            others.forEach(other -> other.cancel(true));
         }
     }
 
+    private String stripRange(PDDocument document, PageRange range) throws IOException {
+        PDFTextStripper stripper = new PDFTextStripper();
+        stripper.setStartPage(range.first());
+        stripper.setEndPage(range.last());
+        return stripper.getText(document);
+    }
+
+    private int rangeWorkers() {
+        return properties.getRangeWorkers() > 0
+                ? properties.getRangeWorkers()
+                : Runtime.getRuntime().availableProcessors();
+    }
+
     private boolean hasPdfHeader(byte[] data) {
         if (data == null || data.length < 4) {
             return false;
@@ -115,4 +401,94 @@ public class PdfTextExtractor {
         }
         return text;
     }
+
+    record PageRange(int first, int last) {
+    }
+
+    /**
+     * An upload copied to a temporary file, with the SHA-256 of its bytes.
+     */
+    public record SpooledPdf(Path path, String sha256) {
+
+        /**
+         * Deletes the file of an upload that will not be parsed.
+         */
+        public void delete() {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException ex) {
+                log.warn("Could not delete PDF upload {}", path, ex);
+            }
+        }
+    }
+
+    private record ParseJob(Future<String> future, CompletableFuture<Long> started, OpenDocuments documents) {
+    }
+
+    /**
+     * Documents open for one upload, closed under the parser to stop a parse that timed out.
+     */
+    static final class OpenDocuments {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final List<PDDocument> documents = new ArrayList<>();
+        private boolean abandoned;
+
+        /**
+         * Tracks the document, closing it at once if the upload was already abandoned.
+         */
+        PDDocument add(PDDocument document) throws IOException {
+            lock.lock();
+            try {
+                if (!abandoned) {
+                    documents.add(document);
+                    return document;
+                }
+            } finally {
+                lock.unlock();
+            }
+            document.close();
+            throw new IOException("PDF parsing was abandoned");
+        }
+
+        /**
+         * Closes a document the parser is done with.
+         */
+        void release(PDDocument document) {
+            if (document == null) {
+                return;
+            }
+            lock.lock();
+            try {
+                documents.remove(document);
+            } finally {
+                lock.unlock();
+            }
+            closeQuietly(document);
+        }
+
+        /**
+         * Closes every open document and any opened later.
+         */
+        void closeAll() {
+            List<PDDocument> open;
+            lock.lock();
+            try {
+                abandoned = true;
+                open = new ArrayList<>(documents);
+                documents.clear();
+            } finally {
+                lock.unlock();
+            }
+            open.forEach(OpenDocuments::closeQuietly);
+        }
+
+        private static void closeQuietly(PDDocument document) {
+            try {
+                document.close();
+            } catch (IOException | RuntimeException ex) {
+                log.debug("Could not close PDF document", ex);
+            }
+        }
+    }
 }
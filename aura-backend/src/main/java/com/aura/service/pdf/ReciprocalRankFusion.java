@@ -0,0 +1,57 @@
+package com.aura.service.pdf;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Merges chunk rankings by reciprocal rank fusion, scoring {@code sum(1 / (k + rank))}.
+ */
+final class ReciprocalRankFusion {
+
+    private ReciprocalRankFusion() {
+    }
+
+    /**
+     * Returns up to {@code topK} chunks by fused score, best first; ties go to the chunk earlier in the document.
+     */
+    static List<ScoredChunk> fuse(List<List<ScoredChunk>> rankings, int k, int topK) {
+        Map<Integer, TextChunk> chunks = new HashMap<>();
+        Map<Integer, Double> scores = new HashMap<>();
+        for (List<ScoredChunk> ranking : rankings) {
+            for (int rank = 0; rank < ranking.size(); rank++) {
+                TextChunk chunk = ranking.get(rank).chunk();
+                chunks.putIfAbsent(chunk.index(), chunk);
+                scores.merge(chunk.index(), 1.0 / (k + rank + 1), Double::sum);
+            }
+        }
+
+        List<ScoredChunk> fused = new ArrayList<>(scores.size());
+        scores.forEach((index, score) -> fused.add(new ScoredChunk(chunks.get(index), score)));
+        fused.sort((a, b) -> a.score() != b.score()
+                ? Double.compare(b.score(), a.score())
+                : Integer.compare(a.chunk().index(), b.chunk().index()));
+        return fused.size() > topK ? fused.subList(0, Math.max(0, topK)) : fused;
+    }
+
+    /**
+     * Merges rankings of different documents so each document's best chunk comes before any second best.
+     */
+    static List<ScoredChunk> interleave(List<List<ScoredChunk>> rankings, int k, int topK) {
+        List<ScoredChunk> merged = new ArrayList<>();
+        for (int rank = 0; merged.size() < topK; rank++) {
+            boolean ranked = false;
+            for (List<ScoredChunk> ranking : rankings) {
+                if (rank < ranking.size() && merged.size() < topK) {
+                    merged.add(new ScoredChunk(ranking.get(rank).chunk(), 1.0 / (k + rank + 1)));
+                    ranked = true;
+                }
+            }
+            if (!ranked) {
+                break;
+            }
+        }
+        return merged;
+    }
+}
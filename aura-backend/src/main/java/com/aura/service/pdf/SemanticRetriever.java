@@ -0,0 +1,141 @@
+package com.aura.service.pdf;
+
+import com.aura.client.RequestDeadline;
+import com.aura.config.OllamaProperties;
+import com.aura.config.PdfChatProperties;
+import com.aura.error.AuraErrorCode;
+import com.aura.error.AuraException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Ranks chunks by embedding similarity through per-document HNSW indexes kept in an LRU.
+ */
+@Component
+@RequiredArgsConstructor
+public class SemanticRetriever {
+
+    private final TextEmbedder textEmbedder;
+    private final OllamaProperties ollamaProperties;
+    private final PdfChatProperties properties;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, HnswIndex> indexes = new LinkedHashMap<>(16, 0.75f, true);
+    private final ConcurrentHashMap<String, CompletableFuture<HnswIndex>> building = new ConcurrentHashMap<>();
+    private long bytes;
+
+    /**
+     * Returns up to {@code topK} chunks by cosine similarity, dropping those below {@code minScore}.
+     */
+    public List<ScoredChunk> retrieveTopChunks(String query, PdfDocument document, int topK, double minScore) {
+        List<TextChunk> chunks = document.chunks();
+        if (chunks.isEmpty() || topK <= 0) {
+            return List.of();
+        }
+        HnswIndex index = index(document);
+        float[] vector = textEmbedder.embed(query);
+        int[] ids = new int[topK];
+        float[] similarities = new float[topK];
+        int found = index.search(vector, topK, properties.getHnswEfSearch(), ids, similarities);
+
+        List<ScoredChunk> results = new ArrayList<>(found);
+        for (int i = 0; i < found; i++) {
+            if (similarities[i] >= minScore) {
+                results.add(new ScoredChunk(chunks.get(ids[i]), similarities[i]));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Returns the document's vector index, building it once on a miss even under concurrent requests.
+     */
+    public HnswIndex index(PdfDocument document) {
+        String key = ollamaProperties.getEmbeddingModel() + ":" + document.sha256();
+        while (true) {
+            HnswIndex cached = cached(key);
+            if (cached != null) {
+                return cached;
+            }
+            CompletableFuture<HnswIndex> build = new CompletableFuture<>();
+            CompletableFuture<HnswIndex> existing = building.putIfAbsent(key, build);
+            if (existing == null) {
+                return build(key, document, build);
+            }
+            try {
+                return RequestDeadline.await(existing, "vector index build");
+            } catch (ExecutionException ex) {
+                if (!(ex.getCause() instanceof AuraException aura && aura.getCode() == AuraErrorCode.DEADLINE_EXCEEDED)) {
+                    throw ex.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(ex.getCause());
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new AuraException(AuraErrorCode.OLLAMA_UNREACHABLE, "Interrupted while waiting for a vector index");
+            }
+        }
+    }
+
+    /**
+     * Builds and caches the index, then forgets the build so a retry after failure starts a new one.
+     */
+    private HnswIndex build(String key, PdfDocument document, CompletableFuture<HnswIndex> build) {
+        try {
+            HnswIndex index = cached(key);
+            if (index == null) {
+                List<String> texts = new ArrayList<>(document.chunks().size());
+                for (TextChunk chunk : document.chunks()) {
+                    texts.add(chunk.text());
+                }
+                index = HnswIndex.build(textEmbedder.embed(texts),
+                        properties.getHnswM(), properties.getHnswEfConstruction());
+                put(key, index);
+            }
+            building.remove(key, build);
+            build.complete(index);
+            return index;
+        } catch (RuntimeException | Error ex) {
+            building.remove(key, build);
+            build.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    private HnswIndex cached(String key) {
+        lock.lock();
+        try {
+            return indexes.get(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void put(String key, HnswIndex index) {
+        long maxBytes = properties.getVectorIndexCacheMaxBytes();
+        if (index.estimatedBytes() > maxBytes) {
+            return;
+        }
+        lock.lock();
+        try {
+            HnswIndex previous = indexes.put(key, index);
+            if (previous != null) {
+                bytes -= previous.estimatedBytes();
+            }
+            bytes += index.estimatedBytes();
+            Iterator<HnswIndex> it = indexes.values().iterator();
+            while (it.hasNext() && bytes > maxBytes) {
+                bytes -= it.next().estimatedBytes();
+                it.remove();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
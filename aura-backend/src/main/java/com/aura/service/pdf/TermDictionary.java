@@ -0,0 +1,134 @@
+package com.aura.service.pdf;
+
+import java.util.Arrays;
+
+/**
+ * Interns lower-cased terms to dense int ids without allocating a String per token.
+ */
+final class TermDictionary {
+
+    private static final int INITIAL_TERMS = 64;
+
+    private char[] pool = new char[1024];
+    private int poolSize;
+    private int[] offsets = new int[INITIAL_TERMS];
+    private int[] lengths = new int[INITIAL_TERMS];
+    private int[] hashes = new int[INITIAL_TERMS];
+    private int[] slots = new int[INITIAL_TERMS * 2];
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the id of the term spanning {@code [start, end)} of the text, or -1 when it was never added.
+     */
+    int idOf(CharSequence text, int start, int end) {
+        int hash = hash(text, start, end);
+        int mask = slots.length - 1;
+        for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+            int id = slots[slot] - 1;
+            if (id < 0) {
+                return -1;
+            }
+            if (matches(id, hash, text, start, end)) {
+                return id;
+            }
+        }
+    }
+
+    int idOf(String term) {
+        return idOf(term, 0, term.length());
+    }
+
+    /**
+     * Returns the id of the term spanning {@code [start, end)} of the text, adding it when new.
+     */
+    int add(CharSequence text, int start, int end) {
+        int hash = hash(text, start, end);
+        int mask = slots.length - 1;
+        int slot = mix(hash) & mask;
+        for (; ; slot = (slot + 1) & mask) {
+            int id = slots[slot] - 1;
+            if (id < 0) {
+                break;
+            }
+            if (matches(id, hash, text, start, end)) {
+                return id;
+            }
+        }
+
+        int id = size++;
+        if (id == offsets.length) {
+            offsets = Arrays.copyOf(offsets, id * 2);
+            lengths = Arrays.copyOf(lengths, id * 2);
+            hashes = Arrays.copyOf(hashes, id * 2);
+        }
+        int length = end - start;
+        if (poolSize + length > pool.length) {
+            pool = Arrays.copyOf(pool, Math.max(pool.length * 2, poolSize + length));
+        }
+        for (int i = 0; i < length; i++) {
+            pool[poolSize + i] = TermScanner.fold(text.charAt(start + i));
+        }
+        offsets[id] = poolSize;
+        lengths[id] = length;
+        hashes[id] = hash;
+        poolSize += length;
+        slots[slot] = id + 1;
+        if (size * 2 > slots.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    String term(int id) {
+        return new String(pool, offsets[id], lengths[id]);
+    }
+
+    /**
+     * Approximates the heap held by the pool, the per-term arrays and the hash table.
+     */
+    long estimatedBytes() {
+        return 2L * pool.length + 12L * offsets.length + 4L * slots.length;
+    }
+
+    private boolean matches(int id, int hash, CharSequence text, int start, int end) {
+        if (hashes[id] != hash || lengths[id] != end - start) {
+            return false;
+        }
+        int offset = offsets[id];
+        for (int i = start; i < end; i++) {
+            if (pool[offset++] != TermScanner.fold(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        int mask = slots.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = mix(hashes[id]) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = id + 1;
+        }
+    }
+
+    private static int hash(CharSequence text, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + TermScanner.fold(text.charAt(i));
+        }
+        return hash;
+    }
+
+    private static int mix(int hash) {
+        int mixed = hash * 0x9E3779B9;
+        return mixed ^ (mixed >>> 16);
+    }
+}
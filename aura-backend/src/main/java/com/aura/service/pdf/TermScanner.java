@@ -0,0 +1,45 @@
+package com.aura.service.pdf;
+
+/**
+ * Finds terms, maximal runs of {@code a-z} and {@code 0-9} after lower-casing, without building substrings.
+ */
+final class TermScanner {
+
+    private TermScanner() {
+    }
+
+    /**
+     * Returns the index of the first term character at or after {@code from}, or -1 when there is none.
+     */
+    static int start(CharSequence text, int from) {
+        for (int i = from, n = text.length(); i < n; i++) {
+            if (isTermChar(fold(text.charAt(i)))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the index just past the term that begins at {@code start}.
+     */
+    static int end(CharSequence text, int start) {
+        int i = start;
+        int n = text.length();
+        while (i < n && isTermChar(fold(text.charAt(i)))) {
+            i++;
+        }
+        return i;
+    }
+
+    static char fold(char c) {
+        if (c < 128) {
+            return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        }
+        return Character.toLowerCase(c);
+    }
+
+    static boolean isTermChar(char folded) {
+        return (folded >= 'a' && folded <= 'z') || (folded >= '0' && folded <= '9');
+    }
+}
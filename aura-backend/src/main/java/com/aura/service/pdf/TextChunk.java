@@ -1,4 +1,11 @@
 package com.aura.service.pdf;
 
-public record TextChunk(int index, String text) {
+/**
+ * A chunk with its character offsets in the source text, or -1 when built without a source.
+ */
+public record TextChunk(int index, String text, int start, int end) {
+
+    public TextChunk(int index, String text) {
+        this(index, text, -1, -1);
+    }
 }
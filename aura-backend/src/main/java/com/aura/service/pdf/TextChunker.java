@@ -5,30 +5,129 @@ import org.springframework.stereotype.Component;
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Splits text into chunks ending at the latest paragraph, sentence or word break within the tolerance.
+ */
 @Component
 public class TextChunker {
 
-    public List<TextChunk> chunk(String text, int chunkSizeChars, int chunkOverlapChars) {
-        if (text == null || text.isBlank()) {
+    private static final int DEFAULT_TOLERANCE_DIVISOR = 5;
+
+    /**
+     * Chunks with a boundary tolerance of a fifth of the chunk size.
+     */
+    public List<TextChunk> chunk(CharSequence text, int chunkSizeChars, int chunkOverlapChars) {
+        return chunk(text, chunkSizeChars, chunkOverlapChars, Math.max(1, chunkSizeChars) / DEFAULT_TOLERANCE_DIVISOR);
+    }
+
+    public List<TextChunk> chunk(CharSequence text, int chunkSizeChars, int chunkOverlapChars, int boundaryToleranceChars) {
+        if (text == null) {
             return List.of();
         }
         int size = Math.max(1, chunkSizeChars);
         int overlap = Math.max(0, Math.min(chunkOverlapChars, size - 1));
+        int tolerance = Math.max(0, Math.min(boundaryToleranceChars, size - 1));
+        int length = text.length();
 
         List<TextChunk> chunks = new ArrayList<>();
-        int index = 0;
-        int start = 0;
-        while (start < text.length()) {
-            int end = Math.min(text.length(), start + size);
-            String slice = text.substring(start, end).trim();
-            if (!slice.isEmpty()) {
-                chunks.add(new TextChunk(index++, slice));
-            }
-            if (end == text.length()) {
+        int start = skipSpace(text, 0);
+        while (start < length) {
+            int limit = start + size;
+            int end = limit >= length ? length : boundary(text, start, limit, tolerance);
+            int trimmedEnd = end;
+            while (trimmedEnd > start && isSpace(text.charAt(trimmedEnd - 1))) {
+                trimmedEnd--;
+            }
+            if (trimmedEnd > start) {
+                chunks.add(new TextChunk(chunks.size(), text.subSequence(start, trimmedEnd).toString(), start, trimmedEnd));
+            }
+            if (end >= length) {
                 break;
             }
-            start = end - overlap;
+            start = skipSpace(text, nextStart(text, start, end, overlap));
         }
         return chunks;
     }
+
+    /**
+     * Returns where a chunk starting at {@code start} should end, at most {@code limit}.
+     */
+    private static int boundary(CharSequence text, int start, int limit, int tolerance) {
+        int floor = Math.max(start + 1, limit - tolerance);
+        int sentence = -1;
+        int word = -1;
+        for (int i = limit; i >= floor; i--) {
+            char c = text.charAt(i);
+            if (!isSpace(c)) {
+                continue;
+            }
+            if (c == '\n' && isParagraphBreak(text, i)) {
+                return i;
+            }
+            char previous = text.charAt(i - 1);
+            if (sentence < 0 && (previous == '.' || previous == '!' || previous == '?')) {
+                sentence = i;
+            }
+            if (word < 0) {
+                word = i;
+            }
+        }
+        if (sentence >= 0) {
+            return sentence;
+        }
+        return word >= 0 ? word : limit;
+    }
+
+    /**
+     * Returns true when the newline at {@code i} is followed by only spaces and tabs before another newline.
+     */
+    private static boolean isParagraphBreak(CharSequence text, int i) {
+        for (int j = i + 1, n = text.length(); j < n; j++) {
+            char c = text.charAt(j);
+            if (c == '\n') {
+                return true;
+            }
+            if (c != ' ' && c != '\t' && c != '\r') {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns where the next chunk starts within the overlap; always moves past {@code start}.
+     */
+    private static int nextStart(CharSequence text, int start, int end, int overlap) {
+        int from = Math.max(start + 1, end - overlap);
+        int word = -1;
+        for (int i = Math.max(from, 2); i < end; i++) {
+            if (isSpace(text.charAt(i)) || !isSpace(text.charAt(i - 1))) {
+                continue;
+            }
+            int previous = i - 1;
+            while (previous > start && isSpace(text.charAt(previous))) {
+                previous--;
+            }
+            char c = text.charAt(previous);
+            if (c == '.' || c == '!' || c == '?') {
+                return i;
+            }
+            if (word < 0) {
+                word = i;
+            }
+        }
+        return word >= 0 ? word : end;
+    }
+
+    private static int skipSpace(CharSequence text, int from) {
+        int i = from;
+        while (i < text.length() && isSpace(text.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isSpace(char c) {
+        return c <= ' ' || Character.isWhitespace(c);
+    }
 }
@@ -0,0 +1,61 @@
+package com.aura.service.pdf;
+
+import com.aura.client.OllamaClient;
+import com.aura.config.OllamaProperties;
+import com.aura.config.PdfChatProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+public class TextEmbedder {
+
+    private final OllamaClient ollamaClient;
+    private final EmbeddingCache embeddingCache;
+    private final OllamaProperties ollamaProperties;
+    private final PdfChatProperties properties;
+
+    /**
+     * Returns one vector per text, in order.
+     */
+    public List<float[]> embed(List<String> texts) {
+        String model = ollamaProperties.getEmbeddingModel();
+        float[][] vectors = new float[texts.size()][];
+        String[] keys = new String[texts.size()];
+        List<Integer> missing = new ArrayList<>();
+        for (int i = 0; i < texts.size(); i++) {
+            keys[i] = EmbeddingCache.key(model, texts.get(i));
+            vectors[i] = embeddingCache.get(keys[i]);
+            if (vectors[i] == null) {
+                missing.add(i);
+            }
+        }
+
+        int batchSize = Math.max(1, properties.getEmbeddingBatchSize());
+        for (int from = 0; from < missing.size(); from += batchSize) {
+            List<Integer> batch = missing.subList(from, Math.min(missing.size(), from + batchSize));
+            List<String> inputs = new ArrayList<>(batch.size());
+            for (int i : batch) {
+                inputs.add(texts.get(i));
+            }
+            List<float[]> embedded = ollamaClient.embed(inputs);
+            for (int j = 0; j < batch.size(); j++) {
+                int i = batch.get(j);
+                vectors[i] = embedded.get(j);
+                embeddingCache.put(keys[i], vectors[i]);
+            }
+        }
+        return Arrays.asList(vectors);
+    }
+
+    /**
+     * Returns the vector for a single text.
+     */
+    public float[] embed(String text) {
+        return embed(List.of(text)).get(0);
+    }
+}
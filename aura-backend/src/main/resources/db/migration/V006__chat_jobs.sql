@@ -0,0 +1,23 @@
+-- Asynchronous chat-with-file jobs, persisted so a poll served by any backend instance sees the outcome.
+CREATE TABLE IF NOT EXISTS chat_jobs (
+    id                   UUID PRIMARY KEY,
+    user_id              UUID        NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    status               VARCHAR(16) NOT NULL CHECK (status IN ('QUEUED','RUNNING','SUCCEEDED','FAILED')),
+    session_id           BIGINT,
+    user_message_id      BIGINT,
+    assistant_message_id BIGINT,
+    assistant_reply      TEXT,
+    replied_at           TIMESTAMPTZ,
+    new_session          BOOLEAN     NOT NULL DEFAULT FALSE,
+    error_code           VARCHAR(32),
+    error_message        TEXT,
+    created_at           TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    started_at           TIMESTAMPTZ,
+    finished_at          TIMESTAMPTZ
+);
+
+CREATE INDEX IF NOT EXISTS idx_chat_jobs_user_id
+    ON chat_jobs (user_id);
+
+CREATE INDEX IF NOT EXISTS idx_chat_jobs_status_created_at
+    ON chat_jobs (status, created_at);
@@ -0,0 +1,11 @@
+-- PDFs attached to a chat session, stored once so follow-up turns can retrieve from them without a re-upload.
+CREATE TABLE IF NOT EXISTS session_documents (
+    id             BIGSERIAL PRIMARY KEY,
+    session_id     BIGINT       NOT NULL REFERENCES chat_sessions(session_id) ON DELETE CASCADE,
+    sha256         VARCHAR(64)  NOT NULL,
+    filename       VARCHAR(255),
+    extracted_text TEXT         NOT NULL,
+    chunks_json    TEXT         NOT NULL,
+    created_at     TIMESTAMPTZ  NOT NULL DEFAULT NOW(),
+    CONSTRAINT uq_session_documents_session_sha UNIQUE (session_id, sha256)
+);
@@ -0,0 +1,196 @@
+package com.aura.client;
+
+import com.aura.client.OllamaClientTest.StubOllama;
+import com.aura.config.ChatProperties;
+import com.aura.config.LlmProperties;
+import com.aura.config.OllamaProperties;
+import com.aura.config.RestClientConfig;
+import com.aura.config.WorkerThreads;
+import com.aura.controller.ChatController;
+import com.aura.dto.ChatRequestDTO;
+import com.aura.dto.ChatResponseDTO;
+import com.aura.dto.OllamaDtos.ChatMessage;
+import com.aura.repository.SessionRepository;
+import com.aura.security.CurrentUserProvider;
+import com.aura.service.ChatJobService;
+import com.aura.service.ChatService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.ManagementWebSecurityAutoConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.flyway.FlywayAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.servlet.SecurityFilterAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.servlet.UserDetailsServiceAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.env.Environment;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Compares chat throughput over real HTTP with {@code spring.threads.virtual.enabled} off and on, with a stand-in
+ * {@link ChatService} that forwards to a stub Ollama; run with {@code mvn -Pperf test}.
+ */
+@Slf4j
+@Tag("perf")
+class ChatThroughputPerfTest {
+
+    private static final int CONCURRENT_REQUESTS = 800;
+    private static final int WARMUP_REQUESTS = 100;
+    private static final long OLLAMA_LATENCY_MS = 100;
+    private static final int TOMCAT_DEFAULT_THREADS = 200;
+
+    private StubOllama stub;
+    private HttpClient httpClient;
+    private ExecutorService clients;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        stub = new StubOllama("ok");
+        stub.delayMs = OLLAMA_LATENCY_MS;
+        clients = Executors.newVirtualThreadPerTaskExecutor();
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(clients)
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        clients.shutdownNow();
+        stub.stop();
+    }
+
+    @Test
+    @DisplayName("POST /api/chat: virtual threads keep more requests in flight than Tomcat's default pool could")
+    void virtualThreads_outperformDefaultTomcatPool() throws Exception {
+        double platform = measure(false);
+        double virtual = measure(true);
+
+        log.info("{} concurrent chats: platform {} req/s, virtual {} req/s", CONCURRENT_REQUESTS,
+                Math.round(platform), Math.round(virtual));
+        assertThat(virtual).isGreaterThan(TOMCAT_DEFAULT_THREADS * 1000.0 / OLLAMA_LATENCY_MS);
+        assertThat(virtual).isGreaterThan(0.8 * platform);
+    }
+
+    private double measure(boolean virtualThreads) throws Exception {
+        try (ServletWebServerApplicationContext context = (ServletWebServerApplicationContext)
+                new SpringApplicationBuilder(ChatApp.class)
+                        .web(WebApplicationType.SERVLET)
+                        .properties("server.port=0",
+                                "spring.threads.virtual.enabled=" + virtualThreads,
+                                "perf.ollama-url=" + stub.url())
+                        .run()) {
+            URI uri = URI.create("http://127.0.0.1:" + context.getWebServer().getPort() + "/api/chat");
+            String mode = virtualThreads ? "virtual" : "platform";
+            send(uri, mode + "-warmup", WARMUP_REQUESTS);
+            long started = System.nanoTime();
+            send(uri, mode, CONCURRENT_REQUESTS);
+            double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+            return CONCURRENT_REQUESTS / seconds;
+        }
+    }
+
+    /**
+     * Sends the requests all at once, each with a distinct message so none is deduplicated or cached.
+     */
+    private void send(URI uri, String prefix, int requests) throws Exception {
+        List<Future<HttpResponse<String>>> calls = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"message\":\"" + prefix + "-" + i + "\"}"))
+                    .build();
+            calls.add(clients.submit(() -> httpClient.send(request, HttpResponse.BodyHandlers.ofString())));
+        }
+        for (Future<HttpResponse<String>> call : calls) {
+            HttpResponse<String> response = call.get();
+            assertThat(response.statusCode()).isEqualTo(200);
+            assertThat(response.body()).contains("\"assistantReply\":\"ok\"");
+        }
+    }
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration(exclude = {DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class,
+            FlywayAutoConfiguration.class, SecurityAutoConfiguration.class, SecurityFilterAutoConfiguration.class,
+            UserDetailsServiceAutoConfiguration.class, ManagementWebSecurityAutoConfiguration.class})
+    @Import({ChatController.class, WorkerThreads.class})
+    static class ChatApp {
+
+        @Bean
+        ChatProperties chatProperties() {
+            return new ChatProperties();
+        }
+
+        @Bean
+        OllamaClient ollamaClient(Environment environment, MeterRegistry meterRegistry, ObjectMapper objectMapper,
+                                  WorkerThreads workerThreads) {
+            String url = environment.getRequiredProperty("perf.ollama-url");
+            OllamaProperties props = new OllamaProperties();
+            props.setModel("perf-model");
+            LlmProperties llmProperties = new LlmProperties();
+            llmProperties.setMaxConcurrency(CONCURRENT_REQUESTS);
+            llmProperties.setInteractiveMaxConcurrency(CONCURRENT_REQUESTS);
+            OllamaNodePool pool = new OllamaNodePool(
+                    List.of(new OllamaNode(url, RestClientConfig.ollamaRestClient(url, props))), 1);
+            return new OllamaClient(pool, new LlmRequestScheduler(llmProperties, meterRegistry),
+                    new LlmSingleFlight(meterRegistry), new LlmResponseCache(llmProperties, meterRegistry),
+                    new LlmCallMetrics(meterRegistry), props, objectMapper, workerThreads);
+        }
+
+        @Bean
+        ChatService chatService(OllamaClient ollamaClient) {
+            ChatService chatService = mock(ChatService.class, withSettings().stubOnly());
+            when(chatService.chat(any())).thenAnswer(invocation -> {
+                ChatRequestDTO request = invocation.getArgument(0);
+                String reply = ollamaClient.chatWithMessages(
+                        List.of(ChatMessage.builder().role("user").content(request.getMessage()).build()));
+                return ChatResponseDTO.builder().assistantReply(reply).build();
+            });
+            return chatService;
+        }
+
+        @Bean
+        SessionRepository sessionRepository() {
+            return mock(SessionRepository.class);
+        }
+
+        @Bean
+        CurrentUserProvider currentUserProvider() {
+            return mock(CurrentUserProvider.class);
+        }
+
+        @Bean
+        ChatJobService chatJobService() {
+            return mock(ChatJobService.class);
+        }
+    }
+}
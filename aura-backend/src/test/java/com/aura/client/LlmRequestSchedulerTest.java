@@ -0,0 +1,95 @@
+package com.aura.client;
+
+import com.aura.config.LlmProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LlmRequestSchedulerTest {
+
+    @Test
+    @DisplayName("run: a waiting interactive call takes the next free slot before an earlier background call")
+    void run_prefersInteractiveOverBackground() throws Exception {
+        LlmProperties properties = new LlmProperties();
+        properties.setMaxConcurrency(1);
+        LlmRequestScheduler scheduler = new LlmRequestScheduler(properties, new SimpleMeterRegistry());
+        List<String> order = new CopyOnWriteArrayList<>();
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() -> scheduler.run(LlmPriority.INTERACTIVE, () -> {
+            holding.countDown();
+            await(release);
+            return null;
+        }));
+        assertThat(holding.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<Void> background = CompletableFuture.runAsync(() ->
+                scheduler.run(LlmPriority.BACKGROUND, () -> order.add("background")));
+        waitUntil(() -> scheduler.waiting(LlmPriority.BACKGROUND) == 1);
+
+        CompletableFuture<Void> interactive = CompletableFuture.runAsync(() ->
+                scheduler.run(LlmPriority.INTERACTIVE, () -> order.add("interactive")));
+        waitUntil(() -> scheduler.waiting(LlmPriority.INTERACTIVE) == 1);
+
+        release.countDown();
+        CompletableFuture.allOf(first, background, interactive).get(5, TimeUnit.SECONDS);
+
+        assertThat(order).containsExactly("interactive", "background");
+        assertThat(scheduler.inFlight(LlmPriority.INTERACTIVE)).isZero();
+        assertThat(scheduler.inFlight(LlmPriority.BACKGROUND)).isZero();
+    }
+
+    @Test
+    @DisplayName("run: background calls are capped by their own lane limit")
+    void run_capsBackgroundLane() throws Exception {
+        LlmProperties properties = new LlmProperties();
+        properties.setMaxConcurrency(4);
+        properties.setBackgroundMaxConcurrency(1);
+        LlmRequestScheduler scheduler = new LlmRequestScheduler(properties, new SimpleMeterRegistry());
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() -> scheduler.run(LlmPriority.BACKGROUND, () -> {
+            holding.countDown();
+            await(release);
+            return null;
+        }));
+        assertThat(holding.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<Void> second = CompletableFuture.runAsync(() -> scheduler.run(LlmPriority.BACKGROUND, () -> null));
+        waitUntil(() -> scheduler.waiting(LlmPriority.BACKGROUND) == 1);
+        assertThat(scheduler.run(LlmPriority.INTERACTIVE, () -> "ok")).isEqualTo("ok");
+        assertThat(scheduler.inFlight(LlmPriority.BACKGROUND)).isEqualTo(1);
+
+        release.countDown();
+        CompletableFuture.allOf(first, second).get(5, TimeUnit.SECONDS);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Condition not met in time");
+            }
+            Thread.sleep(5);
+        }
+    }
+}
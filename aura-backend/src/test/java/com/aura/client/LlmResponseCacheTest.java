@@ -0,0 +1,96 @@
+package com.aura.client;
+
+import com.aura.config.LlmProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LlmResponseCacheTest {
+
+    @Test
+    @DisplayName("get: expires entries after the TTL")
+    void get_expiresAfterTtl() {
+        LlmProperties properties = new LlmProperties();
+        properties.setCacheTtlSeconds(60);
+        MutableClock clock = new MutableClock();
+        LlmResponseCache cache = new LlmResponseCache(properties, new SimpleMeterRegistry(), clock);
+
+        cache.put("k", "reply");
+        clock.advance(Duration.ofSeconds(59));
+        assertThat(cache.get("k")).isEqualTo("reply");
+
+        clock.advance(Duration.ofSeconds(1));
+        assertThat(cache.get("k")).isNull();
+        assertThat(cache.sizeInBytes()).isZero();
+    }
+
+    @Test
+    @DisplayName("put: evicts least recently used entries to stay within the entry and byte limits")
+    void put_evictsLeastRecentlyUsed() {
+        LlmProperties properties = new LlmProperties();
+        properties.setCacheMaxEntries(2);
+        LlmResponseCache cache = new LlmResponseCache(properties, new SimpleMeterRegistry(), new MutableClock());
+
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.get("a");
+        cache.put("c", "3");
+
+        assertThat(cache.get("a")).isEqualTo("1");
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("c")).isEqualTo("3");
+
+        properties.setCacheMaxBytes(150);
+        cache.put("d", "4");
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.sizeInBytes()).isLessThanOrEqualTo(properties.getCacheMaxBytes());
+        assertThat(cache.get("d")).isEqualTo("4");
+    }
+
+    @Test
+    @DisplayName("isCacheable: requires the cache to be enabled and a zero temperature or fixed seed")
+    void isCacheable_requiresDeterministicOptions() {
+        LlmProperties properties = new LlmProperties();
+        LlmResponseCache cache = new LlmResponseCache(properties, new SimpleMeterRegistry());
+
+        assertThat(cache.isCacheable(Map.of("temperature", 0))).isFalse();
+
+        properties.setCacheEnabled(true);
+        assertThat(cache.isCacheable(Map.of("temperature", 0))).isTrue();
+        assertThat(cache.isCacheable(Map.of("temperature", 0.8, "seed", 42))).isTrue();
+        assertThat(cache.isCacheable(Map.of("temperature", 0.8))).isFalse();
+        assertThat(cache.isCacheable(Map.of())).isFalse();
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,472 @@
+package com.aura.client;
+
+import com.aura.config.LlmProperties;
+import com.aura.config.OllamaProperties;
+import com.aura.config.RestClientConfig;
+import com.aura.config.WorkerThreads;
+import com.aura.dto.OllamaDtos.ChatMessage;
+import com.aura.error.AuraErrorCode;
+import com.aura.error.AuraException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OllamaClientTest {
+
+    private final List<StubOllama> stubs = new ArrayList<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void tearDown() {
+        stubs.forEach(StubOllama::stop);
+    }
+
+    @Test
+    @DisplayName("chatWithMessages: routes to the node with the fewest in-flight requests")
+    void chatWithMessages_routesToLeastBusyNode() throws Exception {
+        StubOllama slow = start("slow");
+        StubOllama fast = start("fast");
+        CountDownLatch release = new CountDownLatch(1);
+        slow.blockUntil = release;
+        OllamaNodePool pool = pool(slow, fast);
+        OllamaClient client = client(pool);
+
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> client.chatWithMessages(messages()));
+        assertThat(slow.received.await(5, TimeUnit.SECONDS)).isTrue();
+
+        String second = client.chatWithMessages(messages("Hi again"));
+        release.countDown();
+
+        assertThat(second).isEqualTo("fast");
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("slow");
+        assertThat(fast.chatCalls.get()).isEqualTo(1);
+        assertThat(slow.chatCalls.get()).isEqualTo(1);
+        assertThat(pool.nodes()).allMatch(node -> node.inFlight() == 0);
+    }
+
+    @Test
+    @DisplayName("chatWithMessages: ejects a failing node, fails over, and restores it after a health check")
+    void chatWithMessages_ejectsFailingNode_andRestoresIt() throws Exception {
+        StubOllama broken = start("broken");
+        StubOllama healthy = start("healthy");
+        broken.failing.set(true);
+        OllamaNodePool pool = pool(broken, healthy);
+        OllamaClient client = client(pool);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(client.chatWithMessages(messages())).isEqualTo("healthy");
+        }
+        OllamaNode brokenNode = pool.nodes().getFirst();
+        assertThat(brokenNode.isHealthy()).isFalse();
+        assertThat(broken.chatCalls.get()).isEqualTo(1);
+
+        pool.checkHealth();
+        assertThat(brokenNode.isHealthy()).isFalse();
+
+        broken.failing.set(false);
+        pool.checkHealth();
+        assertThat(brokenNode.isHealthy()).isTrue();
+    }
+
+    @Test
+    @DisplayName("chatWithMessages: an identical request in flight is joined instead of sent again")
+    void chatWithMessages_joinsIdenticalInFlightRequest() throws Exception {
+        StubOllama stub = start("shared");
+        CountDownLatch release = new CountDownLatch(1);
+        stub.blockUntil = release;
+        OllamaClient client = client(pool(stub));
+
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> client.chatWithMessages(messages()));
+        assertThat(stub.received.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> follower = CompletableFuture.supplyAsync(() -> client.chatWithMessages(messages()));
+        waitForCounter("hit", 1.0);
+        release.countDown();
+
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("shared");
+        assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("shared");
+        assertThat(stub.chatCalls.get()).isEqualTo(1);
+        assertThat(meterRegistry.get("aura.llm.singleflight").tag("result", "miss").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("chatWithMessages: reports the Ollama exchange time without the wait for a scheduler slot")
+    void chatWithMessages_callLatencyExcludesSchedulerWait() throws Exception {
+        StubOllama stub = start("ok");
+        CountDownLatch release = new CountDownLatch(1);
+        stub.blockUntil = release;
+        LlmProperties llmProperties = new LlmProperties();
+        llmProperties.setMaxConcurrency(1);
+        OllamaClient client = client(pool(stub), new OllamaProperties(), llmProperties);
+
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> client.chatWithMessages(messages("first")));
+        assertThat(stub.received.await(5, TimeUnit.SECONDS)).isTrue();
+        stub.blockUntil = null;
+        CompletableFuture.delayedExecutor(500, TimeUnit.MILLISECONDS).execute(release::countDown);
+
+        long started = System.nanoTime();
+        try (LlmCallLatency callLatency = LlmCallLatency.track()) {
+            assertThat(client.chatWithMessages(messages("second"))).isEqualTo("ok");
+            assertThat(Duration.ofNanos(System.nanoTime() - started)).isGreaterThanOrEqualTo(Duration.ofMillis(500));
+            assertThat(callLatency.latency()).isNotNull().isLessThan(Duration.ofMillis(400));
+        }
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("ok");
+    }
+
+    @Test
+    @DisplayName("chatWithMessages: a failed leader fails its followers and does not poison later requests")
+    void chatWithMessages_leaderFailure_isSharedThenForgotten() throws Exception {
+        StubOllama stub = start("recovered");
+        CountDownLatch release = new CountDownLatch(1);
+        stub.blockUntil = release;
+        stub.failAfterBlock.set(true);
+        OllamaClient client = client(pool(stub));
+
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> client.chatWithMessages(messages()));
+        assertThat(stub.received.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> follower = CompletableFuture.supplyAsync(() -> client.chatWithMessages(messages()));
+        waitForCounter("hit", 1.0);
+        release.countDown();
+
+        assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class);
+        assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class);
+        assertThat(stub.chatCalls.get()).isEqualTo(1);
+
+        stub.failAfterBlock.set(false);
+        stub.blockUntil = null;
+        assertThat(client.chatWithMessages(messages())).isEqualTo("recovered");
+        assertThat(stub.chatCalls.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("chatWithMessages: a follower retries as leader when the leader's client disconnects")
+    void chatWithMessages_followerTakesOverAfterLeaderDisconnect() throws Exception {
+        StubOllama stub = start("retried");
+        CountDownLatch release = new CountDownLatch(1);
+        stub.blockUntil = release;
+        OllamaClient client = client(pool(stub));
+        RequestDeadline leaderDeadline = RequestDeadline.after(Duration.ofSeconds(30));
+
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> {
+            try (RequestDeadline.Scope scope = leaderDeadline.attach()) {
+                return client.chatWithMessages(messages());
+            }
+        });
+        assertThat(stub.received.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> follower = CompletableFuture.supplyAsync(() -> client.chatWithMessages(messages()));
+        waitForCounter("hit", 1.0);
+        stub.blockUntil = null;
+        leaderDeadline.cancel();
+
+        assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasMessageContaining("Request cancelled");
+        assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("retried");
+        assertThat(stub.chatCalls.get()).isEqualTo(2);
+        assertThat(meterRegistry.get("aura.llm.singleflight").tag("result", "miss").counter().count()).isEqualTo(2.0);
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("chatWithMessages: a follower stops waiting for the leader when its own deadline passes")
+    void chatWithMessages_followerWaitIsBoundedByItsDeadline() throws Exception {
+        StubOllama stub = start("slow");
+        CountDownLatch release = new CountDownLatch(1);
+        stub.blockUntil = release;
+        OllamaClient client = client(pool(stub));
+
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> client.chatWithMessages(messages()));
+        assertThat(stub.received.await(5, TimeUnit.SECONDS)).isTrue();
+        long started = System.nanoTime();
+        try (RequestDeadline.Scope scope = RequestDeadline.after(Duration.ofMillis(200)).attach()) {
+            assertThatThrownBy(() -> client.chatWithMessages(messages()))
+                    .isInstanceOf(AuraException.class)
+                    .hasMessageContaining("during LLM call")
+                    .satisfies(ex -> assertThat(((AuraException) ex).getCode()).isEqualTo(AuraErrorCode.DEADLINE_EXCEEDED));
+        }
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(2));
+        release.countDown();
+
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("slow");
+        assertThat(stub.chatCalls.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("chatWithMessages: serves a repeated deterministic request from the cache and bypasses it otherwise")
+    void chatWithMessages_cachesOnlyDeterministicRequests() throws Exception {
+        StubOllama stub = start("cached");
+        LlmProperties llmProperties = new LlmProperties();
+        llmProperties.setCacheEnabled(true);
+        OllamaProperties props = new OllamaProperties();
+        props.setOptions(new LinkedHashMap<>(Map.of("temperature", 0)));
+        OllamaClient client = client(pool(stub), props, llmProperties);
+
+        assertThat(client.chatWithMessages(messages())).isEqualTo("cached");
+        assertThat(client.chatWithMessages(messages())).isEqualTo("cached");
+        assertThat(stub.chatCalls.get()).isEqualTo(1);
+
+        props.setOptions(new LinkedHashMap<>(Map.of("temperature", 0.7)));
+        client.chatWithMessages(messages());
+        client.chatWithMessages(messages());
+        assertThat(stub.chatCalls.get()).isEqualTo(3);
+        assertThat(meterRegistry.get("aura.llm.cache").tag("result", "bypass").counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("chatWithMessages: publishes Ollama timings and token counts tagged by model and call site")
+    void chatWithMessages_recordsOllamaTimings() throws Exception {
+        StubOllama stub = start("timed");
+        OllamaClient client = client(pool(stub));
+
+        client.chatWithMessages(messages(), LlmCallSite.MEMORY);
+
+        assertThat(meterRegistry.get("aura.llm.duration")
+                .tags("model", "test-model", "call_site", "memory", "phase", "total")
+                .timer().totalTime(TimeUnit.MILLISECONDS)).isEqualTo(5.0);
+        assertThat(meterRegistry.get("aura.llm.tokens")
+                .tags("call_site", "memory", "type", "completion")
+                .counter().count()).isEqualTo(7.0);
+        assertThat(meterRegistry.get("aura.llm.tokens")
+                .tags("call_site", "memory", "type", "prompt")
+                .counter().count()).isEqualTo(3.0);
+    }
+
+    @Test
+    @DisplayName("chatWithMessages: aborts the Ollama call and frees its slots when the request deadline passes")
+    void chatWithMessages_abortsWhenDeadlineExpires() throws Exception {
+        StubOllama stub = start("late");
+        stub.blockUntil = new CountDownLatch(1);
+        OllamaNodePool pool = pool(stub);
+        OllamaClient client = client(pool);
+
+        long started = System.nanoTime();
+        try (RequestDeadline.Scope scope = RequestDeadline.after(Duration.ofMillis(200)).attach()) {
+            assertThatThrownBy(() -> client.chatWithMessages(messages()))
+                    .isInstanceOf(AuraException.class)
+                    .satisfies(ex -> assertThat(((AuraException) ex).getCode()).isEqualTo(AuraErrorCode.DEADLINE_EXCEEDED));
+        }
+
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(2));
+        assertThat(pool.nodes().getFirst().inFlight()).isZero();
+        stub.blockUntil.countDown();
+    }
+
+    @Test
+    @DisplayName("chatWithMessages: ejects a node that never answers once a call to it runs out of time")
+    void chatWithMessages_ejectsNodeThatNeverAnswers() throws Exception {
+        StubOllama hung = start("hung");
+        StubOllama healthy = start("healthy");
+        hung.blockUntil = new CountDownLatch(1);
+        OllamaNodePool pool = pool(hung, healthy);
+        OllamaClient client = client(pool);
+
+        List<String> replies = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            try (RequestDeadline.Scope scope = RequestDeadline.after(Duration.ofMillis(300)).attach()) {
+                replies.add(client.chatWithMessages(messages("Hi " + i)));
+            } catch (AuraException ex) {
+                assertThat(ex.getCode()).isEqualTo(AuraErrorCode.DEADLINE_EXCEEDED);
+                replies.add("timeout");
+            }
+        }
+
+        assertThat(pool.nodes().getFirst().isHealthy()).isFalse();
+        assertThat(hung.chatCalls.get()).isEqualTo(1);
+        assertThat(replies).containsOnlyOnce("timeout").endsWith("healthy", "healthy");
+        assertThat(pool.nodes()).allMatch(node -> node.inFlight() == 0);
+        hung.blockUntil.countDown();
+    }
+
+    @Test
+    @DisplayName("chatWithMessages: cancelling the deadline aborts the call without counting it against the node")
+    void chatWithMessages_abortsWhenDeadlineCancelled() throws Exception {
+        StubOllama stub = start("late");
+        stub.blockUntil = new CountDownLatch(1);
+        OllamaNodePool pool = pool(stub);
+        OllamaClient client = client(pool);
+        RequestDeadline deadline = RequestDeadline.after(Duration.ofSeconds(30));
+
+        CompletableFuture<String> call = CompletableFuture.supplyAsync(() -> {
+            try (RequestDeadline.Scope scope = deadline.attach()) {
+                return client.chatWithMessages(messages());
+            }
+        });
+        assertThat(stub.received.await(5, TimeUnit.SECONDS)).isTrue();
+        deadline.cancel();
+
+        assertThatThrownBy(() -> call.get(2, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasMessageContaining("Request cancelled");
+        assertThat(pool.nodes().getFirst().isHealthy()).isTrue();
+        stub.blockUntil.countDown();
+    }
+
+    private void waitForCounter(String result, double expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("aura.llm.singleflight").tag("result", result).counter().count() < expected) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Counter " + result + " did not reach " + expected);
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    @DisplayName("embed: sends all inputs in one call and returns their vectors in order")
+    void embed_returnsVectorsInInputOrder() throws Exception {
+        try (StubEmbeddingServer server = new StubEmbeddingServer()) {
+            List<float[]> vectors = server.client(meterRegistry).embed(List.of("alpha beta", "gamma"));
+
+            assertThat(vectors).hasSize(2);
+            assertThat(vectors.get(0)).containsExactly(StubEmbeddingServer.embedding("alpha beta"));
+            assertThat(vectors.get(1)).containsExactly(StubEmbeddingServer.embedding("gamma"));
+            assertThat(server.batchSizes()).containsExactly(2);
+        }
+    }
+
+    private StubOllama start(String reply) throws IOException {
+        StubOllama stub = new StubOllama(reply);
+        stubs.add(stub);
+        return stub;
+    }
+
+    static OllamaNodePool pool(StubOllama... servers) {
+        List<OllamaNode> nodes = new ArrayList<>();
+        for (StubOllama server : servers) {
+            nodes.add(new OllamaNode(server.url(), RestClientConfig.ollamaRestClient(server.url(), new OllamaProperties())));
+        }
+        return new OllamaNodePool(nodes, 1);
+    }
+
+    private OllamaClient client(OllamaNodePool pool) {
+        return client(pool, new OllamaProperties(), new LlmProperties());
+    }
+
+    private OllamaClient client(OllamaNodePool pool, OllamaProperties props, LlmProperties llmProperties) {
+        props.setModel("test-model");
+        LlmRequestScheduler scheduler = new LlmRequestScheduler(llmProperties, meterRegistry);
+        OllamaClient client = new OllamaClient(pool, scheduler, new LlmSingleFlight(meterRegistry),
+                new LlmResponseCache(llmProperties, meterRegistry), new LlmCallMetrics(meterRegistry),
+                props, new ObjectMapper(), new WorkerThreads(false));
+        client.start();
+        return client;
+    }
+
+    private List<ChatMessage> messages() {
+        return messages("Hi");
+    }
+
+    private List<ChatMessage> messages(String content) {
+        return List.of(ChatMessage.builder().role("user").content(content).build());
+    }
+
+    /**
+     * Minimal Ollama stand-in answering /api/chat with a fixed reply, /api/generate with an empty completion,
+     * and /api/tags with an empty list.
+     */
+    static class StubOllama {
+        final HttpServer server;
+        final String reply;
+        final AtomicInteger chatCalls = new AtomicInteger();
+        final AtomicInteger generateCalls = new AtomicInteger();
+        final AtomicBoolean failing = new AtomicBoolean();
+        final AtomicBoolean failAfterBlock = new AtomicBoolean();
+        final CountDownLatch received = new CountDownLatch(1);
+        volatile CountDownLatch blockUntil;
+        volatile long delayMs;
+
+        StubOllama(String reply) throws IOException {
+            this.reply = reply;
+            this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            server.createContext("/api/chat", this::handleChat);
+            server.createContext("/api/generate", exchange -> {
+                exchange.getRequestBody().readAllBytes();
+                generateCalls.incrementAndGet();
+                CountDownLatch latch = blockUntil;
+                if (latch != null) {
+                    try {
+                        latch.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                respond(exchange, failing.get() ? 500 : 200, "{\"done\":true}");
+            });
+            server.createContext("/api/tags", exchange -> respond(exchange, failing.get() ? 500 : 200, "{\"models\":[]}"));
+            server.setExecutor(Executors.newCachedThreadPool());
+            server.start();
+        }
+
+        String url() {
+            return "http://127.0.0.1:" + server.getAddress().getPort();
+        }
+
+        void stop() {
+            server.stop(0);
+        }
+
+        private void handleChat(HttpExchange exchange) throws IOException {
+            exchange.getRequestBody().readAllBytes();
+            chatCalls.incrementAndGet();
+            received.countDown();
+            if (failing.get()) {
+                respond(exchange, 500, "{\"error\":\"down\"}");
+                return;
+            }
+            if (delayMs > 0) {
+                try {
+                    Thread.sleep(delayMs);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            CountDownLatch latch = blockUntil;
+            if (latch != null) {
+                try {
+                    latch.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (failAfterBlock.get()) {
+                respond(exchange, 400, "{\"error\":\"bad request\"}");
+                return;
+            }
+            respond(exchange, 200, "{\"message\":{\"role\":\"assistant\",\"content\":\"" + reply + "\"},\"done\":true,"
+                    + "\"total_duration\":5000000,\"load_duration\":1000000,\"prompt_eval_count\":3,"
+                    + "\"prompt_eval_duration\":2000000,\"eval_count\":7,\"eval_duration\":2000000}");
+        }
+
+        private void respond(HttpExchange exchange, int status, String body) throws IOException {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+}
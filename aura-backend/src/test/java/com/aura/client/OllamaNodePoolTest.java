@@ -0,0 +1,104 @@
+package com.aura.client;
+
+import com.aura.config.OllamaProperties;
+import com.aura.config.RestClientConfig;
+import com.aura.config.WorkerThreads;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OllamaNodePoolTest {
+
+    private final OllamaNode node = new OllamaNode("http://127.0.0.1:1", null);
+    private final OllamaNodePool pool = new OllamaNodePool(List.of(node), 3);
+
+    @Test
+    @DisplayName("release: ejects a node only after consecutive failures, and a success resets the count")
+    void release_ejectsAfterConsecutiveFailures() {
+        fail(2);
+        succeed();
+        fail(2);
+        assertThat(node.isHealthy()).isTrue();
+
+        fail(1);
+        assertThat(node.isHealthy()).isFalse();
+    }
+
+    @Test
+    @DisplayName("checkHealth: probes ejected nodes in parallel with the short probe timeout")
+    void checkHealth_probesInParallelWithShortTimeout() throws IOException {
+        OllamaProperties props = new OllamaProperties();
+        props.setHealthCheckTimeoutMs(300);
+        CountDownLatch release = new CountDownLatch(1);
+        HttpServer hung = server(exchange -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange);
+        });
+        HttpServer answering = server(OllamaNodePoolTest::respond);
+        try {
+            List<OllamaNode> nodes = new ArrayList<>();
+            for (HttpServer server : List.of(hung, hung, hung, answering)) {
+                String url = "http://127.0.0.1:" + server.getAddress().getPort();
+                nodes.add(new OllamaNode(url, RestClientConfig.ollamaRestClient(url, props),
+                        RestClientConfig.ollamaProbeClient(url, props)));
+            }
+            OllamaNodePool probed = new OllamaNodePool(nodes, 1, new WorkerThreads(false).unbounded("ollama-health"));
+            for (OllamaNode each : nodes) {
+                each.markHealthy(false);
+            }
+
+            long started = System.nanoTime();
+            probed.checkHealth();
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            probed.shutdown();
+
+            assertThat(elapsedMs).isLessThan(800);
+            assertThat(nodes).extracting(OllamaNode::isHealthy).containsExactly(false, false, false, true);
+        } finally {
+            release.countDown();
+            hung.stop(0);
+            answering.stop(0);
+        }
+    }
+
+    private static HttpServer server(HttpHandler tags) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/tags", tags);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        return server;
+    }
+
+    private static void respond(HttpExchange exchange) throws IOException {
+        byte[] body = "{\"models\":[]}".getBytes();
+        exchange.sendResponseHeaders(200, body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+
+    private void fail(int times) {
+        for (int i = 0; i < times; i++) {
+            pool.release(pool.acquire(), false);
+        }
+    }
+
+    private void succeed() {
+        pool.release(pool.acquire(), true);
+    }
+}
@@ -0,0 +1,116 @@
+package com.aura.client;
+
+import com.aura.client.OllamaClientTest.StubOllama;
+import com.aura.config.OllamaProperties;
+import com.aura.config.WorkerThreads;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Status;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OllamaWarmupTest {
+
+    private final List<StubOllama> stubs = new ArrayList<>();
+    private final List<OllamaWarmup> warmups = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        warmups.forEach(OllamaWarmup::shutdown);
+        stubs.forEach(StubOllama::stop);
+    }
+
+    @Test
+    @DisplayName("warmColdNodes: readiness stays out of service until an endpoint has loaded the model")
+    void warmColdNodes_reportsReadyOnceAnEndpointIsWarm() throws IOException {
+        StubOllama cold = start();
+        StubOllama warm = start();
+        cold.failing.set(true);
+        OllamaWarmup warmup = warmup(OllamaClientTest.pool(cold, warm));
+
+        assertThat(warmup.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+
+        warmup.loadColdNodes().join();
+        assertThat(warmup.health().getStatus()).isEqualTo(Status.UP);
+        assertThat(warmup.warmCount()).isEqualTo(1);
+
+        cold.failing.set(false);
+        warmup.loadColdNodes().join();
+        warmup.loadColdNodes().join();
+        assertThat(warmup.warmCount()).isEqualTo(2);
+        assertThat(cold.generateCalls.get()).isEqualTo(2);
+        assertThat(warm.generateCalls.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("refreshResidency: pings idle endpoints only while other endpoints see traffic")
+    void refreshResidency_pingsIdleEndpointsDuringTraffic() throws IOException {
+        StubOllama first = start();
+        StubOllama second = start();
+        OllamaNodePool pool = OllamaClientTest.pool(first, second);
+        OllamaWarmup warmup = warmup(pool);
+        warmup.loadColdNodes().join();
+
+        OllamaNode busy = pool.acquire();
+        pool.release(busy, true);
+        warmup.refreshIdleNodes().join();
+
+        StubOllama busyStub = busy.baseUrl().equals(first.url()) ? first : second;
+        StubOllama idleStub = busyStub == first ? second : first;
+        assertThat(busyStub.generateCalls.get()).isEqualTo(1);
+        assertThat(idleStub.generateCalls.get()).isEqualTo(2);
+
+        warmup.refreshIdleNodes().join();
+        assertThat(idleStub.generateCalls.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("warmColdNodes: returns while a load is in flight and does not start it twice")
+    void warmColdNodes_doesNotBlockTheScheduler() throws Exception {
+        StubOllama slow = start();
+        CountDownLatch release = new CountDownLatch(1);
+        slow.blockUntil = release;
+        OllamaWarmup warmup = warmup(OllamaClientTest.pool(slow));
+
+        long started = System.nanoTime();
+        warmup.warmColdNodes();
+        warmup.warmColdNodes();
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(2));
+        assertThat(warmup.warmCount()).isZero();
+
+        release.countDown();
+        warmup.loadColdNodes().get(5, TimeUnit.SECONDS);
+        for (int i = 0; i < 100 && warmup.warmCount() == 0; i++) {
+            Thread.sleep(20);
+        }
+        assertThat(warmup.warmCount()).isEqualTo(1);
+        assertThat(slow.generateCalls.get()).isEqualTo(1);
+    }
+
+    private OllamaWarmup warmup(OllamaNodePool pool) {
+        OllamaWarmup warmup = new OllamaWarmup(pool, properties(), new WorkerThreads(false));
+        warmup.start();
+        warmups.add(warmup);
+        return warmup;
+    }
+
+    private StubOllama start() throws IOException {
+        StubOllama stub = new StubOllama("ok");
+        stubs.add(stub);
+        return stub;
+    }
+
+    private OllamaProperties properties() {
+        OllamaProperties props = new OllamaProperties();
+        props.setModel("test-model");
+        return props;
+    }
+}
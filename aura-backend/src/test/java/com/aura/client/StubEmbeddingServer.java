@@ -0,0 +1,151 @@
+package com.aura.client;
+
+import com.aura.config.LlmProperties;
+import com.aura.config.OllamaProperties;
+import com.aura.config.RestClientConfig;
+import com.aura.config.WorkerThreads;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Offline stand-in for Ollama's {@code /api/embed}, embedding each input as a hashed bag of synonym-folded words.
+ */
+public final class StubEmbeddingServer implements AutoCloseable {
+
+    public static final int DIMENSION = 256;
+
+    private static final String NUMBER = "<number>";
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "at", "be", "by", "do", "does", "for", "has", "have", "how", "i", "if", "in",
+            "is", "it", "its", "of", "on", "or", "our", "should", "that", "the", "their", "this", "to", "was",
+            "what", "when", "where", "which", "who");
+    private static final Map<String, String> SYNONYMS = Map.ofEntries(
+            Map.entry("automobile", "car"),
+            Map.entry("vehicle", "car"),
+            Map.entry("repaired", "fixed"),
+            Map.entry("mended", "fixed"),
+            Map.entry("invoice", "bill"),
+            Map.entry("payment", "bill"),
+            Map.entry("lorry", "truck"),
+            Map.entry("tires", "tyres"),
+            Map.entry("client", "customer"),
+            Map.entry("clients", "customers"),
+            Map.entry("settle", "pay"),
+            Map.entry("penalty", "fee"),
+            Map.entry("fees", "fee"),
+            Map.entry("forgiven", "waived"),
+            Map.entry("employees", "staff"),
+            Map.entry("notebook", "laptop"),
+            Map.entry("display", "screen"),
+            Map.entry("secure", "lock"),
+            Map.entry("mail", "email"),
+            Map.entry("emails", "email"),
+            Map.entry("forward", "report"),
+            Map.entry("reported", "report"));
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpServer server;
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean failing = new AtomicBoolean();
+
+    public StubEmbeddingServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/embed", this::handleEmbed);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    /**
+     * Returns a started client whose only node is this server.
+     */
+    public OllamaClient client(MeterRegistry meterRegistry) {
+        String url = "http://127.0.0.1:" + server.getAddress().getPort();
+        OllamaProperties props = new OllamaProperties();
+        props.setModel("test-model");
+        props.setEmbeddingModel("test-embed");
+        OllamaNodePool pool = new OllamaNodePool(
+                List.of(new OllamaNode(url, RestClientConfig.ollamaRestClient(url, props))), 1);
+        LlmProperties llmProperties = new LlmProperties();
+        OllamaClient client = new OllamaClient(pool, new LlmRequestScheduler(llmProperties, meterRegistry),
+                new LlmSingleFlight(meterRegistry), new LlmResponseCache(llmProperties, meterRegistry),
+                new LlmCallMetrics(meterRegistry), props, objectMapper, new WorkerThreads(false));
+        client.start();
+        return client;
+    }
+
+    /**
+     * Sizes of the {@code input} lists received so far, one per call.
+     */
+    public List<Integer> batchSizes() {
+        return batchSizes;
+    }
+
+    public void setFailing(boolean failing) {
+        this.failing.set(failing);
+    }
+
+    /**
+     * Embeds the text the way the server does.
+     */
+    public static float[] embedding(String text) {
+        float[] vector = new float[DIMENSION];
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^a-z0-9]+")) {
+            if (!word.isEmpty() && !STOP_WORDS.contains(word)) {
+                String canonical = word.chars().anyMatch(Character::isDigit) ? NUMBER : SYNONYMS.getOrDefault(word, word);
+                vector[Math.floorMod(canonical.hashCode() * 0x9E3779B9, DIMENSION)] += 1f;
+            }
+        }
+        return vector;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handleEmbed(HttpExchange exchange) throws IOException {
+        JsonNode request = objectMapper.readTree(exchange.getRequestBody());
+        if (failing.get()) {
+            respond(exchange, 500, "{\"error\":\"down\"}");
+            return;
+        }
+        JsonNode input = request.path("input");
+        batchSizes.add(input.size());
+        ObjectNode response = objectMapper.createObjectNode();
+        response.put("model", request.path("model").asText());
+        ArrayNode embeddings = response.putArray("embeddings");
+        for (JsonNode text : input) {
+            ArrayNode vector = embeddings.addArray();
+            for (float value : embedding(text.asText())) {
+                vector.add(value);
+            }
+        }
+        respond(exchange, 200, objectMapper.writeValueAsString(response));
+    }
+
+    private void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.aura.config;
+
+import com.aura.client.LlmPriority;
+import com.aura.client.LlmRequestScheduler;
+import com.aura.service.FairShareAdmission;
+import com.aura.service.pdf.PdfTextExtractor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.consumer.RecordingStream;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.postgresql.util.DriverInfo;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Guards the virtual-thread mode against carrier pinning: a virtual thread blocking inside a
+ * {@code synchronized} block holds its carrier, so a handful of them can stall every request.
+ */
+class VirtualThreadPinningTest {
+
+    private static final Pattern SYNCHRONIZED = Pattern.compile("\\bsynchronized\\b");
+    private static final Pattern COMMENTS_AND_STRINGS =
+            Pattern.compile("//[^\\n]*|/\\*.*?\\*/|\"(?:\\\\.|[^\"\\\\])*\"|'(?:\\\\.|[^'\\\\])'", Pattern.DOTALL);
+
+    @Test
+    @DisplayName("main sources coordinate threads with java.util.concurrent locks, never synchronized")
+    void mainSources_doNotUseSynchronized() throws IOException {
+        try (Stream<Path> files = Files.walk(Path.of("src/main/java"))) {
+            List<Path> offenders = files
+                    .filter(path -> path.toString().endsWith(".java"))
+                    .filter(path -> SYNCHRONIZED.matcher(code(read(path))).find())
+                    .toList();
+            assertThat(offenders).isEmpty();
+        }
+    }
+
+    @Test
+    @DisplayName("the PostgreSQL driver is a release that guards its connection state with ReentrantLock")
+    void postgresDriver_isVirtualThreadFriendly() {
+        assertThat(DriverInfo.MAJOR_VERSION * 100 + DriverInfo.MINOR_VERSION).isGreaterThanOrEqualTo(4206);
+    }
+
+    @Test
+    @DisplayName("contended admission, scheduler waits and PDF parsing do not pin virtual threads to their carriers")
+    void contendedWaits_doNotPinCarriers() throws Exception {
+        Map<String, AtomicInteger> pinned = new ConcurrentHashMap<>();
+        try (RecordingStream recording = new RecordingStream()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO);
+            recording.onEvent("jdk.VirtualThreadPinned", event -> {
+                String name = event.getThread() == null ? "" : event.getThread().getJavaName();
+                pinned.computeIfAbsent(name.replaceAll("-\\d+$", ""), key -> new AtomicInteger()).incrementAndGet();
+            });
+            recording.startAsync();
+
+            runOnVirtualThreads("control", 1, () -> {
+                Object monitor = new Object();
+                synchronized (monitor) {
+                    sleep(20);
+                }
+            });
+
+            ChatProperties chatProperties = new ChatProperties();
+            chatProperties.setMaxConcurrentChats(2);
+            FairShareAdmission admission = new FairShareAdmission(chatProperties, new SimpleMeterRegistry());
+            runOnVirtualThreads("admission", 32, () -> {
+                try (FairShareAdmission.Permit permit = admission.acquire(UUID.randomUUID(), 1)) {
+                    sleep(5);
+                }
+            });
+
+            LlmProperties llmProperties = new LlmProperties();
+            llmProperties.setMaxConcurrency(2);
+            LlmRequestScheduler scheduler = new LlmRequestScheduler(llmProperties, new SimpleMeterRegistry());
+            runOnVirtualThreads("scheduler", 32, () -> scheduler.run(LlmPriority.INTERACTIVE, () -> {
+                sleep(5);
+                return null;
+            }));
+
+            PdfTextExtractor extractor = new PdfTextExtractor(new PdfChatProperties(), new WorkerThreads(true),
+                    new SimpleMeterRegistry());
+            extractor.start();
+            MockMultipartFile pdf = new MockMultipartFile("file", "doc.pdf", "application/pdf", samplePdf());
+            try {
+                runOnVirtualThreads("pdf", 8, () -> assertThat(extractor.extractText(pdf)).contains("virtual"));
+            } finally {
+                extractor.shutdown();
+            }
+
+            recording.stop();
+        }
+
+        assumeTrue(pinned.containsKey("control"), "this JVM does not pin virtual threads on monitors");
+        assertThat(pinned).containsOnlyKeys("control");
+    }
+
+    private static void runOnVirtualThreads(String name, int tasks, Runnable task) throws Exception {
+        try (ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 1).factory())) {
+            List<Future<?>> futures = Stream.<Future<?>>generate(() -> executor.submit(task)).limit(tasks).toList();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+    }
+
+    private static byte[] samplePdf() throws IOException {
+        try (PDDocument document = new PDDocument(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            PDPage page = new PDPage();
+            document.addPage(page);
+            try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                content.beginText();
+                content.setFont(PDType1Font.HELVETICA, 12);
+                content.newLineAtOffset(72, 720);
+                content.showText("Parsed on virtual threads");
+                content.endText();
+            }
+            document.save(out);
+            return out.toByteArray();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Blanks out comments and string and char literals, so only {@code synchronized} blocks and modifiers count.
+     */
+    private static String code(String source) {
+        return COMMENTS_AND_STRINGS.matcher(source).replaceAll(" ");
+    }
+
+    private static String read(Path path) {
+        try {
+            return Files.readString(path);
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -1,10 +1,18 @@
 package com.aura.controller;
 
+import com.aura.client.RequestDeadline;
+import com.aura.config.ChatProperties;
+import com.aura.config.WorkerThreads;
+import com.aura.dto.ChatJobDTO;
 import com.aura.dto.ChatResponseDTO;
+import com.aura.error.OverloadedException;
 import com.aura.repository.SessionRepository;
 import com.aura.security.CurrentUserProvider;
 import com.aura.security.JwtService;
+import com.aura.service.ChatJobService;
 import com.aura.service.ChatService;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.PDPageContentStream;
@@ -15,27 +23,42 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockAsyncContext;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(ChatController.class)
 @AutoConfigureMockMvc(addFilters = false)
+@Import(WorkerThreads.class)
 class ChatControllerTest {
 
+    private static final long ASYNC_WAIT_MILLIS = 5000;
+
     @Autowired
     MockMvc mockMvc;
 
@@ -51,6 +74,12 @@ class ChatControllerTest {
     @MockBean
     JwtService jwtService;
 
+    @MockBean
+    ChatProperties chatProperties;
+
+    @MockBean
+    ChatJobService chatJobService;
+
     @Test
     @DisplayName("POST /api/chat/with-file accepts multipart PDF and returns response")
     void chatWithFile_acceptsMultipartPdf() throws Exception {
@@ -71,11 +100,15 @@ class ChatControllerTest {
         MockMultipartFile file = new MockMultipartFile(
                 "file", "doc.pdf", MediaType.APPLICATION_PDF_VALUE, samplePdfBytes("Hello"));
 
-        mockMvc.perform(multipart("/api/chat/with-file")
+        MvcResult pending = mockMvc.perform(multipart("/api/chat/with-file")
                         .file(message)
                         .file(sessionId)
                         .file(file)
                 )
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        pending.getAsyncResult(ASYNC_WAIT_MILLIS);
+        mockMvc.perform(asyncDispatch(pending))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.sessionId").value(10))
                 .andExpect(jsonPath("$.assistantReply").value("OK"));
@@ -83,6 +116,94 @@ class ChatControllerTest {
         verify(chatService).chatWithFile(eq(10L), eq("Hello"), any());
     }
 
+    @Test
+    @DisplayName("POST /api/chat returns 503 with Retry-After when the request is shed")
+    void chat_returnsServiceUnavailable_whenShed() throws Exception {
+        when(chatService.chat(any())).thenThrow(new OverloadedException("busy", 3));
+
+        MvcResult pending = mockMvc.perform(post("/api/chat")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"message\":\"Hi\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        pending.getAsyncResult(ASYNC_WAIT_MILLIS);
+        mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "3"))
+                .andExpect(jsonPath("$.code").value("OVERLOADED"));
+    }
+
+    @Test
+    @DisplayName("POST /api/chat cancels the request deadline when the client goes away")
+    void chat_cancelsDeadline_whenClientDisconnects() throws Exception {
+        when(chatProperties.getRequestTimeoutSeconds()).thenReturn(60L);
+        CompletableFuture<RequestDeadline> running = new CompletableFuture<>();
+        when(chatService.chat(any())).thenAnswer(inv -> {
+            RequestDeadline deadline = RequestDeadline.current();
+            running.complete(deadline);
+            for (int i = 0; i < 500 && !deadline.isCancelled(); i++) {
+                Thread.sleep(10);
+            }
+            throw deadline.exceeded("Ollama call");
+        });
+
+        MvcResult pending = mockMvc.perform(post("/api/chat")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"message\":\"Hi\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        RequestDeadline deadline = running.get(5, TimeUnit.SECONDS);
+        assertThat(deadline.isCancelled()).isFalse();
+
+        MockAsyncContext async = (MockAsyncContext) pending.getRequest().getAsyncContext();
+        for (AsyncListener listener : async.getListeners()) {
+            listener.onError(new AsyncEvent(async, new IOException("Broken pipe")));
+        }
+
+        assertThat(deadline.isCancelled()).isTrue();
+    }
+
+    @Test
+    @DisplayName("POST /api/chat/with-file/async returns 202 with the job location")
+    void submitChatWithFile_returnsAccepted() throws Exception {
+        UUID jobId = UUID.randomUUID();
+        when(chatJobService.submitWithFile(eq(10L), eq("Hello"), any())).thenReturn(ChatJobDTO.builder()
+                .jobId(jobId)
+                .status("QUEUED")
+                .build());
+
+        mockMvc.perform(multipart("/api/chat/with-file/async")
+                        .file(new MockMultipartFile("message", "", MediaType.TEXT_PLAIN_VALUE,
+                                "Hello".getBytes(StandardCharsets.UTF_8)))
+                        .file(new MockMultipartFile("sessionId", "", MediaType.TEXT_PLAIN_VALUE,
+                                "10".getBytes(StandardCharsets.UTF_8)))
+                        .file(new MockMultipartFile("file", "doc.pdf", MediaType.APPLICATION_PDF_VALUE,
+                                samplePdfBytes("Hello"))))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/chat/jobs/" + jobId))
+                .andExpect(jsonPath("$.status").value("QUEUED"));
+    }
+
+    @Test
+    @DisplayName("GET /api/chat/jobs/{id} passes the requested wait to the job service and answers when it completes")
+    void getJob_returnsJob() throws Exception {
+        UUID jobId = UUID.randomUUID();
+        CompletableFuture<ChatJobDTO> job = new CompletableFuture<>();
+        when(chatJobService.get(jobId, 5L)).thenReturn(job);
+
+        MvcResult pending = mockMvc.perform(get("/api/chat/jobs/" + jobId).param("waitSeconds", "5"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        job.complete(ChatJobDTO.builder()
+                .jobId(jobId)
+                .status("SUCCEEDED")
+                .result(ChatResponseDTO.builder().sessionId(10L).assistantReply("OK").build())
+                .build());
+        mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result.assistantReply").value("OK"));
+    }
+
     private byte[] samplePdfBytes(String text) throws IOException {
         try (PDDocument document = new PDDocument()) {
             PDPage page = new PDPage();
@@ -0,0 +1,132 @@
+package com.aura.service;
+
+import com.aura.config.ChatProperties;
+import com.aura.error.OverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    ChatProperties properties;
+    SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ChatProperties();
+        properties.setLimitInitial(2);
+        properties.setLimitMin(1);
+        properties.setLimitMax(4);
+        properties.setLimitLatencyTargetMs(1000);
+        properties.setLimitBackoffRatio(0.5);
+        properties.setShedRetryAfterSeconds(5);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    @DisplayName("acquire: sheds requests over the limit with a retry hint and counts them")
+    void acquire_shedsOverLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, meterRegistry);
+        AdaptiveConcurrencyLimiter.Permit first = limiter.acquire();
+        AdaptiveConcurrencyLimiter.Permit second = limiter.acquire();
+
+        assertThatThrownBy(limiter::acquire)
+                .isInstanceOf(OverloadedException.class)
+                .satisfies(ex -> assertThat(((OverloadedException) ex).getRetryAfterSeconds()).isEqualTo(5));
+        assertThat(meterRegistry.get("aura.chat.limit.shed").counter().count()).isEqualTo(1.0);
+
+        first.close();
+        second.close();
+        assertThat(limiter.inFlightCount()).isZero();
+        assertThat(limiter.acquire()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("close: grows the limit while latency is under target and cuts it when calls are slow or dropped")
+    void close_adjustsLimitFromLatency() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, meterRegistry);
+
+        for (int round = 0; round < 10; round++) {
+            List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+            for (int i = 0; i < limiter.currentLimit(); i++) {
+                permits.add(limiter.acquire());
+            }
+            for (AdaptiveConcurrencyLimiter.Permit permit : permits) {
+                permit.recordLatency(Duration.ofMillis(100));
+                permit.close();
+            }
+        }
+        assertThat(limiter.currentLimit()).isEqualTo(4);
+        assertThat(meterRegistry.get("aura.chat.limit").gauge().value()).isEqualTo(4.0);
+
+        try (AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire()) {
+            permit.recordLatency(Duration.ofSeconds(5));
+        }
+        assertThat(limiter.currentLimit()).isEqualTo(2);
+
+        try (AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire()) {
+            permit.recordDropped();
+        }
+        assertThat(limiter.currentLimit()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("close: without a configured target, backs off on latencies well above the baseline")
+    void close_derivesTargetFromObservedLatency() {
+        properties.setLimitLatencyTargetMs(0);
+        properties.setLimitLatencyTolerance(1.5);
+        properties.setLimitInitial(4);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, meterRegistry);
+
+        try (AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire()) {
+            permit.recordLatency(Duration.ofSeconds(60));
+        }
+        assertThat(limiter.currentLimit()).isEqualTo(4);
+        assertThat(limiter.latencyTarget()).isZero();
+
+        for (int i = 1; i < AdaptiveConcurrencyLimiter.MIN_TARGET_SAMPLES * 2; i++) {
+            try (AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire()) {
+                permit.recordLatency(Duration.ofMillis(100 + i % 10));
+            }
+        }
+        assertThat(limiter.currentLimit()).isEqualTo(4);
+        assertThat(limiter.latencyTarget()).isBetween(Duration.ofMillis(145), Duration.ofMillis(160));
+
+        try (AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire()) {
+            permit.recordLatency(Duration.ofMillis(400));
+        }
+        assertThat(limiter.currentLimit()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("close: sustained overload does not raise the derived target")
+    void close_keepsTargetUnderSustainedOverload() {
+        properties.setLimitLatencyTargetMs(0);
+        properties.setLimitLatencyTolerance(1.5);
+        properties.setLimitInitial(4);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, meterRegistry);
+        for (int i = 0; i < AdaptiveConcurrencyLimiter.MIN_TARGET_SAMPLES; i++) {
+            try (AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire()) {
+                permit.recordLatency(Duration.ofMillis(100));
+            }
+        }
+        assertThat(limiter.latencyTarget()).isEqualTo(Duration.ofMillis(150));
+
+        for (int i = 0; i < 300; i++) {
+            try (AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire()) {
+                permit.recordLatency(Duration.ofMillis(400));
+            }
+        }
+
+        assertThat(limiter.latencyTarget()).isLessThan(Duration.ofMillis(200));
+        assertThat(limiter.currentLimit()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,91 @@
+package com.aura.service;
+
+import com.aura.config.AuraContextProperties;
+import com.aura.config.AuraContextProperties.ContextMode;
+import com.aura.domain.MessageAuthor;
+import com.aura.domain.MessageEntity;
+import com.aura.domain.SessionEntity;
+import com.aura.dto.OllamaDtos.ChatMessage;
+import com.aura.repository.MessageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ChatContextServiceTest {
+
+    @Mock MessageRepository messageRepository;
+    @Mock MemoryJsonValidator memoryJsonValidator;
+
+    AuraContextProperties contextProperties;
+    ChatContextService chatContextService;
+    SessionEntity session;
+    List<MessageEntity> stored;
+
+    @BeforeEach
+    void setUp() {
+        contextProperties = new AuraContextProperties();
+        contextProperties.setContextMode(ContextMode.PREFIX_STABLE);
+        contextProperties.setWindowSizeMessages(4);
+        contextProperties.setHistoryBlockMessages(4);
+        chatContextService = new ChatContextService(messageRepository, contextProperties, memoryJsonValidator);
+        session = SessionEntity.builder().id(1L).memoryJson("{\"facts\":[]}").build();
+        stored = new ArrayList<>();
+        when(memoryJsonValidator.isValid(any())).thenReturn(true);
+        when(messageRepository.countBySession(session)).thenAnswer(inv -> (long) stored.size());
+        when(messageRepository.findBySessionOrderByIdDesc(eq(session), any(Pageable.class))).thenAnswer(inv -> {
+            Pageable page = inv.getArgument(1);
+            List<MessageEntity> desc = new ArrayList<>(stored);
+            Collections.reverse(desc);
+            return desc.subList(0, Math.min(page.getPageSize(), desc.size()));
+        });
+    }
+
+    @Test
+    @DisplayName("buildContextMessages: prefix-stable mode keeps the window start fixed until a whole block can be dropped")
+    void buildContextMessages_prefixStable_keepsPrefixAcrossTurns() {
+        List<List<String>> prompts = new ArrayList<>();
+        for (int turn = 0; turn < 5; turn++) {
+            MessageEntity current = save(MessageAuthor.USER, "question " + turn);
+            prompts.add(contents(chatContextService.buildContextMessages(session, current, "SYS")));
+            save(MessageAuthor.ASSISTANT, "answer " + turn);
+        }
+
+        for (int turn = 1; turn < 4; turn++) {
+            List<String> previous = prompts.get(turn - 1);
+            List<String> stablePrefix = previous.subList(0, previous.size() - 2);
+            assertThat(prompts.get(turn).subList(0, stablePrefix.size())).isEqualTo(stablePrefix);
+        }
+        assertThat(prompts.get(3)).hasSize(9).startsWith("SYS", "question 0");
+        assertThat(prompts.get(4)).containsExactly(
+                "SYS", "question 2", "answer 2", "question 3", "answer 3", "[MEMORY_JSON]\n{\"facts\":[]}", "question 4");
+    }
+
+    private MessageEntity save(MessageAuthor author, String content) {
+        MessageEntity message = MessageEntity.builder()
+                .id((long) stored.size() + 1)
+                .author(author)
+                .content(content)
+                .session(session)
+                .build();
+        stored.add(message);
+        return message;
+    }
+
+    private List<String> contents(List<ChatMessage> messages) {
+        return messages.stream().map(ChatMessage::getContent).toList();
+    }
+}
@@ -0,0 +1,297 @@
+package com.aura.service;
+
+import com.aura.client.RequestDeadline;
+import com.aura.config.ChatProperties;
+import com.aura.config.PdfChatProperties;
+import com.aura.config.WorkerThreads;
+import com.aura.domain.ChatJobEntity;
+import com.aura.domain.ChatJobStatus;
+import com.aura.domain.UserEntity;
+import com.aura.domain.UserRole;
+import com.aura.dto.ChatJobDTO;
+import com.aura.dto.ChatResponseDTO;
+import com.aura.error.AuraErrorCode;
+import com.aura.error.AuraException;
+import com.aura.error.OverloadedException;
+import com.aura.repository.ChatJobRepository;
+import com.aura.security.AuthenticatedUser;
+import com.aura.security.CurrentUserProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ChatJobServiceTest {
+
+    @Mock ChatJobRepository chatJobRepository;
+    @Mock ChatService chatService;
+    @Mock CurrentUserProvider currentUserProvider;
+
+    ChatProperties chatProperties;
+    PdfChatProperties pdfChatProperties;
+    AdaptiveConcurrencyLimiter limiter;
+    ChatJobService service;
+    AuthenticatedUser principal;
+    Map<UUID, ChatJobEntity> jobs;
+
+    @BeforeEach
+    void setUp() {
+        chatProperties = new ChatProperties();
+        chatProperties.setJobWorkers(1);
+        chatProperties.setJobQueueCapacity(1);
+        pdfChatProperties = new PdfChatProperties();
+        startService();
+
+        UUID userId = UUID.randomUUID();
+        principal = new AuthenticatedUser(userId, "user@example.com", UserRole.USER);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+        jobs = new ConcurrentHashMap<>();
+        when(currentUserProvider.require()).thenReturn(principal);
+        when(currentUserProvider.requireEntity()).thenReturn(UserEntity.builder().id(userId).build());
+        when(chatJobRepository.save(any(ChatJobEntity.class))).thenAnswer(inv -> {
+            ChatJobEntity job = inv.getArgument(0);
+            job.setId(UUID.randomUUID());
+            job.setCreatedAt(Instant.now());
+            jobs.put(job.getId(), job);
+            return job;
+        });
+        when(chatJobRepository.findById(any())).thenAnswer(inv -> Optional.ofNullable(jobs.get(inv.<UUID>getArgument(0))));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("submitWithFile: runs the job as the submitting user and stores the reply for pollers")
+    void submitWithFile_runsJobAndStoresReply() throws Exception {
+        AtomicReference<Object> runAs = new AtomicReference<>();
+        AtomicReference<String> uploaded = new AtomicReference<>();
+        AtomicReference<RequestDeadline> deadline = new AtomicReference<>();
+        when(chatService.chatWithFile(any(), eq(10L), eq("Summarize"), any())).thenAnswer(inv -> {
+            runAs.set(SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+            MultipartFile file = inv.getArgument(3);
+            uploaded.set(new String(file.getBytes(), StandardCharsets.UTF_8));
+            deadline.set(RequestDeadline.current());
+            return ChatResponseDTO.builder()
+                    .sessionId(10L)
+                    .userMessageId(1L)
+                    .assistantMessageId(2L)
+                    .assistantReply("Done")
+                    .timestamp(Instant.now())
+                    .build();
+        });
+
+        ChatJobDTO submitted = service.submitWithFile(10L, "Summarize", pdf("%PDF-1.4 body"));
+        assertThat(submitted.getStatus()).isEqualTo("QUEUED");
+        waitUntil(() -> jobs.get(submitted.getJobId()).getStatus() == ChatJobStatus.SUCCEEDED);
+
+        when(chatJobRepository.findByIdAndUser_Id(submitted.getJobId(), principal.id()))
+                .thenReturn(Optional.of(jobs.get(submitted.getJobId())));
+        ChatJobDTO polled = service.get(submitted.getJobId(), 0).join();
+
+        assertThat(polled.getResult().getAssistantReply()).isEqualTo("Done");
+        assertThat(polled.getResult().getSessionId()).isEqualTo(10L);
+        assertThat(runAs.get()).isEqualTo(principal);
+        assertThat(uploaded.get()).isEqualTo("%PDF-1.4 body");
+        assertThat(deadline.get()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("submitWithFile: records the error code when the chat fails")
+    void submitWithFile_recordsFailure() throws Exception {
+        when(chatService.chatWithFile(any(), isNull(), eq("Summarize"), any()))
+                .thenThrow(new AuraException(AuraErrorCode.PDF_ENCRYPTED, "Encrypted PDF"));
+
+        ChatJobDTO submitted = service.submitWithFile(null, "Summarize", pdf("%PDF-1.4 body"));
+        waitUntil(() -> jobs.get(submitted.getJobId()).getStatus() == ChatJobStatus.FAILED);
+
+        ChatJobEntity job = jobs.get(submitted.getJobId());
+        assertThat(job.getErrorCode()).isEqualTo("PDF_ENCRYPTED");
+        assertThat(job.getFinishedAt()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("submitWithFile: sheds the job and removes its row when the queue is full")
+    void submitWithFile_shedsWhenQueueFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(chatService.chatWithFile(any(), any(), any(), any())).thenAnswer(inv -> {
+            release.await(5, TimeUnit.SECONDS);
+            return ChatResponseDTO.builder().sessionId(1L).assistantReply("ok").build();
+        });
+
+        ChatJobDTO running = service.submitWithFile(null, "one", null);
+        waitUntil(() -> jobs.get(running.getJobId()).getStatus() == ChatJobStatus.RUNNING);
+        ChatJobDTO queued = service.submitWithFile(null, "two", null);
+
+        assertThatThrownBy(() -> service.submitWithFile(null, "three", null))
+                .isInstanceOf(OverloadedException.class);
+        UUID shed = jobs.values().stream()
+                .filter(job -> !job.getId().equals(running.getJobId()) && !job.getId().equals(queued.getJobId()))
+                .findFirst().orElseThrow().getId();
+        verify(chatJobRepository).deleteById(shed);
+
+        release.countDown();
+        waitUntil(() -> jobs.get(queued.getJobId()).getStatus() == ChatJobStatus.SUCCEEDED);
+    }
+
+    @Test
+    @DisplayName("submitWithFile: an accepted job holds its concurrency slot until it finishes")
+    void submitWithFile_holdsConcurrencySlotUntilJobFinishes() throws Exception {
+        chatProperties.setLimitInitial(1);
+        chatProperties.setLimitMin(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<AdaptiveConcurrencyLimiter.Permit> admission = new AtomicReference<>();
+        when(chatService.chatWithFile(any(), any(), any(), any())).thenAnswer(inv -> {
+            admission.set(inv.getArgument(0));
+            release.await(5, TimeUnit.SECONDS);
+            return ChatResponseDTO.builder().sessionId(1L).assistantReply("ok").build();
+        });
+        service.shutdown();
+        startService();
+
+        ChatJobDTO running = service.submitWithFile(null, "one", null);
+        waitUntil(() -> admission.get() != null);
+        assertThat(limiter.inFlightCount()).isEqualTo(1);
+        assertThatThrownBy(() -> service.submitWithFile(null, "two", null))
+                .isInstanceOf(OverloadedException.class);
+
+        release.countDown();
+        waitUntil(() -> jobs.get(running.getJobId()).getStatus() == ChatJobStatus.SUCCEEDED);
+        waitUntil(() -> limiter.inFlightCount() == 0);
+        assertThat(jobs).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("shutdown: fails jobs that never ran and deletes their staged uploads")
+    void shutdown_discardsQueuedJobs(@TempDir Path tempDir) throws Exception {
+        pdfChatProperties.setTempDir(tempDir.toString());
+        CountDownLatch release = new CountDownLatch(1);
+        when(chatService.chatWithFile(any(), any(), any(), any())).thenAnswer(inv -> {
+            release.await(5, TimeUnit.SECONDS);
+            return ChatResponseDTO.builder().sessionId(1L).assistantReply("ok").build();
+        });
+
+        ChatJobDTO running = service.submitWithFile(null, "one", pdf("%PDF-1.4 one"));
+        waitUntil(() -> jobs.get(running.getJobId()).getStatus() == ChatJobStatus.RUNNING);
+        ChatJobDTO queued = service.submitWithFile(null, "two", pdf("%PDF-1.4 two"));
+        try (Stream<Path> staged = Files.list(tempDir)) {
+            assertThat(staged).hasSize(2);
+        }
+
+        service.shutdown();
+
+        ChatJobEntity discarded = jobs.get(queued.getJobId());
+        assertThat(discarded.getStatus()).isEqualTo(ChatJobStatus.FAILED);
+        assertThat(discarded.getErrorCode()).isEqualTo("INTERNAL_ERROR");
+        waitUntil(() -> limiter.inFlightCount() == 0);
+        try (Stream<Path> staged = Files.list(tempDir)) {
+            assertThat(staged).isEmpty();
+        }
+    }
+
+    @Test
+    @DisplayName("get: a long poll completes without a thread as soon as the job finishes on this instance")
+    void get_longPollCompletesWhenLocalJobFinishes() throws Exception {
+        chatProperties.setJobPollIntervalMs(60_000);
+        CountDownLatch release = new CountDownLatch(1);
+        when(chatService.chatWithFile(any(), any(), any(), any())).thenAnswer(inv -> {
+            release.await(5, TimeUnit.SECONDS);
+            return ChatResponseDTO.builder().sessionId(3L).assistantReply("Later").build();
+        });
+        when(chatJobRepository.findByIdAndUser_Id(any(), eq(principal.id())))
+                .thenAnswer(inv -> Optional.ofNullable(jobs.get(inv.<UUID>getArgument(0))));
+
+        ChatJobDTO submitted = service.submitWithFile(null, "Summarize", null);
+        CompletableFuture<ChatJobDTO> polled = service.get(submitted.getJobId(), 20);
+        assertThat(polled).isNotDone();
+
+        release.countDown();
+        ChatJobDTO job = polled.get(5, TimeUnit.SECONDS);
+        assertThat(job.getStatus()).isEqualTo("SUCCEEDED");
+        assertThat(job.getResult().getAssistantReply()).isEqualTo("Later");
+    }
+
+    @Test
+    @DisplayName("get: a long poll returns the unfinished job once the wait is over")
+    void get_longPollReturnsUnfinishedJobAfterWait() throws Exception {
+        chatProperties.setJobPollIntervalMs(50);
+        chatProperties.setJobMaxWaitSeconds(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(chatService.chatWithFile(any(), any(), any(), any())).thenAnswer(inv -> {
+            release.await(5, TimeUnit.SECONDS);
+            return ChatResponseDTO.builder().sessionId(3L).assistantReply("Later").build();
+        });
+        when(chatJobRepository.findByIdAndUser_Id(any(), eq(principal.id())))
+                .thenAnswer(inv -> Optional.ofNullable(jobs.get(inv.<UUID>getArgument(0))));
+
+        ChatJobDTO submitted = service.submitWithFile(null, "Summarize", null);
+        long started = System.nanoTime();
+        ChatJobDTO job = service.get(submitted.getJobId(), 30).get(5, TimeUnit.SECONDS);
+
+        assertThat(job.getStatus()).isIn("QUEUED", "RUNNING");
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)).isBetween(900L, 3000L);
+        release.countDown();
+        waitUntil(() -> jobs.get(submitted.getJobId()).getStatus() == ChatJobStatus.SUCCEEDED);
+    }
+
+    private void startService() {
+        limiter = new AdaptiveConcurrencyLimiter(chatProperties, new SimpleMeterRegistry());
+        service = new ChatJobService(chatJobRepository, chatService, currentUserProvider, chatProperties,
+                pdfChatProperties, limiter, new TransactionTemplate(new ChatServiceTest.RecordingTransactionManager()),
+                new WorkerThreads(false));
+        service.start();
+    }
+
+    private static MockMultipartFile pdf(String content) {
+        return new MockMultipartFile("file", "doc.pdf", "application/pdf", content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Condition not met in time");
+            }
+            Thread.sleep(5);
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.aura.service;
 
+import com.aura.client.LlmCallSite;
 import com.aura.client.OllamaClient;
 import com.aura.config.AuraContextProperties;
+import com.aura.config.ChatProperties;
 import com.aura.config.OllamaProperties;
 import com.aura.config.PdfChatProperties;
 import com.aura.domain.MessageAuthor;
@@ -19,12 +21,15 @@ import com.aura.repository.MessageRepository;
 import com.aura.repository.SessionRepository;
 import com.aura.security.AuthenticatedUser;
 import com.aura.security.CurrentUserProvider;
+import com.aura.service.pdf.DocumentIndex;
+import com.aura.service.pdf.DocumentRetriever;
 import com.aura.service.pdf.LexicalRetriever;
+import com.aura.service.pdf.PdfDocument;
+import com.aura.service.pdf.PdfDocumentService;
 import com.aura.service.pdf.PdfPromptBuilder;
-import com.aura.service.pdf.PdfTextExtractor;
 import com.aura.service.pdf.ScoredChunk;
 import com.aura.service.pdf.TextChunk;
-import com.aura.service.pdf.TextChunker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -37,12 +42,18 @@ import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -60,12 +71,21 @@ class ChatServiceTest {
     @Mock CurrentUserProvider currentUserProvider;
     @Mock AuraContextProperties contextProperties;
     @Mock ChatContextService chatContextService;
-    @Mock MemoryUpdateService memoryUpdateService;
-    @Mock PdfTextExtractor pdfTextExtractor;
-    @Mock TextChunker textChunker;
-    @Mock LexicalRetriever lexicalRetriever;
+    @Mock SessionMemoryUpdater sessionMemoryUpdater;
+    @Mock PdfDocumentService pdfDocumentService;
+    @Mock SessionDocumentService sessionDocumentService;
+    @Mock DocumentRetriever documentRetriever;
     @Spy PdfPromptBuilder pdfPromptBuilder = new PdfPromptBuilder();
     @Spy PdfChatProperties pdfChatProperties = new PdfChatProperties();
+    @Spy ChatProperties chatProperties = new ChatProperties();
+    @Mock FairShareAdmission fairShareAdmission;
+    @Spy ChatStageMetrics stageMetrics = new ChatStageMetrics(new SimpleMeterRegistry());
+    @Spy PromptCacheMetrics promptCacheMetrics =
+            new PromptCacheMetrics(new AuraContextProperties(), new SimpleMeterRegistry());
+    @Spy AdaptiveConcurrencyLimiter concurrencyLimiter =
+            new AdaptiveConcurrencyLimiter(new ChatProperties(), new SimpleMeterRegistry());
+    RecordingTransactionManager transactionManager = new RecordingTransactionManager();
+    @Spy TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
 
     @InjectMocks ChatService chatService;
 
@@ -101,7 +121,7 @@ class ChatServiceTest {
         );
         when(chatContextService.buildContextMessages(eq(persistedSession), any(MessageEntity.class), eq("SYS")))
                 .thenReturn(contextMessages);
-        when(ollamaClient.chatWithMessages(contextMessages)).thenReturn("Hello from Ollama");
+        when(ollamaClient.chatWithMessages(contextMessages, LlmCallSite.CHAT)).thenReturn("Hello from Ollama");
 
         when(messageRepository.save(any(MessageEntity.class))).thenAnswer(inv -> {
             MessageEntity in = inv.getArgument(0);
@@ -127,10 +147,103 @@ class ChatServiceTest {
         InOrder order = inOrder(sessionRepository, messageRepository, ollamaClient, messageRepository);
         order.verify(sessionRepository).save(any(SessionEntity.class));
         order.verify(messageRepository).save(argThat(m -> m.getAuthor() == MessageAuthor.USER && "Hi".equals(m.getContent())));
-        order.verify(ollamaClient).chatWithMessages(contextMessages);
+        order.verify(ollamaClient).chatWithMessages(contextMessages, LlmCallSite.CHAT);
         order.verify(messageRepository).save(argThat(m -> m.getAuthor() == MessageAuthor.ASSISTANT && "Hello from Ollama".equals(m.getContent())));
     }
 
+    /**
+     * Verifies that the Ollama call runs outside any transaction while both message saves run inside one.
+     * With open-in-view disabled, no transaction means no JDBC connection is checked out during generation.
+     */
+    @Test
+    @DisplayName("chat: holds no transaction while Ollama generates")
+    void chat_holdsNoTransaction_whileOllamaGenerates() {
+        SessionEntity persistedSession = SessionEntity.builder().id(43L).user(user).build();
+        when(currentUserProvider.requireEntity()).thenReturn(user);
+        when(sessionRepository.save(any(SessionEntity.class))).thenReturn(persistedSession);
+
+        when(properties.getSystemPrompt()).thenReturn("SYS");
+        List<ChatMessage> contextMessages = List.of(
+                ChatMessage.builder().role("system").content("SYS").build(),
+                ChatMessage.builder().role("user").content("Hi").build()
+        );
+        when(chatContextService.buildContextMessages(eq(persistedSession), any(MessageEntity.class), eq("SYS")))
+                .thenReturn(contextMessages);
+
+        List<Boolean> saveInTransaction = new ArrayList<>();
+        when(messageRepository.save(any(MessageEntity.class))).thenAnswer(inv -> {
+            saveInTransaction.add(TransactionSynchronizationManager.isActualTransactionActive());
+            MessageEntity in = inv.getArgument(0);
+            return MessageEntity.builder()
+                    .id(idGen.getAndIncrement())
+                    .author(in.getAuthor())
+                    .content(in.getContent())
+                    .timestamp(Instant.now())
+                    .session(in.getSession())
+                    .build();
+        });
+
+        List<Integer> openDuringOllama = new ArrayList<>();
+        when(ollamaClient.chatWithMessages(contextMessages, LlmCallSite.CHAT)).thenAnswer(inv -> {
+            openDuringOllama.add(transactionManager.open.get());
+            assertThat(TransactionSynchronizationManager.isActualTransactionActive()).isFalse();
+            return "Hello";
+        });
+
+        chatService.chat(ChatRequestDTO.builder().sessionId(null).message("Hi").build());
+
+        assertThat(openDuringOllama).containsExactly(0);
+        assertThat(saveInTransaction).containsExactly(true, true);
+        assertThat(transactionManager.begun.get()).isEqualTo(2);
+        assertThat(transactionManager.open.get()).isZero();
+    }
+
+    /**
+     * Verifies that a chat-with-file turn that fails in Ollama is undone in its own transaction: the saved user
+     * message and the session the turn created are deleted, and the PDF is not attached.
+     */
+    @Test
+    @DisplayName("chatWithFile: removes the saved turn when Ollama fails")
+    void chatWithFile_removesSavedTurn_whenOllamaFails() {
+        SessionEntity persistedSession = SessionEntity.builder().id(45L).user(user).build();
+        when(currentUserProvider.requireEntity()).thenReturn(user);
+        when(sessionRepository.save(any(SessionEntity.class))).thenReturn(persistedSession);
+        when(properties.getSystemPrompt()).thenReturn("SYS");
+        when(pdfDocumentService.load(any())).thenReturn(new PdfDocument(
+                "sha", "Small PDF content.", List.of(), new LexicalRetriever().index(List.of())));
+        when(chatContextService.buildContextMessages(eq(persistedSession), any(MessageEntity.class), eq("SYS")))
+                .thenReturn(new ArrayList<>(List.of(
+                        ChatMessage.builder().role("system").content("SYS").build(),
+                        ChatMessage.builder().role("user").content("placeholder").build())));
+        when(messageRepository.save(any(MessageEntity.class))).thenAnswer(inv -> {
+            MessageEntity in = inv.getArgument(0);
+            return MessageEntity.builder()
+                    .id(idGen.getAndIncrement())
+                    .author(in.getAuthor())
+                    .content(in.getContent())
+                    .timestamp(Instant.now())
+                    .session(in.getSession())
+                    .build();
+        });
+        when(ollamaClient.chatWithMessages(anyList(), eq(LlmCallSite.CHAT_WITH_FILE)))
+                .thenThrow(new AuraException(AuraErrorCode.DEADLINE_EXCEEDED, "Request timed out"));
+        List<Boolean> deleteInTransaction = new ArrayList<>();
+        doAnswer(inv -> deleteInTransaction.add(TransactionSynchronizationManager.isActualTransactionActive()))
+                .when(messageRepository).deleteById(1L);
+
+        MockMultipartFile file = new MockMultipartFile(
+                "file", "doc.pdf", MediaType.APPLICATION_PDF_VALUE, "pdf".getBytes());
+        assertThatThrownBy(() -> chatService.chatWithFile(null, "Summarize this", file))
+                .isInstanceOf(AuraException.class)
+                .extracting("code").isEqualTo(AuraErrorCode.DEADLINE_EXCEEDED);
+
+        assertThat(deleteInTransaction).containsExactly(true);
+        verify(sessionRepository).deleteById(45L);
+        verify(sessionDocumentService, never()).attach(any(), any(), any());
+        assertThat(transactionManager.begun.get()).isEqualTo(2);
+        assertThat(transactionManager.open.get()).isZero();
+    }
+
     /**
      * Verifies that the existing session is reused when sessionId is provided and no new session is created.
      */
@@ -147,7 +260,7 @@ class ChatServiceTest {
         );
         when(chatContextService.buildContextMessages(eq(existing), any(MessageEntity.class), eq("SYS2")))
                 .thenReturn(contextMessages);
-        when(ollamaClient.chatWithMessages(contextMessages)).thenReturn("Reply 2");
+        when(ollamaClient.chatWithMessages(contextMessages, LlmCallSite.CHAT)).thenReturn("Reply 2");
 
         when(messageRepository.save(any(MessageEntity.class))).thenAnswer(inv -> {
             MessageEntity in = inv.getArgument(0);
@@ -185,7 +298,7 @@ class ChatServiceTest {
                 .extracting("code").isEqualTo(AuraErrorCode.SESSION_NOT_FOUND);
 
         verify(messageRepository, never()).save(any());
-        verify(ollamaClient, never()).chatWithMessages(anyList());
+        verify(ollamaClient, never()).chatWithMessages(anyList(), any(LlmCallSite.class));
     }
 
     /**
@@ -226,10 +339,11 @@ class ChatServiceTest {
     }
 
     /**
-     * Verifies that exceptions from Ollama are propagated and that only the user message has been saved before the failure.
+     * Verifies that exceptions from Ollama are propagated, that only the user message has been saved before the failure,
+     * and that it is deleted again along with the new session.
      */
     @Test
-    @DisplayName("chat: propagates Ollama failure and saves only the user message")
+    @DisplayName("chat: propagates Ollama failure and removes the saved user message")
     void chat_propagatesException_whenOllamaFails() {
         SessionEntity s = SessionEntity.builder().id(10L).user(user).build();
         when(currentUserProvider.requireEntity()).thenReturn(user);
@@ -242,7 +356,7 @@ class ChatServiceTest {
         );
         when(chatContextService.buildContextMessages(eq(s), any(MessageEntity.class), eq("SYS")))
                 .thenReturn(contextMessages);
-        when(ollamaClient.chatWithMessages(anyList()))
+        when(ollamaClient.chatWithMessages(anyList(), eq(LlmCallSite.CHAT)))
                 .thenThrow(new AuraException(AuraErrorCode.OLLAMA_UNREACHABLE, "down"));
 
         when(messageRepository.save(any(MessageEntity.class))).thenAnswer(inv -> {
@@ -267,13 +381,15 @@ class ChatServiceTest {
         MessageEntity saved = captor.getValue();
         assertThat(saved.getAuthor()).isEqualTo(MessageAuthor.USER);
         verify(messageRepository, never()).save(argThat(m -> m.getAuthor() == MessageAuthor.ASSISTANT));
+        verify(messageRepository).deleteById(1L);
+        verify(sessionRepository).deleteById(10L);
     }
 
     /**
-     * Verifies that memory is updated when enough new messages have accumulated.
+     * Verifies that a background memory update is requested when enough new messages have accumulated.
      */
     @Test
-    @DisplayName("chat: updates memory when threshold reached")
+    @DisplayName("chat: requests memory update when threshold reached")
     void chat_updatesMemory_whenThresholdReached() {
         SessionEntity persistedSession = SessionEntity.builder().id(44L).user(user).build();
         when(currentUserProvider.requireEntity()).thenReturn(user);
@@ -287,7 +403,7 @@ class ChatServiceTest {
         );
         when(chatContextService.buildContextMessages(eq(persistedSession), any(MessageEntity.class), eq("SYS")))
                 .thenReturn(contextMessages);
-        when(ollamaClient.chatWithMessages(contextMessages)).thenReturn("Hello");
+        when(ollamaClient.chatWithMessages(contextMessages, LlmCallSite.CHAT)).thenReturn("Hello");
 
         when(messageRepository.save(any(MessageEntity.class))).thenAnswer(inv -> {
             MessageEntity in = inv.getArgument(0);
@@ -300,20 +416,13 @@ class ChatServiceTest {
                     .build();
         });
 
-        List<MessageEntity> messagesForMemory = List.of(
-                MessageEntity.builder().id(1L).author(MessageAuthor.USER).content("Hi").session(persistedSession).build(),
-                MessageEntity.builder().id(2L).author(MessageAuthor.ASSISTANT).content("Hello").session(persistedSession).build()
-        );
-        when(messageRepository.findBySessionOrderByIdAsc(persistedSession)).thenReturn(messagesForMemory);
-        when(memoryUpdateService.updateMemory(persistedSession, messagesForMemory))
-                .thenReturn(MemoryUpdateResult.updated("{\"facts\":[\"x\"]}"));
+        when(messageRepository.countBySession(persistedSession)).thenReturn(2L);
 
         ChatRequestDTO req = ChatRequestDTO.builder().sessionId(null).message("Hi").build();
-        chatService.chat(req);
+        ChatResponseDTO out = chatService.chat(req);
 
-        assertThat(persistedSession.getMemoryJson()).isEqualTo("{\"facts\":[\"x\"]}");
-        assertThat(persistedSession.getLastMemoryMessageId()).isEqualTo(2L);
-        verify(memoryUpdateService).updateMemory(persistedSession, messagesForMemory);
+        assertThat(out.getAssistantReply()).isEqualTo("Hello");
+        verify(sessionMemoryUpdater).request(44L);
     }
 
     /**
@@ -328,7 +437,8 @@ class ChatServiceTest {
         when(properties.getSystemPrompt()).thenReturn("SYS");
 
         String extractedText = "Small PDF content.";
-        when(pdfTextExtractor.extractText(any())).thenReturn(extractedText);
+        when(pdfDocumentService.load(any())).thenReturn(new PdfDocument(
+                "sha", extractedText, List.of(), new LexicalRetriever().index(List.of())));
 
         List<ChatMessage> contextMessages = new ArrayList<>(List.of(
                 ChatMessage.builder().role("system").content("SYS").build(),
@@ -337,7 +447,7 @@ class ChatServiceTest {
         when(chatContextService.buildContextMessages(eq(persistedSession), any(MessageEntity.class), eq("SYS")))
                 .thenReturn(contextMessages);
 
-        when(ollamaClient.chatWithMessages(anyList())).thenReturn("Answer");
+        when(ollamaClient.chatWithMessages(anyList(), eq(LlmCallSite.CHAT_WITH_FILE))).thenReturn("Answer");
         when(messageRepository.save(any(MessageEntity.class))).thenAnswer(inv -> {
             MessageEntity in = inv.getArgument(0);
             return MessageEntity.builder()
@@ -354,7 +464,7 @@ class ChatServiceTest {
         ChatResponseDTO out = chatService.chatWithFile(null, "Summarize this", file);
 
         ArgumentCaptor<List<ChatMessage>> captor = ArgumentCaptor.forClass(List.class);
-        verify(ollamaClient).chatWithMessages(captor.capture());
+        verify(ollamaClient).chatWithMessages(captor.capture(), eq(LlmCallSite.CHAT_WITH_FILE));
         String prompt = captor.getValue().getLast().getContent();
         assertThat(prompt).contains("untrusted");
         assertThat(prompt).contains(extractedText);
@@ -378,15 +488,14 @@ class ChatServiceTest {
         when(properties.getSystemPrompt()).thenReturn("SYS");
 
         String extractedText = "FULL_TEXT_SHOULD_NOT_APPEAR";
-        when(pdfTextExtractor.extractText(any())).thenReturn(extractedText);
-
         List<TextChunk> chunks = List.of(
                 new TextChunk(0, "CHUNK_ALPHA"),
                 new TextChunk(1, "CHUNK_BETA")
         );
-        when(textChunker.chunk(eq(extractedText), anyInt(), anyInt())).thenReturn(chunks);
+        DocumentIndex index = new LexicalRetriever().index(chunks);
+        when(pdfDocumentService.load(any())).thenReturn(new PdfDocument("sha", extractedText, chunks, index));
         List<ScoredChunk> selected = List.of(new ScoredChunk(chunks.get(1), 1.5));
-        when(lexicalRetriever.retrieveTopChunks(eq("Find beta"), eq(chunks), eq(1), anyDouble()))
+        when(documentRetriever.retrieveTopChunks(eq("Find beta"), argThat(d -> d.index() == index)))
                 .thenReturn(selected);
 
         List<ChatMessage> contextMessages = new ArrayList<>(List.of(
@@ -396,7 +505,7 @@ class ChatServiceTest {
         when(chatContextService.buildContextMessages(eq(existing), any(MessageEntity.class), eq("SYS")))
                 .thenReturn(contextMessages);
 
-        when(ollamaClient.chatWithMessages(anyList())).thenReturn("Done");
+        when(ollamaClient.chatWithMessages(anyList(), eq(LlmCallSite.CHAT_WITH_FILE))).thenReturn("Done");
         when(messageRepository.save(any(MessageEntity.class))).thenAnswer(inv -> {
             MessageEntity in = inv.getArgument(0);
             return MessageEntity.builder()
@@ -413,23 +522,111 @@ class ChatServiceTest {
         chatService.chatWithFile(55L, "Find beta", file);
 
         ArgumentCaptor<List<ChatMessage>> captor = ArgumentCaptor.forClass(List.class);
-        verify(ollamaClient).chatWithMessages(captor.capture());
+        verify(ollamaClient).chatWithMessages(captor.capture(), eq(LlmCallSite.CHAT_WITH_FILE));
         String prompt = captor.getValue().getLast().getContent();
         assertThat(prompt).contains("CHUNK_BETA");
         assertThat(prompt).doesNotContain("CHUNK_ALPHA");
         assertThat(prompt).doesNotContain(extractedText);
         assertThat(prompt).contains("untrusted");
+        verify(sessionDocumentService).attach(eq(55L), eq("doc.pdf"), argThat(d -> d.index() == index));
     }
 
     /**
-     * Verifies that invalid file types propagate as domain exceptions.
+     * Verifies that a plain turn on a session with an attached PDF retrieves from it without a re-upload.
      */
     @Test
-    @DisplayName("chatWithFile: throws on invalid file type")
+    @DisplayName("chat: retrieves from documents attached to the session")
+    void chat_retrievesFromAttachedDocuments() {
+        pdfChatProperties.setTopK(1);
+        SessionEntity existing = SessionEntity.builder().id(56L).user(user).build();
+        when(sessionRepository.findByIdAndUser_Id(56L, user.getId())).thenReturn(Optional.of(existing));
+        when(properties.getSystemPrompt()).thenReturn("SYS");
+
+        List<TextChunk> chunks = List.of(
+                new TextChunk(0, "CHUNK_ALPHA"),
+                new TextChunk(1, "CHUNK_BETA")
+        );
+        DocumentIndex index = new LexicalRetriever().index(chunks);
+        when(sessionDocumentService.load(56L)).thenReturn(List.of(
+                new PdfDocument("sha", "FULL_TEXT_SHOULD_NOT_APPEAR", chunks, index),
+                new PdfDocument("small", "SMALL_DOCUMENT", List.of(), new LexicalRetriever().index(List.of()))));
+        when(documentRetriever.retrieveAcross(eq("And beta?"), argThat(ds -> ds.size() == 1 && ds.get(0).index() == index)))
+                .thenReturn(List.of(new ScoredChunk(chunks.get(1), 2.0)));
+
+        List<ChatMessage> contextMessages = new ArrayList<>(List.of(
+                ChatMessage.builder().role("system").content("SYS").build(),
+                ChatMessage.builder().role("user").content("And beta?").build()
+        ));
+        when(chatContextService.buildContextMessages(eq(existing), any(MessageEntity.class), eq("SYS")))
+                .thenReturn(contextMessages);
+        when(ollamaClient.chatWithMessages(anyList(), eq(LlmCallSite.CHAT))).thenReturn("Beta it is");
+        when(messageRepository.save(any(MessageEntity.class))).thenAnswer(inv -> {
+            MessageEntity in = inv.getArgument(0);
+            return MessageEntity.builder()
+                    .id(idGen.getAndIncrement())
+                    .author(in.getAuthor())
+                    .content(in.getContent())
+                    .timestamp(Instant.now())
+                    .session(in.getSession())
+                    .build();
+        });
+
+        chatService.chat(ChatRequestDTO.builder().sessionId(56L).message("And beta?").build());
+
+        String prompt = contextMessages.getLast().getContent();
+        assertThat(prompt).contains("CHUNK_BETA", "SMALL_DOCUMENT", "untrusted", "And beta?");
+        assertThat(prompt).doesNotContain("CHUNK_ALPHA", "FULL_TEXT_SHOULD_NOT_APPEAR");
+        verify(messageRepository).save(argThat(m -> m.getAuthor() == MessageAuthor.USER && "And beta?".equals(m.getContent())));
+        verifyNoInteractions(pdfDocumentService);
+    }
+
+    /**
+     * Verifies that document text injected into a plain turn counts against the prompt budget.
+     */
+    @Test
+    @DisplayName("chat: keeps attached documents within max-prompt-chars")
+    void chat_fitsAttachedDocumentsIntoPromptBudget() {
+        SessionEntity existing = SessionEntity.builder().id(57L).user(user).build();
+        when(sessionRepository.findByIdAndUser_Id(57L, user.getId())).thenReturn(Optional.of(existing));
+        when(properties.getSystemPrompt()).thenReturn("SYS");
+        when(contextProperties.getMaxPromptChars()).thenReturn(400);
+        when(sessionDocumentService.load(57L)).thenReturn(List.of(
+                new PdfDocument("small", "x".repeat(2000), List.of(), new LexicalRetriever().index(List.of()))));
+
+        List<ChatMessage> contextMessages = new ArrayList<>(List.of(
+                ChatMessage.builder().role("system").content("SYS").build(),
+                ChatMessage.builder().role("user").content("Summarize").build()
+        ));
+        when(chatContextService.buildContextMessages(eq(existing), any(MessageEntity.class), eq("SYS")))
+                .thenReturn(contextMessages);
+        when(ollamaClient.chatWithMessages(anyList(), eq(LlmCallSite.CHAT))).thenReturn("Summary");
+        when(messageRepository.save(any(MessageEntity.class))).thenAnswer(inv -> {
+            MessageEntity in = inv.getArgument(0);
+            return MessageEntity.builder()
+                    .id(idGen.getAndIncrement())
+                    .author(in.getAuthor())
+                    .content(in.getContent())
+                    .timestamp(Instant.now())
+                    .session(in.getSession())
+                    .build();
+        });
+
+        chatService.chat(ChatRequestDTO.builder().sessionId(57L).message("Summarize").build());
+
+        String prompt = contextMessages.getLast().getContent();
+        assertThat(prompt).contains("untrusted", "xxx").endsWith("Summarize");
+        assertThat(prompt.length()).isLessThanOrEqualTo(400 - "SYS".length());
+        verify(chatContextService).fitToBudget(contextMessages);
+        verifyNoInteractions(documentRetriever);
+    }
+
+    /**
+     * Verifies that invalid file types propagate as domain exceptions before anything is saved.
+     */
+    @Test
+    @DisplayName("chatWithFile: throws on invalid file type without saving the turn")
     void chatWithFile_throwsOnInvalidFileType() {
-        SessionEntity existing = SessionEntity.builder().id(88L).user(user).build();
-        when(sessionRepository.findByIdAndUser_Id(88L, user.getId())).thenReturn(Optional.of(existing));
-        when(pdfTextExtractor.extractText(any())).thenThrow(new AuraException(
+        when(pdfDocumentService.load(any())).thenThrow(new AuraException(
                 AuraErrorCode.INVALID_FILE_TYPE, "Only PDF files are supported"));
 
         MockMultipartFile file = new MockMultipartFile(
@@ -438,5 +635,35 @@ class ChatServiceTest {
         assertThatThrownBy(() -> chatService.chatWithFile(88L, "Hello", file))
                 .isInstanceOf(AuraException.class)
                 .extracting("code").isEqualTo(AuraErrorCode.INVALID_FILE_TYPE);
+        verifyNoInteractions(sessionRepository, messageRepository);
+    }
+
+    /**
+     * Transaction manager that only tracks how many transactions are open, standing in for a pooled DataSource.
+     */
+    static class RecordingTransactionManager extends AbstractPlatformTransactionManager {
+        final AtomicInteger open = new AtomicInteger();
+        final AtomicInteger begun = new AtomicInteger();
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+            open.incrementAndGet();
+            begun.incrementAndGet();
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            open.decrementAndGet();
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+            open.decrementAndGet();
+        }
     }
 }
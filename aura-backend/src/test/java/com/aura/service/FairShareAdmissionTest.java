@@ -0,0 +1,97 @@
+package com.aura.service;
+
+import com.aura.config.ChatProperties;
+import com.aura.error.AuraErrorCode;
+import com.aura.error.AuraException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FairShareAdmissionTest {
+
+    @Test
+    @DisplayName("acquire: rejects requests beyond the user's queue cap without affecting other users")
+    void acquire_rejectsBeyondUserQueueCap() throws Exception {
+        ChatProperties properties = new ChatProperties();
+        properties.setMaxConcurrentChats(1);
+        properties.setUserMaxInFlight(1);
+        properties.setUserMaxQueued(1);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        FairShareAdmission admission = new FairShareAdmission(properties, meterRegistry);
+        UUID flooder = UUID.randomUUID();
+
+        FairShareAdmission.Permit held = admission.acquire(flooder, 1);
+        CompletableFuture<FairShareAdmission.Permit> queued = CompletableFuture.supplyAsync(() -> admission.acquire(flooder, 1));
+        waitUntil(() -> admission.queuedCount() == 1);
+
+        assertThatThrownBy(() -> admission.acquire(flooder, 1))
+                .isInstanceOf(AuraException.class)
+                .satisfies(ex -> assertThat(((AuraException) ex).getCode()).isEqualTo(AuraErrorCode.USER_QUEUE_FULL));
+        CompletableFuture<FairShareAdmission.Permit> other = CompletableFuture.supplyAsync(() -> admission.acquire(UUID.randomUUID(), 1));
+        waitUntil(() -> admission.queuedCount() == 2);
+
+        held.close();
+        CompletableFuture.allOf(
+                queued.thenAccept(FairShareAdmission.Permit::close),
+                other.thenAccept(FairShareAdmission.Permit::close)
+        ).get(5, TimeUnit.SECONDS);
+
+        assertThat(admission.inFlightCount()).isZero();
+        assertThat(meterRegistry.get("aura.chat.admission.rejected").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("acquire: alternates between users instead of serving one user's backlog first")
+    void acquire_roundRobinsBetweenUsers() throws Exception {
+        ChatProperties properties = new ChatProperties();
+        properties.setMaxConcurrentChats(1);
+        properties.setUserMaxInFlight(1);
+        properties.setUserMaxQueued(4);
+        FairShareAdmission admission = new FairShareAdmission(properties, new SimpleMeterRegistry());
+        UUID heavy = UUID.randomUUID();
+        UUID light = UUID.randomUUID();
+        List<String> order = new CopyOnWriteArrayList<>();
+
+        FairShareAdmission.Permit held = admission.acquire(UUID.randomUUID(), 1);
+        CompletableFuture<?>[] heavyCalls = new CompletableFuture<?>[3];
+        for (int i = 0; i < heavyCalls.length; i++) {
+            int expected = i + 1;
+            heavyCalls[i] = CompletableFuture.runAsync(() -> admit(admission, heavy, "heavy", order));
+            waitUntil(() -> admission.queuedCount() == expected);
+        }
+        CompletableFuture<Void> lightCall = CompletableFuture.runAsync(() -> admit(admission, light, "light", order));
+        waitUntil(() -> admission.queuedCount() == 4);
+
+        held.close();
+        CompletableFuture.allOf(heavyCalls).get(5, TimeUnit.SECONDS);
+        lightCall.get(5, TimeUnit.SECONDS);
+
+        assertThat(order.indexOf("light")).isLessThanOrEqualTo(1);
+    }
+
+    private static void admit(FairShareAdmission admission, UUID userId, String label, List<String> order) {
+        try (FairShareAdmission.Permit permit = admission.acquire(userId, 1)) {
+            order.add(label);
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Condition not met in time");
+            }
+            Thread.sleep(5);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.aura.service;
 
+import com.aura.client.LlmCallSite;
 import com.aura.client.OllamaClient;
 import com.aura.domain.MessageAuthor;
 import com.aura.domain.MessageEntity;
@@ -15,6 +16,7 @@ import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -36,7 +38,7 @@ class MemoryUpdateServiceTest {
                 MessageEntity.builder().author(MessageAuthor.USER).content("Remember this").build()
         );
 
-        when(ollamaClient.chatWithMessages(anyList())).thenReturn("not-json");
+        when(ollamaClient.chatWithMessages(anyList(), eq(LlmCallSite.MEMORY))).thenReturn("not-json");
 
         MemoryUpdateResult result = service.updateMemory(session, messages);
 
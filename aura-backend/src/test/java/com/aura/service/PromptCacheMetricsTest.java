@@ -0,0 +1,135 @@
+package com.aura.service;
+
+import com.aura.client.LlmCallSite;
+import com.aura.config.AuraContextProperties;
+import com.aura.config.AuraContextProperties.ContextMode;
+import com.aura.domain.MessageAuthor;
+import com.aura.domain.MessageEntity;
+import com.aura.domain.SessionEntity;
+import com.aura.dto.OllamaDtos.ChatMessage;
+import com.aura.repository.MessageRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+
+@ExtendWith(MockitoExtension.class)
+class PromptCacheMetricsTest {
+
+    private static final int TURNS = 30;
+
+    @Mock MessageRepository messageRepository;
+    @Mock MemoryJsonValidator memoryJsonValidator;
+
+    @Test
+    @DisplayName("record: reports the prompt tokens the KV cache reused, far more for prefix-stable contexts than sliding ones")
+    void record_prefixStableSavesMoreThanSliding() {
+        Conversation prefixStable = converse(ContextMode.PREFIX_STABLE);
+        Conversation sliding = converse(ContextMode.SLIDING);
+
+        assertThat(prefixStable.reported.count()).isEqualTo(TURNS - 1);
+        assertThat(prefixStable.reported.totalAmount())
+                .isCloseTo(prefixStable.actualSaved, within(prefixStable.actualSaved * 0.15));
+        assertThat(sliding.reported.totalAmount()).isCloseTo(sliding.actualSaved, within(sliding.actualSaved * 0.15));
+        assertThat(prefixStable.reported.totalAmount()).isGreaterThan(2 * sliding.reported.totalAmount());
+    }
+
+    /**
+     * Plays a conversation against a stand-in for Ollama whose KV cache holds the previous prompt and reply,
+     * so it only evaluates the prompt tokens after the prefix it shares with them.
+     */
+    private Conversation converse(ContextMode mode) {
+        AuraContextProperties contextProperties = new AuraContextProperties();
+        contextProperties.setContextMode(mode);
+        contextProperties.setWindowSizeMessages(8);
+        contextProperties.setHistoryBlockMessages(4);
+        ChatContextService contextService = new ChatContextService(messageRepository, contextProperties, memoryJsonValidator);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PromptCacheMetrics metrics = new PromptCacheMetrics(contextProperties, meterRegistry);
+
+        SessionEntity session = SessionEntity.builder().id(7L).memoryJson("{\"facts\":[\"likes tea\"]}").build();
+        List<MessageEntity> stored = new ArrayList<>();
+        lenient().when(memoryJsonValidator.isValid(any())).thenReturn(true);
+        lenient().when(messageRepository.countBySession(session)).thenAnswer(inv -> (long) stored.size());
+        lenient().when(messageRepository.findBySessionOrderByIdDesc(eq(session), any(Pageable.class))).thenAnswer(inv -> {
+            Pageable page = inv.getArgument(1);
+            List<MessageEntity> desc = new ArrayList<>(stored);
+            Collections.reverse(desc);
+            return desc.subList(0, Math.min(page.getPageSize(), desc.size()));
+        });
+
+        List<String> kvCache = List.of();
+        long actualSaved = 0;
+        for (int turn = 0; turn < TURNS; turn++) {
+            MessageEntity question = save(stored, session, MessageAuthor.USER,
+                    "question " + turn + " about the tea ceremony");
+            List<ChatMessage> prompt = contextService.buildContextMessages(session, question,
+                    "You are a helpful assistant");
+            String reply = "answer " + turn + " the ceremony starts with water heated just below boiling";
+
+            List<String> promptTokens = tokens(prompt);
+            int reused = sharedPrefix(kvCache, promptTokens);
+            if (turn > 0) {
+                actualSaved += reused;
+            }
+            List<String> replyTokens = tokens(List.of(ChatMessage.builder().role("assistant").content(reply).build()));
+            metrics.record(session.getId(), LlmCallSite.CHAT, prompt, reply,
+                    promptTokens.size() - reused, replyTokens.size());
+
+            List<String> cached = new ArrayList<>(promptTokens);
+            cached.addAll(replyTokens);
+            kvCache = cached;
+            save(stored, session, MessageAuthor.ASSISTANT, reply);
+        }
+        DistributionSummary reported = meterRegistry.get("aura.llm.prompt.tokens.saved")
+                .tag("context_mode", mode.name().toLowerCase())
+                .summary();
+        return new Conversation(reported, actualSaved);
+    }
+
+    private static MessageEntity save(List<MessageEntity> stored, SessionEntity session, MessageAuthor author, String content) {
+        MessageEntity message = MessageEntity.builder()
+                .id((long) stored.size() + 1)
+                .author(author)
+                .content(content)
+                .session(session)
+                .build();
+        stored.add(message);
+        return message;
+    }
+
+    private static List<String> tokens(List<ChatMessage> messages) {
+        List<String> tokens = new ArrayList<>();
+        for (ChatMessage message : messages) {
+            tokens.add("<" + message.getRole() + ">");
+            tokens.addAll(Arrays.asList(message.getContent().split("(?<=\\s)")));
+        }
+        return tokens;
+    }
+
+    private static int sharedPrefix(List<String> cached, List<String> prompt) {
+        int shared = 0;
+        while (shared < cached.size() && shared < prompt.size() && cached.get(shared).equals(prompt.get(shared))) {
+            shared++;
+        }
+        return shared;
+    }
+
+    private record Conversation(DistributionSummary reported, long actualSaved) {
+    }
+}
@@ -0,0 +1,111 @@
+package com.aura.service;
+
+import com.aura.config.PdfChatProperties;
+import com.aura.domain.SessionDocumentEntity;
+import com.aura.repository.SessionDocumentRepository;
+import com.aura.repository.projection.SessionDocumentRef;
+import com.aura.service.pdf.LexicalRetriever;
+import com.aura.service.pdf.PdfDocument;
+import com.aura.service.pdf.PdfDocumentCache;
+import com.aura.service.pdf.TextChunk;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SessionDocumentServiceTest {
+
+    @Mock SessionDocumentRepository sessionDocumentRepository;
+
+    ObjectMapper objectMapper = new ObjectMapper();
+    LexicalRetriever lexicalRetriever = new LexicalRetriever();
+    PdfChatProperties properties;
+    PdfDocumentCache documentCache;
+    SessionDocumentService service;
+
+    @BeforeEach
+    void setUp() {
+        properties = new PdfChatProperties();
+        documentCache = new PdfDocumentCache(properties, lexicalRetriever, objectMapper, new SimpleMeterRegistry());
+        service = new SessionDocumentService(sessionDocumentRepository, documentCache, lexicalRetriever,
+                objectMapper, properties);
+    }
+
+    @Test
+    @DisplayName("attach: stores the text and chunks under the document hash")
+    void attach_storesTextAndChunks() throws Exception {
+        List<TextChunk> chunks = List.of(new TextChunk(0, "alpha beta"), new TextChunk(1, "gamma"));
+
+        service.attach(7L, "report.pdf", new PdfDocument("abc", "alpha beta gamma", chunks,
+                lexicalRetriever.index(chunks)));
+
+        ArgumentCaptor<String> chunksJson = ArgumentCaptor.forClass(String.class);
+        verify(sessionDocumentRepository).insertIfAbsent(eq(7L), eq("abc"), eq("report.pdf"),
+                eq("alpha beta gamma"), chunksJson.capture());
+        assertThat(objectMapper.readValue(chunksJson.getValue(), TextChunk[].class)).containsExactlyElementsOf(chunks);
+    }
+
+    @Test
+    @DisplayName("load: serves cached extractions without reading the stored text")
+    void load_usesCacheBeforeDatabase() {
+        List<TextChunk> chunks = List.of(new TextChunk(0, "alpha beta"));
+        PdfDocument cached = new PdfDocument("abc", "alpha beta", chunks, lexicalRetriever.index(chunks));
+        documentCache.put(cached);
+        when(sessionDocumentRepository.findBySession_IdOrderByIdDesc(eq(7L), any())).thenReturn(List.of(ref(1L, "abc")));
+
+        List<PdfDocument> loaded = service.load(7L);
+
+        assertThat(loaded).containsExactly(cached);
+        verify(sessionDocumentRepository, never()).findById(any());
+    }
+
+    @Test
+    @DisplayName("load: rebuilds the index from the stored row on a cache miss and caches it")
+    void load_rebuildsFromRowOnCacheMiss() {
+        when(sessionDocumentRepository.findBySession_IdOrderByIdDesc(eq(7L), any())).thenReturn(List.of(ref(2L, "def")));
+        when(sessionDocumentRepository.findById(2L)).thenReturn(Optional.of(SessionDocumentEntity.builder()
+                .id(2L)
+                .sha256("def")
+                .extractedText("alpha beta gamma")
+                .chunksJson("[{\"index\":0,\"text\":\"alpha beta\"},{\"index\":1,\"text\":\"gamma\"}]")
+                .build()));
+
+        List<PdfDocument> loaded = service.load(7L);
+
+        assertThat(loaded).hasSize(1);
+        assertThat(loaded.get(0).chunks()).extracting(TextChunk::text).containsExactly("alpha beta", "gamma");
+        assertThat(lexicalRetriever.retrieveTopChunks("gamma", loaded.get(0).index(), 1, 0.1))
+                .extracting(scored -> scored.chunk().index()).containsExactly(1);
+        assertThat(documentCache.get("def")).isSameAs(loaded.get(0));
+    }
+
+    private static SessionDocumentRef ref(Long id, String sha256) {
+        return new SessionDocumentRef() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getSha256() {
+                return sha256;
+            }
+        };
+    }
+}
@@ -0,0 +1,104 @@
+package com.aura.service;
+
+import com.aura.config.AuraContextProperties;
+import com.aura.config.WorkerThreads;
+import com.aura.domain.MessageAuthor;
+import com.aura.domain.MessageEntity;
+import com.aura.domain.SessionEntity;
+import com.aura.repository.MessageRepository;
+import com.aura.repository.SessionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SessionMemoryUpdaterTest {
+
+    @Mock MemoryUpdateService memoryUpdateService;
+    @Mock SessionRepository sessionRepository;
+    @Mock MessageRepository messageRepository;
+
+    AuraContextProperties contextProperties;
+    SimpleMeterRegistry meterRegistry;
+    SessionMemoryUpdater updater;
+
+    @BeforeEach
+    void setUp() {
+        contextProperties = new AuraContextProperties();
+        contextProperties.setMemoryUpdateEveryMessages(2);
+        contextProperties.setMemoryUpdateQueueCapacity(2);
+        meterRegistry = new SimpleMeterRegistry();
+        updater = new SessionMemoryUpdater(memoryUpdateService, sessionRepository, messageRepository,
+                contextProperties, new TransactionTemplate(new ChatServiceTest.RecordingTransactionManager()),
+                meterRegistry, new WorkerThreads(false));
+        updater.init();
+    }
+
+    @Test
+    @DisplayName("request: coalesces repeated requests for a session and drops when the queue is full")
+    void request_coalescesPerSession_andDropsWhenFull() {
+        updater.request(1L);
+        updater.request(1L);
+        updater.request(2L);
+        updater.request(3L);
+
+        assertThat(updater.pendingCount()).isEqualTo(2);
+        assertThat(meterRegistry.get("aura.memory.updates").tag("outcome", "coalesced").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("aura.memory.updates").tag("outcome", "dropped").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("aura.memory.queue.depth").gauge().value()).isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("process: calls the LLM outside a transaction and writes with the snapshot id it read")
+    void process_writesWithOptimisticCheck() {
+        SessionEntity session = SessionEntity.builder().id(7L).lastMemoryMessageId(5L).build();
+        List<MessageEntity> messages = List.of(
+                MessageEntity.builder().id(6L).author(MessageAuthor.USER).content("Hi").session(session).build(),
+                MessageEntity.builder().id(7L).author(MessageAuthor.ASSISTANT).content("Hello").session(session).build()
+        );
+        when(sessionRepository.findById(7L)).thenReturn(Optional.of(session));
+        when(messageRepository.findBySessionAndIdGreaterThanOrderByIdAsc(session, 5L)).thenReturn(messages);
+        when(memoryUpdateService.updateMemory(session, messages)).thenAnswer(inv -> {
+            assertThat(TransactionSynchronizationManager.isActualTransactionActive()).isFalse();
+            return MemoryUpdateResult.updated("{\"facts\":[\"x\"]}");
+        });
+        when(sessionRepository.updateMemoryIfUnchanged(7L, "{\"facts\":[\"x\"]}", 7L, 5L)).thenReturn(0);
+
+        updater.request(7L);
+        updater.process(7L);
+
+        assertThat(updater.pendingCount()).isZero();
+        assertThat(meterRegistry.get("aura.memory.updates").tag("outcome", "conflict").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("aura.memory.queue.lag").timer().count()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("process: skips the LLM call when fewer messages than the threshold are pending")
+    void process_skipsBelowThreshold() {
+        SessionEntity session = SessionEntity.builder().id(8L).build();
+        when(sessionRepository.findById(8L)).thenReturn(Optional.of(session));
+        when(messageRepository.findBySessionOrderByIdAsc(session)).thenReturn(List.of(
+                MessageEntity.builder().id(1L).author(MessageAuthor.USER).content("Hi").session(session).build()
+        ));
+
+        updater.process(8L);
+
+        verify(memoryUpdateService, never()).updateMemory(any(), anyList());
+    }
+}
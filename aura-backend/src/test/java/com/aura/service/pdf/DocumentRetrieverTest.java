@@ -0,0 +1,121 @@
+package com.aura.service.pdf;
+
+import com.aura.config.PdfChatProperties;
+import com.aura.config.PdfChatProperties.RetrievalMode;
+import com.aura.config.WorkerThreads;
+import com.aura.error.AuraErrorCode;
+import com.aura.error.AuraException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class DocumentRetrieverTest {
+
+    private final PdfChatProperties properties = new PdfChatProperties();
+    private final SemanticRetriever semanticRetriever = mock(SemanticRetriever.class);
+    private final DocumentRetriever retriever =
+            new DocumentRetriever(new LexicalRetriever(), semanticRetriever, properties, new WorkerThreads(false));
+    private final List<TextChunk> chunks = List.of(
+            new TextChunk(0, "alpha"), new TextChunk(1, "beta"), new TextChunk(2, "gamma"), new TextChunk(3, "delta"));
+    private final PdfDocument document = new PdfDocument("sha", "", chunks, new LexicalRetriever().index(chunks));
+
+    @BeforeEach
+    void setUp() {
+        retriever.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        retriever.shutdown();
+    }
+
+    @Test
+    @DisplayName("retrieveTopChunks: uses BM25 in lexical mode")
+    void retrieveTopChunks_lexicalMode() {
+        properties.setTopK(1);
+
+        List<ScoredChunk> top = retriever.retrieveTopChunks("beta", document);
+
+        assertThat(top).extracting(scored -> scored.chunk().index()).containsExactly(1);
+        verifyNoInteractions(semanticRetriever);
+    }
+
+    @Test
+    @DisplayName("retrieveTopChunks: uses embeddings in semantic mode")
+    void retrieveTopChunks_semanticMode() {
+        properties.setRetrievalMode(RetrievalMode.SEMANTIC);
+        List<ScoredChunk> semantic = List.of(new ScoredChunk(chunks.get(0), 0.9));
+        when(semanticRetriever.retrieveTopChunks("beta", document, 6, 0.0)).thenReturn(semantic);
+
+        assertThat(retriever.retrieveTopChunks("beta", document)).isSameAs(semantic);
+    }
+
+    @Test
+    @DisplayName("retrieveTopChunks: falls back to BM25 when embedding fails")
+    void retrieveTopChunks_fallsBackWhenEmbeddingFails() {
+        properties.setRetrievalMode(RetrievalMode.SEMANTIC);
+        properties.setTopK(1);
+        when(semanticRetriever.retrieveTopChunks(anyString(), any(), anyInt(), anyDouble()))
+                .thenThrow(new AuraException(AuraErrorCode.OLLAMA_UNREACHABLE, "down"));
+
+        List<ScoredChunk> top = retriever.retrieveTopChunks("beta", document);
+
+        assertThat(top).extracting(scored -> scored.chunk().index()).containsExactly(1);
+    }
+
+    @Test
+    @DisplayName("retrieveTopChunks: fuses BM25 and vector rankings by reciprocal rank in hybrid mode")
+    void retrieveTopChunks_hybridFusesRankings() {
+        properties.setRetrievalMode(RetrievalMode.HYBRID);
+        properties.setTopK(2);
+        when(semanticRetriever.retrieveTopChunks("beta", document, 6, 0.0)).thenReturn(List.of(
+                new ScoredChunk(chunks.get(2), 0.9), new ScoredChunk(chunks.get(1), 0.8), new ScoredChunk(chunks.get(3), 0.1)));
+
+        List<ScoredChunk> top = retriever.retrieveTopChunks("beta", document);
+
+        assertThat(top).extracting(scored -> scored.chunk().index()).containsExactly(1, 2);
+        assertThat(top.get(0).score()).isCloseTo(1.0 / 61 + 1.0 / 62, within(1e-12));
+    }
+
+    @Test
+    @DisplayName("retrieveTopChunks: hybrid mode keeps the BM25 ranking when embedding fails")
+    void retrieveTopChunks_hybridFallsBackWhenEmbeddingFails() {
+        properties.setRetrievalMode(RetrievalMode.HYBRID);
+        when(semanticRetriever.retrieveTopChunks(anyString(), any(), anyInt(), anyDouble()))
+                .thenThrow(new AuraException(AuraErrorCode.OLLAMA_UNREACHABLE, "down"));
+
+        List<ScoredChunk> top = retriever.retrieveTopChunks("beta", document);
+
+        assertThat(top).extracting(scored -> scored.chunk().index()).containsExactly(1);
+    }
+
+    @Test
+    @DisplayName("retrieveAcross: takes each document's best chunk before any document's second best")
+    void retrieveAcross_interleavesDocumentsByRank() {
+        properties.setTopK(3);
+        List<TextChunk> otherChunks = List.of(
+                new TextChunk(0, "beta among many other words in a much longer chunk of text"), new TextChunk(1, "omega"));
+        PdfDocument other = new PdfDocument("other", "", otherChunks, new LexicalRetriever().index(otherChunks));
+        List<TextChunk> betaChunks = List.of(new TextChunk(0, "beta beta"), new TextChunk(1, "beta alpha"));
+        PdfDocument strong = new PdfDocument("strong", "", betaChunks, new LexicalRetriever().index(betaChunks));
+
+        List<ScoredChunk> top = retriever.retrieveAcross("beta", List.of(strong, other));
+
+        assertThat(top).extracting(scored -> scored.chunk().text())
+                .containsExactly("beta beta", otherChunks.get(0).text(), "beta alpha");
+        assertThat(top).extracting(ScoredChunk::score).isSortedAccordingTo((a, b) -> Double.compare(b, a));
+    }
+}
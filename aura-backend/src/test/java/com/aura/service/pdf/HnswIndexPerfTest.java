@@ -0,0 +1,85 @@
+package com.aura.service.pdf;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures HNSW build time, query latency and recall@6 over 384-dimension vectors; run with {@code mvn -Pperf test}.
+ */
+@Slf4j
+@Tag("perf")
+class HnswIndexPerfTest {
+
+    private static final int[] SIZES = {1000, 3000, 10_000};
+    private static final int DIMENSION = 384;
+    private static final int QUERIES = 200;
+    private static final int TOP_K = 6;
+    private static final int EF_SEARCH = 64;
+
+    @Test
+    @DisplayName("HNSW answers top-k queries in under a millisecond for thousands of chunks with high recall")
+    void hnsw_subMillisecondQueries() {
+        for (int size : SIZES) {
+            Random random = new Random(size);
+            List<float[]> vectors = HnswIndexTest.clusteredVectors(random, size, DIMENSION);
+            List<float[]> queries = HnswIndexTest.clusteredVectors(random, QUERIES, DIMENSION);
+
+            long started = System.nanoTime();
+            HnswIndex index = HnswIndex.build(vectors, 16, 100);
+            double buildMillis = (System.nanoTime() - started) / 1e6;
+
+            int[] ids = new int[TOP_K];
+            float[] similarities = new float[TOP_K];
+            int hits = 0;
+            for (float[] query : queries) {
+                index.search(query, TOP_K, EF_SEARCH, ids, similarities);
+                List<Integer> exact = HnswIndexTest.bruteForce(vectors, query, TOP_K);
+                for (int id : ids) {
+                    if (exact.contains(id)) {
+                        hits++;
+                    }
+                }
+            }
+            double exactMicros = averageMicros(20, () -> HnswIndexTest.bruteForce(vectors, queries.get(0), TOP_K));
+            int runs = 5000;
+            double hnswMicros = averageMicros(runs, new Runnable() {
+                private int next;
+
+                @Override
+                public void run() {
+                    index.search(queries.get(next++ % QUERIES), TOP_K, EF_SEARCH, ids, similarities);
+                }
+            });
+            double recall = hits / (double) (QUERIES * TOP_K);
+            log.info("{} vectors: build {} ms, exact {} us, hnsw {} us, recall {}, {} KB", size,
+                    Math.round(buildMillis), String.format("%.1f", exactMicros), String.format("%.1f", hnswMicros),
+                    String.format("%.3f", recall), index.estimatedBytes() / 1024);
+
+            assertThat(hnswMicros).as("query latency for %d vectors", size).isLessThan(1000.0);
+            assertThat(recall).as("recall@%d for %d vectors", TOP_K, size).isGreaterThan(0.9);
+            assertThat(index.estimatedBytes()).as("index size for %d vectors", size)
+                    .isLessThan(2L * size * (4L * DIMENSION + 4L * (2 * 16 + 1)));
+            if (size >= 3000) {
+                assertThat(hnswMicros).as("speedup over an exact scan of %d vectors", size).isLessThan(exactMicros / 5);
+            }
+        }
+    }
+
+    private static double averageMicros(int runs, Runnable work) {
+        for (int i = 0; i < Math.max(3, runs / 5); i++) {
+            work.run();
+        }
+        long started = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            work.run();
+        }
+        return (System.nanoTime() - started) / 1_000.0 / runs;
+    }
+}
@@ -0,0 +1,163 @@
+package com.aura.service.pdf;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class HnswIndexTest {
+
+    @Test
+    @DisplayName("search: finds almost all of the exact nearest neighbors")
+    void search_matchesBruteForceRecall() {
+        Random random = new Random(5);
+        List<float[]> vectors = clusteredVectors(random, 2000, 48);
+        HnswIndex index = HnswIndex.build(vectors, 16, 100);
+
+        int k = 10;
+        int found = 0;
+        int[] ids = new int[k];
+        float[] similarities = new float[k];
+        for (float[] query : clusteredVectors(random, 100, 48)) {
+            int count = index.search(query, k, 64, ids, similarities);
+            assertThat(count).isEqualTo(k);
+            List<Integer> exact = bruteForce(vectors, query, k);
+            for (int i = 0; i < count; i++) {
+                if (exact.contains(ids[i])) {
+                    found++;
+                }
+                if (i > 0) {
+                    assertThat(similarities[i]).isLessThanOrEqualTo(similarities[i - 1]);
+                }
+            }
+        }
+
+        assertThat(found / (double) (100 * k)).isGreaterThan(0.95);
+    }
+
+    @Test
+    @DisplayName("search: scans graphs no larger than the candidate list exactly")
+    void search_smallGraphIsExact() {
+        Random random = new Random(9);
+        List<float[]> vectors = clusteredVectors(random, 40, 16);
+        HnswIndex index = HnswIndex.build(vectors, 4, 16);
+        float[] query = vectors.get(7).clone();
+        int[] ids = new int[5];
+        float[] similarities = new float[5];
+
+        int count = index.search(query, 5, 64, ids, similarities);
+
+        assertThat(count).isEqualTo(5);
+        assertThat(Arrays.stream(ids).boxed().toList()).containsExactlyElementsOf(bruteForce(vectors, query, 5));
+        assertThat(ids[0]).isEqualTo(7);
+        assertThat(similarities[0]).isCloseTo(1f, within(1e-5f));
+    }
+
+    @Test
+    @DisplayName("search: returns no more results than vectors")
+    void search_limitsResultsToSize() {
+        HnswIndex index = HnswIndex.build(List.of(new float[]{1, 0}, new float[]{0, 1}), 4, 16);
+        int[] ids = new int[6];
+        float[] similarities = new float[6];
+
+        assertThat(index.search(new float[]{1, 1}, 6, 16, ids, similarities)).isEqualTo(2);
+        assertThat(HnswIndex.build(List.of(), 4, 16).size()).isZero();
+    }
+
+    @Test
+    @DisplayName("search: concurrent queries sharing pooled scratch space return the same neighbors as sequential ones")
+    void search_concurrentQueriesMatchSequential() throws Exception {
+        Random random = new Random(13);
+        List<float[]> vectors = clusteredVectors(random, 1000, 32);
+        HnswIndex index = HnswIndex.build(vectors, 8, 64);
+        List<float[]> queries = clusteredVectors(random, 200, 32);
+        List<int[]> expected = new ArrayList<>();
+        for (float[] query : queries) {
+            expected.add(neighbors(index, query));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> matches = new ArrayList<>();
+            for (int round = 0; round < 8; round++) {
+                matches.add(executor.submit(() -> {
+                    for (int i = 0; i < queries.size(); i++) {
+                        if (!Arrays.equals(neighbors(index, queries.get(i)), expected.get(i))) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> match : matches) {
+                assertThat(match.get(30, TimeUnit.SECONDS)).isTrue();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("build: rejects vectors of different dimensions")
+    void build_rejectsMixedDimensions() {
+        assertThatThrownBy(() -> HnswIndex.build(List.of(new float[3], new float[4]), 4, 16))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    static List<float[]> clusteredVectors(Random random, int count, int dimension) {
+        Random centers = new Random(dimension);
+        float[][] clusters = new float[20][dimension];
+        for (float[] center : clusters) {
+            for (int i = 0; i < dimension; i++) {
+                center[i] = (float) centers.nextGaussian();
+            }
+        }
+        List<float[]> vectors = new ArrayList<>(count);
+        for (int n = 0; n < count; n++) {
+            float[] center = clusters[random.nextInt(clusters.length)];
+            float[] vector = new float[dimension];
+            for (int i = 0; i < dimension; i++) {
+                vector[i] = center[i] + (float) random.nextGaussian() * 0.8f;
+            }
+            vectors.add(vector);
+        }
+        return vectors;
+    }
+
+    static List<Integer> bruteForce(List<float[]> vectors, float[] query, int k) {
+        double[] scores = new double[vectors.size()];
+        List<Integer> order = new ArrayList<>();
+        for (int n = 0; n < vectors.size(); n++) {
+            float[] vector = vectors.get(n);
+            double dot = 0;
+            double norm = 0;
+            double queryNorm = 0;
+            for (int i = 0; i < query.length; i++) {
+                dot += vector[i] * query[i];
+                norm += vector[i] * vector[i];
+                queryNorm += query[i] * query[i];
+            }
+            scores[n] = dot / Math.sqrt(norm * queryNorm);
+            order.add(n);
+        }
+        order.sort((a, b) -> Double.compare(scores[b], scores[a]));
+        return order.subList(0, Math.min(k, order.size()));
+    }
+
+    private static int[] neighbors(HnswIndex index, float[] query) {
+        int[] ids = new int[10];
+        index.search(query, 10, 32, ids, new float[10]);
+        return ids;
+    }
+}
@@ -0,0 +1,79 @@
+package com.aura.service.pdf;
+
+import com.sun.management.ThreadMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Compares per-query rebuilds with a prebuilt {@link DocumentIndex}; run with {@code mvn -Pperf test}.
+ */
+@Slf4j
+@Tag("perf")
+class LexicalRetrieverPerfTest {
+
+    private static final int[] PAGE_COUNTS = {10, 100, 1000};
+    private static final int CHUNKS_PER_PAGE = 3;
+    private static final int WORDS_PER_CHUNK = 200;
+    private static final int VOCABULARY = 20_000;
+    private static final List<String> QUERIES = List.of(
+            "w12 w480 w3301", "w7 w19", "w15000 w2 w999 w41", "w1 w5 w9 w60 w700");
+
+    @Test
+    @DisplayName("a prebuilt index answers queries faster than rebuilding per query, allocating only per-chunk scores")
+    void prebuiltIndex_beatsPerQueryRebuild() {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported(), "per-thread allocation accounting unavailable");
+        threads.setThreadAllocatedMemoryEnabled(true);
+        LexicalRetriever retriever = new LexicalRetriever();
+        for (int pages : PAGE_COUNTS) {
+            List<TextChunk> chunks = LexicalRetrieverTest.sampleChunks(
+                    new Random(pages), pages * CHUNKS_PER_PAGE, WORDS_PER_CHUNK, VOCABULARY);
+            DocumentIndex index = retriever.index(chunks);
+            int runs = Math.max(5, 20_000 / pages);
+
+            double rebuild = averageMicros(runs, () -> {
+                for (String query : QUERIES) {
+                    retriever.retrieveTopChunks(query, chunks, 6, 0.0);
+                }
+            }) / QUERIES.size();
+            double indexed = averageMicros(runs * 10, () -> {
+                for (String query : QUERIES) {
+                    retriever.retrieveTopChunks(query, index, 6, 0.0);
+                }
+            }) / QUERIES.size();
+            long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < runs; i++) {
+                for (String query : QUERIES) {
+                    retriever.retrieveTopChunks(query, index, 6, 0.0);
+                }
+            }
+            long allocatedPerQuery = (threads.getCurrentThreadAllocatedBytes() - allocatedBefore) / runs / QUERIES.size();
+            log.info("{} pages, {} chunks: rebuild {} us, indexed {} us, {} B allocated per query", pages, chunks.size(),
+                    String.format("%.1f", rebuild), String.format("%.1f", indexed), allocatedPerQuery);
+
+            assertThat(rebuild / indexed).as("speedup at %d pages", pages).isGreaterThan(10.0);
+            assertThat(allocatedPerQuery).as("bytes allocated per query at %d pages", pages)
+                    .isLessThan(16L * chunks.size() + 16_384);
+        }
+    }
+
+    private static double averageMicros(int runs, Runnable work) {
+        for (int i = 0; i < Math.max(3, runs / 5); i++) {
+            work.run();
+        }
+        long started = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            work.run();
+        }
+        return (System.nanoTime() - started) / 1_000.0 / runs;
+    }
+}
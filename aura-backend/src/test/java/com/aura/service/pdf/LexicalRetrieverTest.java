@@ -0,0 +1,184 @@
+package com.aura.service.pdf;
+
+import com.sun.management.ThreadMXBean;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class LexicalRetrieverTest {
+
+    private final LexicalRetriever retriever = new LexicalRetriever();
+
+    @Test
+    @DisplayName("retrieveTopChunks: postings scoring matches a full BM25 scan of every chunk")
+    void retrieveTopChunks_matchesFullScan() {
+        List<TextChunk> chunks = sampleChunks(new Random(7), 300, 120, 400);
+        DocumentIndex index = retriever.index(chunks);
+
+        for (String query : List.of("w3 w17 w17", "w250 w1", "w399 w2 w5 w8", "missing")) {
+            double[] expected = fullScan(query, chunks);
+            List<ScoredChunk> top = retriever.retrieveTopChunks(query, index, 10, 0.01);
+
+            List<Integer> expectedOrder = rank(expected, 0.01, 10);
+            assertThat(top).extracting(scored -> scored.chunk().index()).containsExactlyElementsOf(expectedOrder);
+            for (ScoredChunk scored : top) {
+                assertThat(scored.score()).isCloseTo(expected[scored.chunk().index()], within(1e-9));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("retrieveTopChunks: keeps zero-score chunks in document order when the threshold allows them")
+    void retrieveTopChunks_zeroThresholdKeepsDocumentOrder() {
+        List<TextChunk> chunks = List.of(
+                new TextChunk(0, "alpha"),
+                new TextChunk(1, "beta gamma"),
+                new TextChunk(2, "delta"),
+                new TextChunk(3, "epsilon"));
+
+        List<ScoredChunk> top = retriever.retrieveTopChunks("gamma", retriever.index(chunks), 3, 0.0);
+
+        assertThat(top).extracting(scored -> scored.chunk().index()).containsExactly(1, 0, 2);
+        assertThat(top.get(1).score()).isZero();
+    }
+
+    @Test
+    @DisplayName("index: interns terms case-insensitively and stores one posting per chunk containing them")
+    void index_buildsPostings() {
+        DocumentIndex index = retriever.index(List.of(
+                new TextChunk(0, "Alpha beta ALPHA"),
+                new TextChunk(1, "beta")));
+        TermDictionary terms = index.terms();
+
+        int alpha = terms.idOf("alpha");
+        int beta = terms.idOf("beta");
+        assertThat(terms.size()).isEqualTo(2);
+        assertThat(terms.idOf("gamma")).isEqualTo(-1);
+        assertThat(index.documentFrequency(alpha)).isEqualTo(1);
+        assertThat(index.postingChunk(index.postingStart(alpha))).isEqualTo(0);
+        assertThat(index.postingFrequency(index.postingStart(alpha))).isEqualTo(2);
+        assertThat(index.documentFrequency(beta)).isEqualTo(2);
+        assertThat(index.lengthNorm(0)).isGreaterThan(index.lengthNorm(1));
+    }
+
+    @Test
+    @DisplayName("TermScanner: splits on anything that is not a lower-cased ASCII letter or digit")
+    void termScanner_splitsLikeTheRegexTokenizer() {
+        String text = "Hello, WORLD-42! café_x9  ";
+        List<String> terms = new ArrayList<>();
+        for (int start = TermScanner.start(text, 0); start >= 0; ) {
+            int end = TermScanner.end(text, start);
+            terms.add(text.substring(start, end).toLowerCase(Locale.ROOT));
+            start = TermScanner.start(text, end);
+        }
+
+        assertThat(terms).containsExactlyElementsOf(tokens(text));
+    }
+
+    @Test
+    @DisplayName("retrieveTopChunks: allocates only the score array, the heap and the results per query")
+    void retrieveTopChunks_allocationIsBoundedByChunkCount() {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported(), "per-thread allocation accounting unavailable");
+        threads.setThreadAllocatedMemoryEnabled(true);
+        List<TextChunk> chunks = sampleChunks(new Random(11), 3000, 200, 20_000);
+        DocumentIndex index = retriever.index(chunks);
+        for (int i = 0; i < 2000; i++) {
+            retriever.retrieveTopChunks("w12 w480 w3301 w7", index, 6, 0.0);
+        }
+
+        int queries = 200;
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < queries; i++) {
+            retriever.retrieveTopChunks("w12 w480 w3301 w7", index, 6, 0.0);
+        }
+        long perQuery = (threads.getCurrentThreadAllocatedBytes() - before) / queries;
+
+        assertThat(perQuery).isLessThan(8L * chunks.size() + 4096);
+    }
+
+    static List<TextChunk> sampleChunks(Random random, int chunkCount, int wordsPerChunk, int vocabulary) {
+        List<TextChunk> chunks = new ArrayList<>(chunkCount);
+        for (int i = 0; i < chunkCount; i++) {
+            StringBuilder text = new StringBuilder();
+            int words = 1 + random.nextInt(wordsPerChunk);
+            for (int w = 0; w < words; w++) {
+                double skewed = Math.pow(random.nextDouble(), 2);
+                text.append('w').append((int) (skewed * vocabulary)).append(' ');
+            }
+            chunks.add(new TextChunk(i, text.toString()));
+        }
+        return chunks;
+    }
+
+    /**
+     * Scores every chunk with per-chunk term maps, the way retrieval worked before the postings index.
+     */
+    private static double[] fullScan(String query, List<TextChunk> chunks) {
+        List<Map<String, Integer>> termFrequencies = new ArrayList<>();
+        Map<String, Integer> documentFrequencies = new HashMap<>();
+        double totalLength = 0;
+        for (TextChunk chunk : chunks) {
+            Map<String, Integer> tf = new HashMap<>();
+            List<String> tokens = tokens(chunk.text());
+            totalLength += tokens.size();
+            for (String token : tokens) {
+                tf.merge(token, 1, Integer::sum);
+            }
+            Set<String> seen = new HashSet<>(tf.keySet());
+            for (String term : seen) {
+                documentFrequencies.merge(term, 1, Integer::sum);
+            }
+            termFrequencies.add(tf);
+        }
+        double avgLength = totalLength / chunks.size();
+        double[] scores = new double[chunks.size()];
+        for (int i = 0; i < chunks.size(); i++) {
+            int length = termFrequencies.get(i).values().stream().mapToInt(Integer::intValue).sum();
+            for (String token : tokens(query)) {
+                Integer tf = termFrequencies.get(i).get(token);
+                if (tf == null) {
+                    continue;
+                }
+                int df = documentFrequencies.get(token);
+                double idf = Math.log(1.0 + (chunks.size() - df + 0.5) / (df + 0.5));
+                scores[i] += idf * (tf * 2.5) / (tf + 1.5 * (0.25 + 0.75 * (length / avgLength)));
+            }
+        }
+        return scores;
+    }
+
+    private static List<Integer> rank(double[] scores, double minScore, int topK) {
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < scores.length; i++) {
+            if (scores[i] >= minScore) {
+                order.add(i);
+            }
+        }
+        order.sort((a, b) -> Double.compare(scores[b], scores[a]));
+        return order.subList(0, Math.min(topK, order.size()));
+    }
+
+    private static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        for (String part : text.toLowerCase(Locale.ROOT).split("[^a-z0-9]+")) {
+            if (!part.isBlank()) {
+                tokens.add(part);
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,224 @@
+package com.aura.service.pdf;
+
+import com.aura.config.PdfChatProperties;
+import com.aura.config.WorkerThreads;
+import com.aura.error.AuraErrorCode;
+import com.aura.error.AuraException;
+import com.aura.service.pdf.PdfTextExtractor.SpooledPdf;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class PdfDocumentServiceTest {
+
+    @TempDir Path cacheDir;
+
+    PdfTextExtractor pdfTextExtractor;
+
+    PdfChatProperties properties;
+    LexicalRetriever lexicalRetriever;
+    SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        properties = new PdfChatProperties();
+        properties.setDirectInjectMaxChars(10);
+        properties.setChunkSizeChars(40);
+        properties.setChunkOverlapChars(0);
+        lexicalRetriever = new LexicalRetriever();
+        meterRegistry = new SimpleMeterRegistry();
+        pdfTextExtractor = spy(new PdfTextExtractor(properties, new WorkerThreads(false), meterRegistry));
+    }
+
+    @Test
+    @DisplayName("load: a repeated upload is served from the cache without parsing again")
+    void load_repeatedUploadSkipsExtraction() {
+        stubExtraction(longText());
+        PdfDocumentService service = service(cache());
+
+        PdfDocument first = service.load(pdf("%PDF-1.4 same bytes"));
+        PdfDocument second = service.load(pdf("%PDF-1.4 same bytes"));
+
+        verify(pdfTextExtractor, times(1)).extractText(any(SpooledPdf.class));
+        assertThat(second).isSameAs(first);
+        assertThat(first.chunks()).isNotEmpty();
+        assertThat(first.index().size()).isEqualTo(first.chunks().size());
+        assertThat(meterRegistry.get("aura.pdf.cache").tag("result", "hit").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("load: different bytes are parsed separately")
+    void load_differentBytesAreParsed() {
+        stubExtraction("short", "other");
+        PdfDocumentService service = service(cache());
+
+        PdfDocument first = service.load(pdf("%PDF-1.4 one"));
+        PdfDocument second = service.load(pdf("%PDF-1.4 two"));
+
+        assertThat(first.sha256()).isNotEqualTo(second.sha256());
+        assertThat(second.text()).isEqualTo("other");
+        assertThat(second.chunks()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("load: reads the upload once, hashing it while it is spooled")
+    void load_readsUploadOnce() {
+        stubExtraction("short");
+        AtomicInteger reads = new AtomicInteger();
+        MockMultipartFile upload = new MockMultipartFile("file", "doc.pdf", "application/pdf",
+                "%PDF-1.4 once".getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public InputStream getInputStream() throws IOException {
+                reads.incrementAndGet();
+                return super.getInputStream();
+            }
+        };
+
+        PdfDocument document = service(cache()).load(upload);
+
+        assertThat(reads.get()).isEqualTo(1);
+        assertThat(document.sha256()).isEqualTo(HexFormat.of().formatHex(sha256("%PDF-1.4 once")));
+    }
+
+    @Test
+    @DisplayName("load: rejects an upload that is not a PDF before consulting the cache")
+    void load_validatesBeforeCacheLookup() {
+        PdfDocumentService service = service(cache());
+
+        assertThatThrownBy(() -> service.load(new MockMultipartFile("file", "doc.txt", "text/plain",
+                "%PDF-1.4 body".getBytes(StandardCharsets.UTF_8))))
+                .isInstanceOf(AuraException.class)
+                .satisfies(ex -> assertThat(((AuraException) ex).getCode()).isEqualTo(AuraErrorCode.INVALID_FILE_TYPE));
+        assertThatThrownBy(() -> service.load(pdf("not a pdf")))
+                .isInstanceOf(AuraException.class)
+                .satisfies(ex -> assertThat(((AuraException) ex).getCode()).isEqualTo(AuraErrorCode.INVALID_FILE_TYPE));
+        assertThat(meterRegistry.get("aura.pdf.cache").tag("result", "miss").counter().count()).isZero();
+        assertThat(meterRegistry.get("aura.pdf.cache").tag("result", "hit").counter().count()).isZero();
+    }
+
+    @Test
+    @DisplayName("cache: evicts least recently used documents over the byte budget")
+    void cache_evictsLeastRecentlyUsedByBytes() {
+        PdfDocument a = document("a", longText());
+        PdfDocument b = document("b", longText());
+        PdfDocument c = document("c", longText());
+        properties.setCacheMaxBytes(a.estimatedBytes() * 2 + 1);
+        PdfDocumentCache cache = cache();
+
+        cache.put(a);
+        cache.put(b);
+        cache.get("a");
+        cache.put(c);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("a")).isNotNull();
+        assertThat(cache.get("c")).isNotNull();
+        assertThat(cache.sizeInBytes()).isLessThanOrEqualTo(properties.getCacheMaxBytes());
+    }
+
+    @Test
+    @DisplayName("cache: the disk tier survives a restart and rebuilds the index")
+    void cache_diskTierSurvivesRestart() {
+        properties.setCacheDir(cacheDir.toString());
+        PdfDocument stored = document("abc", longText());
+        cache().put(stored);
+
+        PdfDocumentCache restarted = cache();
+        PdfDocument loaded = restarted.get("abc");
+
+        assertThat(loaded).isNotNull();
+        assertThat(loaded.text()).isEqualTo(stored.text());
+        assertThat(loaded.chunks()).isEqualTo(stored.chunks());
+        assertThat(loaded.index().size()).isEqualTo(stored.chunks().size());
+        assertThat(meterRegistry.get("aura.pdf.cache").tag("result", "disk_hit").counter().count()).isEqualTo(1.0);
+        assertThat(restarted.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("cache: discards disk entries written with other chunking settings")
+    void cache_discardsEntriesFromOtherChunkingSettings() {
+        properties.setCacheDir(cacheDir.toString());
+        cache().put(document("abc", longText()));
+
+        properties.setChunkSizeChars(80);
+
+        assertThat(cache().get("abc")).isNull();
+    }
+
+    @Test
+    @DisplayName("cache: discards disk entries extracted under another text limit")
+    void cache_discardsEntriesFromOtherExtractedTextLimit() {
+        properties.setCacheDir(cacheDir.toString());
+        cache().put(document("abc", longText()));
+
+        properties.setMaxExtractedChars(properties.getMaxExtractedChars() + 1);
+
+        assertThat(cache().get("abc")).isNull();
+    }
+
+    private void stubExtraction(String text, String... more) {
+        Deque<String> texts = new ArrayDeque<>(List.of(more));
+        texts.addFirst(text);
+        doAnswer(inv -> {
+            inv.<SpooledPdf>getArgument(0).delete();
+            return texts.size() > 1 ? texts.removeFirst() : texts.peekFirst();
+        }).when(pdfTextExtractor).extractText(any(SpooledPdf.class));
+    }
+
+    private static byte[] sha256(String content) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private PdfDocumentService service(PdfDocumentCache cache) {
+        return new PdfDocumentService(pdfTextExtractor, new TextChunker(), lexicalRetriever, cache, properties);
+    }
+
+    private PdfDocumentCache cache() {
+        return new PdfDocumentCache(properties, lexicalRetriever, new ObjectMapper(), meterRegistry);
+    }
+
+    private PdfDocument document(String sha256, String text) {
+        List<TextChunk> chunks = new TextChunker().chunk(text, properties.getChunkSizeChars(), 0);
+        return new PdfDocument(sha256, text, chunks, lexicalRetriever.index(chunks));
+    }
+
+    private static String longText() {
+        return "Alpha bravo charlie delta. Echo foxtrot golf hotel. India juliet kilo lima. Mike november oscar.";
+    }
+
+    private static MockMultipartFile pdf(String content) {
+        return new MockMultipartFile("file", "doc.pdf", "application/pdf", content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,69 @@
+package com.aura.service.pdf;
+
+import com.aura.config.PdfChatProperties;
+import com.aura.config.WorkerThreads;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Measures single-pass versus page-range extraction wall time; run with {@code mvn -Pperf test}.
+ */
+@Slf4j
+@Tag("perf")
+class PdfExtractionPerfTest {
+
+    private static final int[] PAGE_COUNTS = {25, 50, 100, 150, 200};
+    private static final int RUNS = 3;
+
+    @Test
+    @DisplayName("page-range extraction speeds up 150-200 page documents at least half as much as the cores it uses")
+    void parallelExtraction_scalesWithCores() throws Exception {
+        int cores = Runtime.getRuntime().availableProcessors();
+        assumeTrue(cores > 1, "needs more than one core");
+        PdfTextExtractor sequential = extractor(1);
+        PdfTextExtractor parallel = extractor(0);
+        try {
+            for (int pages : PAGE_COUNTS) {
+                Path document = PdfTextExtractorTest.write(PdfTextExtractorTest.samplePdf(pages));
+                sequential.parsePdf(document, new PdfTextExtractor.OpenDocuments());
+                parallel.parsePdf(document, new PdfTextExtractor.OpenDocuments());
+                double single = averageMillis(sequential, document);
+                double ranges = averageMillis(parallel, document);
+                int workers = Math.min(cores, parallel.pageRanges(pages).size());
+                log.info("{} pages on {} of {} cores: single {} ms, ranges {} ms", pages, workers, cores,
+                        String.format("%.1f", single), String.format("%.1f", ranges));
+
+                if (pages >= 150) {
+                    assertThat(single / ranges).as("speedup at %d pages", pages).isGreaterThan(0.5 * workers);
+                }
+            }
+        } finally {
+            sequential.shutdown();
+            parallel.shutdown();
+        }
+    }
+
+    private static PdfTextExtractor extractor(int rangeWorkers) {
+        PdfChatProperties properties = new PdfChatProperties();
+        properties.setRangeWorkers(rangeWorkers);
+        PdfTextExtractor extractor = new PdfTextExtractor(properties, new WorkerThreads(false), new SimpleMeterRegistry());
+        extractor.start();
+        return extractor;
+    }
+
+    private static double averageMillis(PdfTextExtractor extractor, Path document) {
+        long started = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            extractor.parsePdf(document, new PdfTextExtractor.OpenDocuments());
+        }
+        return (System.nanoTime() - started) / 1_000_000.0 / RUNS;
+    }
+}
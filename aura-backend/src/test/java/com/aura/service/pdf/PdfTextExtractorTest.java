@@ -0,0 +1,344 @@
+package com.aura.service.pdf;
+
+import com.aura.config.PdfChatProperties;
+import com.aura.config.WorkerThreads;
+import com.aura.error.AuraException;
+import com.aura.error.OverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.graphics.color.PDDeviceRGB;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PdfTextExtractorTest {
+
+    SimpleMeterRegistry meterRegistry;
+    PdfChatProperties properties;
+    PdfTextExtractor extractor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new PdfChatProperties();
+        properties.setParseWorkers(1);
+        properties.setParseQueueCapacity(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (extractor != null) {
+            extractor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("extractText: rejects at once with OVERLOADED when every parser is busy and the queue is full")
+    void extractText_rejectsWhenQueueFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        extractor = extractor(upload -> {
+            await(release);
+            return "text";
+        });
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> extractor.extractText(pdf()));
+        waitUntil(() -> meterRegistry.get("aura.pdf.queue.wait").timer().count() == 1);
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> extractor.extractText(pdf()));
+        waitUntil(() -> extractor.queuedCount() == 1);
+
+        assertThatThrownBy(() -> extractor.extractText(pdf())).isInstanceOf(OverloadedException.class);
+        assertThat(meterRegistry.get("aura.pdf.rejected").counter().count()).isEqualTo(1.0);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("text");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("text");
+    }
+
+    @Test
+    @DisplayName("extractText: the parse timeout starts when parsing starts, not when the upload is queued")
+    void extractText_timeoutExcludesQueueWait() throws Exception {
+        properties.setParseTimeoutSeconds(2);
+        extractor = extractor(upload -> {
+            sleep(read(upload).contains("slow") ? 1500 : 1000);
+            return "text";
+        });
+
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> extractor.extractText(pdf("slow")));
+        waitUntil(() -> meterRegistry.get("aura.pdf.queue.wait").timer().count() == 1);
+        String second = extractor.extractText(pdf("fast"));
+
+        assertThat(second).isEqualTo("text");
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("text");
+        assertThat(meterRegistry.get("aura.pdf.queue.wait").timer().max(TimeUnit.MILLISECONDS)).isGreaterThan(1000.0);
+        assertThat(meterRegistry.get("aura.pdf.parse").timer().count()).isEqualTo(2L);
+    }
+
+    @Test
+    @DisplayName("pageRanges: splits large documents into one contiguous range per worker")
+    void pageRanges_splitsLargeDocuments() {
+        properties.setRangeWorkers(4);
+        extractor = new PdfTextExtractor(properties, new WorkerThreads(false), meterRegistry);
+
+        assertThat(extractor.pageRanges(100)).containsExactly(
+                new PdfTextExtractor.PageRange(1, 25),
+                new PdfTextExtractor.PageRange(26, 50),
+                new PdfTextExtractor.PageRange(51, 75),
+                new PdfTextExtractor.PageRange(76, 100));
+        assertThat(extractor.pageRanges(40)).containsExactly(
+                new PdfTextExtractor.PageRange(1, 20),
+                new PdfTextExtractor.PageRange(21, 40));
+        assertThat(extractor.pageRanges(20)).containsExactly(new PdfTextExtractor.PageRange(1, 20));
+    }
+
+    @Test
+    @DisplayName("parsePdf: parallel page-range extraction returns the same text as a single pass")
+    void parsePdf_parallelMatchesSequential() throws Exception {
+        Path document = write(samplePdf(60));
+        properties.setRangeWorkers(1);
+        PdfTextExtractor sequential = new PdfTextExtractor(properties, new WorkerThreads(false), meterRegistry);
+        sequential.start();
+        String expected;
+        try {
+            expected = sequential.parsePdf(document, new PdfTextExtractor.OpenDocuments());
+        } finally {
+            sequential.shutdown();
+        }
+
+        PdfChatProperties parallelProperties = new PdfChatProperties();
+        parallelProperties.setRangeWorkers(3);
+        extractor = new PdfTextExtractor(parallelProperties, new WorkerThreads(false), new SimpleMeterRegistry());
+        extractor.start();
+
+        assertThat(extractor.pageRanges(60)).hasSize(3);
+        String actual = extractor.parsePdf(document, new PdfTextExtractor.OpenDocuments());
+        assertThat(actual).isEqualTo(expected);
+        assertThat(actual.indexOf("Page 1 ")).isLessThan(actual.indexOf("Page 21 "));
+        assertThat(actual.indexOf("Page 21 ")).isLessThan(actual.indexOf("Page 60 "));
+    }
+
+    @Test
+    @DisplayName("extractText: a timed-out parse is stopped by closing its document")
+    void extractText_timeoutClosesDocument() throws Exception {
+        properties.setParseTimeoutSeconds(1);
+        AtomicBoolean stopped = new AtomicBoolean();
+        extractor = new PdfTextExtractor(properties, new WorkerThreads(false), meterRegistry) {
+            @Override
+            String parsePdf(Path upload, OpenDocuments documents) {
+                try {
+                    PDDocument document = documents.add(new PDDocument());
+                    while (!document.getDocument().isClosed()) {
+                        Thread.onSpinWait();
+                    }
+                } catch (IOException ex) {
+                    // abandoned before the document was tracked
+                }
+                stopped.set(true);
+                return "text";
+            }
+        };
+        extractor.start();
+
+        assertThatThrownBy(() -> extractor.extractText(pdf()))
+                .isInstanceOf(AuraException.class)
+                .hasMessage("PDF parsing timed out");
+        waitUntil(stopped::get);
+        waitUntil(() -> meterRegistry.get("aura.pdf.parse").timer().count() == 1);
+    }
+
+    @Test
+    @DisplayName("extractText: concurrent large uploads retain about the configured in-heap buffer per parser")
+    void extractText_boundsHeapForConcurrentLargeUploads() throws Exception {
+        byte[] document = largePdf();
+        properties.setMaxFileSizeMb(64);
+        properties.setParseWorkers(4);
+        properties.setParseQueueCapacity(4);
+        properties.setParseMaxMainMemoryBytes(256 * 1024);
+        extractor = new PdfTextExtractor(properties, new WorkerThreads(false), meterRegistry);
+        extractor.start();
+        MockMultipartFile upload = new MockMultipartFile("file", "manual.pdf", "application/pdf", document);
+
+        // A first parse loads PDFBox's classes and fonts, which stay in the heap for good.
+        assertThat(extractor.extractText(upload)).contains("Large manual");
+        long baseline = retainedHeap();
+        AtomicLong peak = new AtomicLong(baseline);
+        AtomicBoolean parsing = new AtomicBoolean(true);
+        Thread sampler = Thread.ofPlatform().daemon().start(() -> {
+            while (parsing.get()) {
+                peak.accumulateAndGet(retainedHeap(), Math::max);
+            }
+        });
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> texts = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                texts.add(callers.submit(() -> extractor.extractText(upload)));
+            }
+            for (Future<String> text : texts) {
+                assertThat(text.get(60, TimeUnit.SECONDS)).contains("Large manual");
+            }
+        } finally {
+            parsing.set(false);
+            callers.shutdownNow();
+            sampler.join();
+        }
+        long perParser = properties.getParseMaxMainMemoryBytes() + 512 * 1024;
+        assertThat(peak.get() - baseline).isLessThan(4 * perParser);
+    }
+
+    /**
+     * Returns the heap left in use by the last full collection, so neither garbage from parsing nor objects
+     * allocated since are counted. The second collection frees what the first only queued for cleanup.
+     */
+    private static long retainedHeap() {
+        System.gc();
+        System.gc();
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.getCollectionUsage() != null) {
+                used += pool.getCollectionUsage().getUsed();
+            }
+        }
+        return used;
+    }
+
+    /**
+     * Builds a one-page PDF of about 23 MB, nearly all of it an uncompressed image the text stripper never decodes.
+     */
+    private static byte[] largePdf() throws IOException {
+        int width = 3000;
+        int height = 2600;
+        try (PDDocument document = new PDDocument(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            PDPage page = new PDPage();
+            document.addPage(page);
+            PDImageXObject image = new PDImageXObject(document,
+                    new ByteArrayInputStream(new byte[width * height * 3]), null, width, height, 8, PDDeviceRGB.INSTANCE);
+            try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                content.drawImage(image, 0, 0, 100, 100);
+                content.beginText();
+                content.setFont(PDType1Font.HELVETICA, 12);
+                content.newLineAtOffset(50, 700);
+                content.showText("Large manual");
+                content.endText();
+            }
+            document.save(out);
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * Builds a PDF whose every page carries a few lines starting with {@code Page <n>}.
+     */
+    static byte[] samplePdf(int pages) throws IOException {
+        try (PDDocument document = new PDDocument(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            for (int page = 1; page <= pages; page++) {
+                PDPage pdPage = new PDPage();
+                document.addPage(pdPage);
+                try (PDPageContentStream content = new PDPageContentStream(document, pdPage)) {
+                    content.beginText();
+                    content.setFont(PDType1Font.HELVETICA, 10);
+                    content.setLeading(12);
+                    content.newLineAtOffset(50, 740);
+                    for (int line = 1; line <= 40; line++) {
+                        content.showText("Page " + page + " line " + line + " of the maintenance manual text.");
+                        content.newLine();
+                    }
+                    content.endText();
+                }
+            }
+            document.save(out);
+            return out.toByteArray();
+        }
+    }
+
+    static Path write(byte[] document) throws IOException {
+        Path path = Files.createTempFile("aura-pdf-test-", ".pdf");
+        path.toFile().deleteOnExit();
+        return Files.write(path, document);
+    }
+
+    private PdfTextExtractor extractor(Function<Path, String> parser) {
+        PdfTextExtractor created = new PdfTextExtractor(properties, new WorkerThreads(false), meterRegistry) {
+            @Override
+            String parsePdf(Path upload, OpenDocuments documents) {
+                return parser.apply(upload);
+            }
+        };
+        created.start();
+        return created;
+    }
+
+    private static MockMultipartFile pdf() {
+        return pdf("body");
+    }
+
+    private static MockMultipartFile pdf(String body) {
+        return new MockMultipartFile("file", "doc.pdf", "application/pdf",
+                ("%PDF-1.4 " + body).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static String read(Path upload) {
+        try {
+            return Files.readString(upload, StandardCharsets.US_ASCII);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Condition not met in time");
+            }
+            Thread.sleep(5);
+        }
+    }
+}
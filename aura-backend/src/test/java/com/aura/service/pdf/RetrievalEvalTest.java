@@ -0,0 +1,262 @@
+package com.aura.service.pdf;
+
+import com.aura.client.StubEmbeddingServer;
+import com.aura.config.OllamaProperties;
+import com.aura.config.PdfChatProperties;
+import com.aura.config.PdfChatProperties.RetrievalMode;
+import com.aura.config.WorkerThreads;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Offline recall@k and prompt size per retrieval mode over fixed PDFs and questions; run with {@code mvn -Peval test}.
+ */
+@Slf4j
+@Tag("eval")
+class RetrievalEvalTest {
+
+    private static final int[] TOP_KS = {1, 2, 3, 4, 6};
+    private static final int TARGET_CHARS = 30_000;
+
+    private static final List<Manual> MANUALS = List.of(
+            new Manual("fleet", 1, List.of(
+                    new Question("What does E4711 mean?",
+                            "Fault code E4711 means the coolant pump stalled during startup."),
+                    new Question("How often should a lorry get new tires?",
+                            "Every truck must have its tyres replaced after forty thousand kilometres."),
+                    new Question("Where is T-88 used?",
+                            "Torque setting T-88 applies to the rear axle bolts."),
+                    new Question("Who repaired the vehicle?",
+                            "The garage fixed the delivery car after the brake failure."))),
+            new Manual("billing", 2, List.of(
+                    new Question("When is AP-17 required?",
+                            "Invoices above 5000 euros need approval form AP-17 signed by a director."),
+                    new Question("How long do clients have to settle an invoice?",
+                            "Customers can pay a bill by bank transfer within thirty days."),
+                    new Question("What is RQ-204 for?",
+                            "Refund requests go to ticket queue RQ-204 in the support portal."),
+                    new Question("Is the penalty forgiven for a first offence?",
+                            "Late fees are waived for first-time offenders."))),
+            new Manual("security", 3, List.of(
+                    new Question("What does GW-9 rotate?",
+                            "VPN gateway GW-9 rotates its certificates every 90 days."),
+                    new Question("Do employees have to secure their notebook display when away?",
+                            "Staff must lock their laptop screen when leaving the desk."),
+                    new Question("Who answers extension 3344?",
+                            "Incident hotline extension 3344 is staffed around the clock."),
+                    new Question("Where should I forward suspicious mail?",
+                            "Phishing emails should be reported to the security team immediately."))));
+
+    private static final String[] SUBJECTS = {"The operator", "Each site", "The unit", "The supervisor",
+            "A technician", "The system", "The team", "Each department"};
+    private static final String[] VERBS = {"checks", "records", "reviews", "updates", "inspects", "approves",
+            "documents", "schedules"};
+    private static final String[] OBJECTS = {"the daily log", "the inventory list", "the shift report",
+            "the safety checklist", "the spare parts", "the access badge", "the training record", "the budget"};
+    private static final String[] LINKS = {"when", "before", "after", "while", "if", "until"};
+    private static final String[] CLAUSES = {"the shift is over", "a new order arrives", "the audit is due",
+            "the reading is above %d", "section %d was updated", "someone asks how often this should happen",
+            "the manager says what to do", "the form has been signed", "room %d is free"};
+
+    @Test
+    @DisplayName("hybrid retrieval reaches the recall of either mode alone with fewer chunks and shorter prompts")
+    void hybrid_matchesRecallWithSmallerTopK() throws IOException {
+        PdfChatProperties properties = new PdfChatProperties();
+        properties.setParseWorkers(1);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PdfTextExtractor extractor = new PdfTextExtractor(properties, new WorkerThreads(false), meterRegistry);
+        extractor.start();
+        LexicalRetriever lexicalRetriever = new LexicalRetriever();
+        TextChunker chunker = new TextChunker();
+        PdfPromptBuilder promptBuilder = new PdfPromptBuilder();
+
+        try (StubEmbeddingServer server = new StubEmbeddingServer()) {
+            OllamaProperties ollamaProperties = new OllamaProperties();
+            ollamaProperties.setEmbeddingModel("test-embed");
+            TextEmbedder embedder = new TextEmbedder(server.client(meterRegistry),
+                    new EmbeddingCache(properties, meterRegistry), ollamaProperties, properties);
+            DocumentRetriever retriever = new DocumentRetriever(lexicalRetriever,
+                    new SemanticRetriever(embedder, ollamaProperties, properties), properties, new WorkerThreads(false));
+            retriever.start();
+
+            List<PdfDocument> documents = new ArrayList<>();
+            for (Manual manual : MANUALS) {
+                String extracted = extractor.extractText(new MockMultipartFile(
+                        "file", manual.name() + ".pdf", "application/pdf", render(text(manual))));
+                List<TextChunk> chunks = chunker.chunk(extracted, properties.getChunkSizeChars(),
+                        properties.getChunkOverlapChars(), properties.getChunkBoundaryToleranceChars());
+                assertThat(extracted.length()).isGreaterThan(properties.getDirectInjectMaxChars());
+                for (Question question : manual.questions()) {
+                    assertThat(chunks).anyMatch(chunk -> contains(chunk.text(), question.answer()));
+                }
+                documents.add(new PdfDocument(manual.name(), extracted, chunks, lexicalRetriever.index(chunks)));
+            }
+
+            int maxK = TOP_KS[TOP_KS.length - 1];
+            properties.setTopK(maxK);
+            Map<RetrievalMode, double[]> recall = new EnumMap<>(RetrievalMode.class);
+            Map<RetrievalMode, double[]> promptChars = new EnumMap<>(RetrievalMode.class);
+            int questions = 0;
+            for (RetrievalMode mode : RetrievalMode.values()) {
+                properties.setRetrievalMode(mode);
+                double[] hits = new double[TOP_KS.length];
+                double[] chars = new double[TOP_KS.length];
+                questions = 0;
+                for (int d = 0; d < MANUALS.size(); d++) {
+                    PdfDocument document = documents.get(d);
+                    for (Question question : MANUALS.get(d).questions()) {
+                        List<ScoredChunk> top = retriever.retrieveTopChunks(question.text(), document);
+                        questions++;
+                        for (int i = 0; i < TOP_KS.length; i++) {
+                            List<ScoredChunk> selected = top.subList(0, Math.min(TOP_KS[i], top.size()));
+                            if (selected.stream().anyMatch(scored -> contains(scored.chunk().text(), question.answer()))) {
+                                hits[i]++;
+                            }
+                            chars[i] += promptBuilder.buildPrompt(question.text(), document.text(), selected, false).length();
+                        }
+                    }
+                }
+                for (int i = 0; i < TOP_KS.length; i++) {
+                    hits[i] /= questions;
+                    chars[i] /= questions;
+                }
+                recall.put(mode, hits);
+                promptChars.put(mode, chars);
+            }
+            retriever.shutdown();
+
+            for (RetrievalMode mode : RetrievalMode.values()) {
+                for (int i = 0; i < TOP_KS.length; i++) {
+                    log.info("{} top-{} over {} questions: recall {}, {} prompt chars", mode.name().toLowerCase(),
+                            TOP_KS[i], questions, String.format("%.2f", recall.get(mode)[i]),
+                            Math.round(promptChars.get(mode)[i]));
+                }
+            }
+
+            int fullK = indexOf(maxK);
+            double singleModeRecall = Math.max(recall.get(RetrievalMode.LEXICAL)[fullK],
+                    recall.get(RetrievalMode.SEMANTIC)[fullK]);
+            int hybridK = 0;
+            while (hybridK < fullK && recall.get(RetrievalMode.HYBRID)[hybridK] < singleModeRecall) {
+                hybridK++;
+            }
+            assertThat(recall.get(RetrievalMode.HYBRID)[hybridK]).isGreaterThanOrEqualTo(singleModeRecall);
+            assertThat(TOP_KS[hybridK]).as("top-k at which hybrid matches either mode at top-%d", maxK).isLessThan(maxK);
+            assertThat(promptChars.get(RetrievalMode.HYBRID)[hybridK])
+                    .isLessThan(0.6 * promptChars.get(RetrievalMode.LEXICAL)[fullK]);
+            for (int i = indexOf(2); i < TOP_KS.length; i++) {
+                assertThat(recall.get(RetrievalMode.HYBRID)[i]).as("hybrid recall at top-%d", TOP_KS[i])
+                        .isGreaterThanOrEqualTo(recall.get(RetrievalMode.LEXICAL)[i])
+                        .isGreaterThanOrEqualTo(recall.get(RetrievalMode.SEMANTIC)[i]);
+            }
+        } finally {
+            extractor.shutdown();
+        }
+    }
+
+    /**
+     * Builds paragraphs of generated procedure sentences with the manual's answer sentences spread evenly.
+     */
+    private static String text(Manual manual) {
+        Random random = new Random(manual.seed());
+        StringBuilder text = new StringBuilder();
+        int factEvery = TARGET_CHARS / manual.questions().size();
+        int nextFact = factEvery / 2;
+        int fact = 0;
+        while (text.length() < TARGET_CHARS) {
+            int sentences = 4 + random.nextInt(4);
+            for (int s = 0; s < sentences; s++) {
+                if (fact < manual.questions().size() && text.length() >= nextFact) {
+                    text.append(manual.questions().get(fact++).answer()).append(' ');
+                    nextFact += factEvery;
+                    continue;
+                }
+                String clause = String.format(CLAUSES[random.nextInt(CLAUSES.length)], 1 + random.nextInt(400));
+                text.append(SUBJECTS[random.nextInt(SUBJECTS.length)]).append(' ')
+                        .append(VERBS[random.nextInt(VERBS.length)]).append(' ')
+                        .append(OBJECTS[random.nextInt(OBJECTS.length)]).append(' ')
+                        .append(LINKS[random.nextInt(LINKS.length)]).append(' ')
+                        .append(clause).append(". ");
+            }
+            text.append("\n\n");
+        }
+        return text.toString();
+    }
+
+    /**
+     * Lays the text out as wrapped lines of 10pt Helvetica, with an empty line between paragraphs.
+     */
+    private static byte[] render(String text) throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (String paragraph : text.split("\n\n")) {
+            StringBuilder line = new StringBuilder();
+            for (String word : paragraph.strip().split(" ")) {
+                if (line.length() + word.length() + 1 > 95) {
+                    lines.add(line.toString());
+                    line.setLength(0);
+                }
+                line.append(line.isEmpty() ? "" : " ").append(word);
+            }
+            lines.add(line.toString());
+            lines.add("");
+        }
+
+        int linesPerPage = 58;
+        try (PDDocument document = new PDDocument(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            for (int from = 0; from < lines.size(); from += linesPerPage) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    content.beginText();
+                    content.setFont(PDType1Font.HELVETICA, 10);
+                    content.setLeading(12);
+                    content.newLineAtOffset(50, 740);
+                    for (String line : lines.subList(from, Math.min(lines.size(), from + linesPerPage))) {
+                        content.showText(line);
+                        content.newLine();
+                    }
+                    content.endText();
+                }
+            }
+            document.save(out);
+            return out.toByteArray();
+        }
+    }
+
+    private static boolean contains(String chunk, String answer) {
+        return chunk.replaceAll("\\s+", " ").contains(answer);
+    }
+
+    private static int indexOf(int topK) {
+        for (int i = 0; i < TOP_KS.length; i++) {
+            if (TOP_KS[i] == topK) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Not an evaluated top-k: " + topK);
+    }
+
+    private record Question(String text, String answer) {
+    }
+
+    private record Manual(String name, long seed, List<Question> questions) {
+    }
+}
@@ -0,0 +1,127 @@
+package com.aura.service.pdf;
+
+import com.aura.client.StubEmbeddingServer;
+import com.aura.config.OllamaProperties;
+import com.aura.config.PdfChatProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SemanticRetrieverTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PdfChatProperties properties = new PdfChatProperties();
+    private final OllamaProperties ollamaProperties = new OllamaProperties();
+    private StubEmbeddingServer server;
+    private SemanticRetriever retriever;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new StubEmbeddingServer();
+        ollamaProperties.setEmbeddingModel("test-embed");
+        properties.setEmbeddingBatchSize(4);
+        TextEmbedder embedder = new TextEmbedder(server.client(meterRegistry),
+                new EmbeddingCache(properties, meterRegistry), ollamaProperties, properties);
+        retriever = new SemanticRetriever(embedder, ollamaProperties, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    @DisplayName("retrieveTopChunks: finds a chunk phrased with synonyms that BM25 cannot match")
+    void retrieveTopChunks_matchesParaphrases() {
+        List<TextChunk> chunks = List.of(
+                new TextChunk(0, "Lunch is served at noon in the cafeteria."),
+                new TextChunk(1, "Garage fixed our car in May."),
+                new TextChunk(2, "Quarterly bill totals go to finance."));
+        PdfDocument document = document("doc", chunks);
+
+        List<ScoredChunk> top = retriever.retrieveTopChunks("automobile repaired", document, 1, 0.0);
+
+        assertThat(top).extracting(scored -> scored.chunk().index()).containsExactly(1);
+        assertThat(new LexicalRetriever().retrieveTopChunks("automobile repaired", document.index(), 1, 0.01)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("retrieveTopChunks: embeds chunks in batches once and reuses vectors by chunk text")
+    void retrieveTopChunks_batchesAndCachesEmbeddings() {
+        List<TextChunk> chunks = new ArrayList<>();
+        for (String topic : List.of("apple", "bridge", "candle", "dolphin", "engine",
+                "forest", "guitar", "harbor", "island", "jacket")) {
+            chunks.add(new TextChunk(chunks.size(), "This section covers the " + topic + "."));
+        }
+        PdfDocument first = document("first", chunks);
+
+        retriever.retrieveTopChunks("dolphin", first, 2, 0.0);
+        assertThat(server.batchSizes()).containsExactly(4, 4, 2, 1);
+
+        retriever.retrieveTopChunks("dolphin", document("same-chunks", chunks), 2, 0.0);
+        retriever.retrieveTopChunks("dolphin", first, 2, 0.0);
+
+        assertThat(server.batchSizes()).hasSize(4);
+        assertThat(retriever.index(first)).isSameAs(retriever.index(first));
+        assertThat(retriever.retrieveTopChunks("dolphin", first, 1, 0.0).get(0).chunk().index()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("retrieveTopChunks: drops chunks below the minimum similarity")
+    void retrieveTopChunks_appliesMinScore() {
+        List<TextChunk> chunks = List.of(
+                new TextChunk(0, "Vehicle maintenance schedule."),
+                new TextChunk(1, "Cafeteria menu for Friday."));
+
+        List<ScoredChunk> top = retriever.retrieveTopChunks("car maintenance", document("doc", chunks), 2, 0.5);
+
+        assertThat(top).extracting(scored -> scored.chunk().index()).containsExactly(0);
+        assertThat(top.get(0).score()).isGreaterThanOrEqualTo(0.5);
+    }
+
+    @Test
+    @DisplayName("index: concurrent misses for the same document share one build")
+    void index_concurrentMissesBuildOnce() throws Exception {
+        List<TextChunk> chunks = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            chunks.add(new TextChunk(i, "Paragraph " + (char) ('a' + i) + " about topic " + (char) ('m' + i) + "."));
+        }
+        PdfDocument document = document("shared", chunks);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<HnswIndex>> indexes = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                indexes.add(executor.submit(() -> {
+                    start.await();
+                    return retriever.index(document);
+                }));
+            }
+            start.countDown();
+            HnswIndex first = indexes.get(0).get(10, TimeUnit.SECONDS);
+            for (Future<HnswIndex> index : indexes) {
+                assertThat(index.get(10, TimeUnit.SECONDS)).isSameAs(first);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(server.batchSizes()).containsExactly(4, 4, 4);
+    }
+
+    private static PdfDocument document(String sha256, List<TextChunk> chunks) {
+        return new PdfDocument(sha256, "", chunks, new LexicalRetriever().index(chunks));
+    }
+}
@@ -0,0 +1,142 @@
+package com.aura.service.pdf;
+
+import com.sun.management.ThreadMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Compares the structure-aware chunker with the fixed-offset one it replaced; run with {@code mvn -Pperf test}.
+ */
+@Slf4j
+@Tag("perf")
+class TextChunkerPerfTest {
+
+    private static final int PAGES = 1000;
+    private static final int CHARS_PER_PAGE = 2500;
+    private static final int FACTS = 400;
+    private static final int CHUNK_SIZE = 1200;
+    private static final int CHUNK_OVERLAP = 120;
+    private static final int TOLERANCE = 200;
+    private static final int RUNS = 10;
+
+    @Test
+    @DisplayName("structure-aware chunks keep more answers whole while allocating less at comparable throughput")
+    void structureAware_versusFixedOffsets() {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported(), "per-thread allocation accounting unavailable");
+        threads.setThreadAllocatedMemoryEnabled(true);
+        List<String> facts = new ArrayList<>();
+        String text = document(new Random(3), facts);
+        TextChunker chunker = new TextChunker();
+
+        Function<String, List<TextChunk>> fixed = source -> fixedChunks(source, CHUNK_SIZE, CHUNK_OVERLAP);
+        Function<String, List<TextChunk>> structured = source -> chunker.chunk(source, CHUNK_SIZE, CHUNK_OVERLAP, TOLERANCE);
+
+        Measurement baseline = measure("fixed", fixed, text, facts, threads);
+        Measurement candidate = measure("structured", structured, text, facts, threads);
+
+        assertThat(candidate.wholeHitRate()).isGreaterThan(0.9).isGreaterThan(baseline.wholeHitRate());
+        assertThat(candidate.allocatedPerChar()).isLessThan(baseline.allocatedPerChar());
+        assertThat(candidate.megabytesPerSecond()).isGreaterThan(baseline.megabytesPerSecond() / 2);
+    }
+
+    private static Measurement measure(String name,
+                                       Function<String, List<TextChunk>> chunker,
+                                       String text,
+                                       List<String> facts,
+                                       ThreadMXBean threads) {
+        for (int i = 0; i < 3; i++) {
+            chunker.apply(text);
+        }
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long started = System.nanoTime();
+        List<TextChunk> chunks = null;
+        for (int i = 0; i < RUNS; i++) {
+            chunks = chunker.apply(text);
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        double allocatedPerChar = (threads.getCurrentThreadAllocatedBytes() - allocatedBefore) / (double) RUNS / text.length();
+
+        LexicalRetriever retriever = new LexicalRetriever();
+        DocumentIndex index = retriever.index(chunks);
+        int whole = 0;
+        for (int i = 0; i < facts.size(); i++) {
+            List<ScoredChunk> top = retriever.retrieveTopChunks("kappa" + i + " value" + i, index, 1, 0.0);
+            if (!top.isEmpty() && top.get(0).chunk().text().contains(facts.get(i))) {
+                whole++;
+            }
+        }
+        Measurement measurement = new Measurement(RUNS * text.length() / seconds / 1e6, allocatedPerChar,
+                whole / (double) facts.size());
+        log.info("{}: {} chunks, {} MB/s, {} B allocated per char, {} of answers whole", name, chunks.size(),
+                String.format("%.1f", measurement.megabytesPerSecond()), String.format("%.2f", allocatedPerChar),
+                String.format("%.1f%%", 100 * measurement.wholeHitRate()));
+        return measurement;
+    }
+
+    /**
+     * Builds paragraphs of filler sentences with one fact sentence per fact. Fact sentences are longer
+     * than the overlap and their two key terms sit at either end, so a cut through one separates them.
+     */
+    private static String document(Random random, List<String> facts) {
+        StringBuilder text = new StringBuilder(PAGES * CHARS_PER_PAGE);
+        int factEvery = PAGES * CHARS_PER_PAGE / FACTS;
+        int nextFact = factEvery / 2;
+        while (text.length() < PAGES * CHARS_PER_PAGE) {
+            int sentences = 3 + random.nextInt(5);
+            for (int s = 0; s < sentences; s++) {
+                if (text.length() >= nextFact && facts.size() < FACTS) {
+                    int id = facts.size();
+                    String fact = "The kappa" + id + " setting described in the maintenance manual for this unit,"
+                            + " which applies to every installation regardless of the site conditions, the operating"
+                            + " temperature range or the firmware revision that was shipped from the factory,"
+                            + " should always be configured to value" + id + ".";
+                    facts.add(fact);
+                    text.append(fact).append(' ');
+                    nextFact += factEvery;
+                    continue;
+                }
+                int words = 8 + random.nextInt(14);
+                for (int w = 0; w < words; w++) {
+                    text.append(w == 0 ? "Filler" : "word").append(random.nextInt(500)).append(w + 1 < words ? " " : ". ");
+                }
+            }
+            text.append("\n\n");
+        }
+        return text.toString();
+    }
+
+    /**
+     * The chunker this replaced: fixed character offsets, each slice copied and then trimmed.
+     */
+    private static List<TextChunk> fixedChunks(String text, int size, int overlap) {
+        List<TextChunk> chunks = new ArrayList<>();
+        int start = 0;
+        while (start < text.length()) {
+            int end = Math.min(text.length(), start + size);
+            String slice = text.substring(start, end).trim();
+            if (!slice.isEmpty()) {
+                chunks.add(new TextChunk(chunks.size(), slice));
+            }
+            if (end == text.length()) {
+                break;
+            }
+            start = end - overlap;
+        }
+        return chunks;
+    }
+
+    private record Measurement(double megabytesPerSecond, double allocatedPerChar, double wholeHitRate) {
+    }
+}
@@ -0,0 +1,97 @@
+package com.aura.service.pdf;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TextChunkerTest {
+
+    private final TextChunker chunker = new TextChunker();
+
+    @Test
+    @DisplayName("chunk: ends chunks at the latest sentence end within the tolerance")
+    void chunk_endsAtSentenceBoundaries() {
+        String text = "First sentence is here. Second sentence follows it. Third one closes the paragraph.";
+
+        List<TextChunk> chunks = chunker.chunk(text, 60, 0, 40);
+
+        assertThat(chunks).extracting(TextChunk::text).containsExactly(
+                "First sentence is here. Second sentence follows it.",
+                "Third one closes the paragraph.");
+    }
+
+    @Test
+    @DisplayName("chunk: starts the overlap at a sentence start")
+    void chunk_overlapStartsAtSentence() {
+        String text = "Alpha one two. Beta three four. Gamma five six. Delta seven eight.";
+
+        List<TextChunk> chunks = chunker.chunk(text, 40, 20, 15);
+
+        assertThat(chunks).extracting(TextChunk::text).containsExactly(
+                "Alpha one two. Beta three four.",
+                "Beta three four. Gamma five six.",
+                "Gamma five six. Delta seven eight.");
+        assertThat(chunks).extracting(TextChunk::start).containsExactly(0, 15, 32);
+    }
+
+    @Test
+    @DisplayName("chunk: prefers a paragraph break over a later sentence end")
+    void chunk_prefersParagraphBreaks() {
+        String text = "Intro line one. Intro line two.\n\nBody starts. Body goes on for a while.";
+
+        List<TextChunk> chunks = chunker.chunk(text, 50, 0, 30);
+
+        assertThat(chunks.get(0).text()).isEqualTo("Intro line one. Intro line two.");
+        assertThat(chunks.get(1).text()).startsWith("Body starts.");
+    }
+
+    @Test
+    @DisplayName("chunk: records offsets that map each chunk back to the source text")
+    void chunk_recordsOffsets() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            text.append("Sentence number ").append(i).append(" talks about topic ").append(i % 7).append(". ");
+            if (i % 9 == 8) {
+                text.append("\n\n");
+            }
+        }
+
+        List<TextChunk> chunks = chunker.chunk(text, 300, 60, 80);
+
+        assertThat(chunks).hasSizeGreaterThan(10);
+        for (int i = 0; i < chunks.size(); i++) {
+            TextChunk chunk = chunks.get(i);
+            assertThat(chunk.index()).isEqualTo(i);
+            assertThat(text.substring(chunk.start(), chunk.end())).isEqualTo(chunk.text());
+            assertThat(chunk.text().length()).isLessThanOrEqualTo(300);
+            assertThat(chunk.text()).isEqualTo(chunk.text().strip());
+            if (i > 0) {
+                assertThat(chunk.start()).isGreaterThan(chunks.get(i - 1).start());
+                assertThat(chunk.start()).isLessThanOrEqualTo(chunks.get(i - 1).end());
+                assertThat(Character.isLetterOrDigit(text.charAt(chunk.start() - 1))).isFalse();
+            }
+        }
+        assertThat(chunks.getLast().end()).isEqualTo(text.toString().stripTrailing().length());
+    }
+
+    @Test
+    @DisplayName("chunk: cuts at the size limit when the window has no break")
+    void chunk_cutsHardWithoutBreaks() {
+        String text = "x".repeat(250);
+
+        List<TextChunk> chunks = chunker.chunk(text, 100, 10, 20);
+
+        assertThat(chunks).extracting(chunk -> chunk.text().length()).containsExactly(100, 100, 50);
+        assertThat(chunks).extracting(TextChunk::start).containsExactly(0, 100, 200);
+    }
+
+    @Test
+    @DisplayName("chunk: returns nothing for blank text")
+    void chunk_blankText() {
+        assertThat(chunker.chunk("  \n\t ", 100, 10)).isEmpty();
+        assertThat(chunker.chunk(null, 100, 10)).isEmpty();
+    }
+}